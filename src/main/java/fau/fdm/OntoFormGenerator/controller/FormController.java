@@ -3,7 +3,10 @@ package fau.fdm.OntoFormGenerator.controller;
 import fau.fdm.OntoFormGenerator.data.Draft;
 import fau.fdm.OntoFormGenerator.data.Form;
 import fau.fdm.OntoFormGenerator.data.Individual;
+import fau.fdm.OntoFormGenerator.data.ValidationJob;
+import fau.fdm.OntoFormGenerator.data.ValidationResult;
 import fau.fdm.OntoFormGenerator.service.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 public class FormController {
@@ -23,18 +27,18 @@ public class FormController {
 
     private final FormFillService formFillService;
 
-    private final OntologyOverviewService ontologyOverviewService;
-    private final OntologyValidationService ontologyValidationService;
+    private final ValidationJobService validationJobService;
+    private final DraftAutosaveService draftAutosaveService;
 
     public FormController(FormOverviewService formOverviewService, FormEditorService formEditorService,
                           FormFillService formFillService,
-                          OntologyOverviewService ontologyOverviewService,
-                          OntologyValidationService ontologyValidationService) {
+                          ValidationJobService validationJobService,
+                          DraftAutosaveService draftAutosaveService) {
+        this.draftAutosaveService = draftAutosaveService;
         this.formOverviewService = formOverviewService;
         this.formEditorService = formEditorService;
         this.formFillService = formFillService;
-        this.ontologyOverviewService = ontologyOverviewService;
-        this.ontologyValidationService = ontologyValidationService;
+        this.validationJobService = validationJobService;
     }
 
     @RequestMapping(value = "/api/forms", method = RequestMethod.POST)
@@ -78,26 +82,52 @@ public class FormController {
                                     @RequestParam(value = "draftName", required = false) String draftName,
                                     @RequestBody Map<String, String[]> form) {
         String ontologyName = form.get("ontologyName")[0];
-        var individualUri = formFillService.createIndividualFromFilledForm(formName,
-                ontologyName, form.get("targetClass")[0],
-                form.get("instanceName")[0], draftName, form);
         if (Boolean.parseBoolean(validate)) {
+            if (draftName != null) {
+                // The draft is kept if the validation fails, so it has to contain the latest autosave
+                draftAutosaveService.flush(draftName);
+            }
             try {
-                var res = ontologyValidationService.validateOntologyWithReasoner(ontologyName);
-                if (res.isConsistent()) {
-                    return ResponseEntity.ok("Instance was created and validated");
-                } else {
-                    formFillService.deleteIndividualByIri(ontologyName, individualUri);
-                    return ResponseEntity.badRequest().body(res.getReason());
-                }
-            } catch (RuntimeException e) {
-                formFillService.deleteIndividualByIri(ontologyName, individualUri);
-                return ResponseEntity.internalServerError().body("An error occurred while validating the ontology.");
+                // The individual is only added to the ontology once the validation job found it consistent
+                var job = validationJobService.submitFormFill(formName, ontologyName, form.get("targetClass")[0],
+                        form.get("instanceName")[0], draftName, form);
+                return ResponseEntity.accepted().body(job.getId());
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Too many validations are running. Please try again later.");
             }
         }
+        if (draftName != null) {
+            // The draft is deleted with the creation of the individual
+            draftAutosaveService.discard(draftName);
+        }
+        formFillService.createIndividualFromFilledForm(formName,
+                ontologyName, form.get("targetClass")[0],
+                form.get("instanceName")[0], draftName, form);
         return ResponseEntity.ok("Instance was created");
     }
 
+    @RequestMapping(value = "/api/validation/jobs/{jobId}", method = RequestMethod.GET)
+    public ResponseEntity<ValidationJob> getValidationJob(@PathVariable String jobId) {
+        var job = validationJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @RequestMapping(value = "/api/validation/jobs/{jobId}/result", method = RequestMethod.GET)
+    public ResponseEntity<ValidationResult> getValidationJobResult(@PathVariable String jobId) {
+        var job = validationJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.isFinished()) {
+            return ResponseEntity.accepted().build();
+        }
+        return ResponseEntity.ok(job.getResult());
+    }
+
     @RequestMapping(value = "/api/forms/{formName}/draft", method = RequestMethod.POST,
             consumes = MediaType.APPLICATION_JSON_VALUE)
     public String fillFormDraft(@PathVariable String formName,
@@ -106,16 +136,30 @@ public class FormController {
                            Model model) {
         var normalFields = (Map<String, List<String>>) form.get("normalFields");
         var additionalFields = (Map<String, List<String>>) form.get("additionalFields");
+        draftAutosaveService.discard(firstDraftName);
         formFillService.createDraftFromFilledForm(formName,
                 normalFields.get("ontologyName").get(0), normalFields.get("instanceName").get(0), firstDraftName,
                 normalFields, additionalFields);
         return loadIndexPage(model);
     }
 
+    @RequestMapping(value = "/api/forms/{formName}/draft/autosave", method = RequestMethod.POST,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> autosaveFormDraft(@PathVariable String formName,
+                                                  @RequestParam("firstDraftName") String firstDraftName,
+                                                  @RequestBody Map<String, Object> form) {
+        var normalFields = (Map<String, List<String>>) form.get("normalFields");
+        var additionalFields = (Map<String, List<String>>) form.get("additionalFields");
+        draftAutosaveService.autosave(formName, normalFields.get("instanceName").get(0), firstDraftName,
+                normalFields, additionalFields);
+        return ResponseEntity.accepted().build();
+    }
+
     @RequestMapping(value = "/api/forms/{formName}/draft", method = RequestMethod.DELETE)
     public String deleteFormDraft(@PathVariable String formName,
                                 @RequestParam("uri") String draftUri,
                                 Model model) {
+        draftAutosaveService.discard(draftUri.substring(draftUri.lastIndexOf('#') + 1));
         formFillService.deleteDraft(formName, draftUri);
         return loadIndexPage(model);
     }
@@ -127,8 +171,13 @@ public class FormController {
     }
 
     @RequestMapping(value = "/api/forms/{formName}/drafts", method = RequestMethod.GET)
-    public ResponseEntity<List<Draft>> getDraftsOfForm(@PathVariable String formName) {
-        return ResponseEntity.ok(formOverviewService.getAllDraftsOfForm(formName));
+    public ResponseEntity<List<Draft>> getDraftsOfForm(@PathVariable String formName,
+                                                       @RequestParam(value = "page", required = false) Integer page,
+                                                       @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (page == null) {
+            return ResponseEntity.ok(formOverviewService.getAllDraftsOfForm(formName));
+        }
+        return ResponseEntity.ok(formOverviewService.getDraftsOfForm(formName, page, size));
     }
 
     @RequestMapping(value = "/api/forms/{formName}/drafts/{individualName}/field/{propertyName}", method = RequestMethod.POST)
@@ -145,8 +194,13 @@ public class FormController {
     }
 
     private String loadIndexPage(Model model) {
-        model.addAttribute("ontologies", ontologyOverviewService.getImportedOntologies());
-        model.addAttribute("forms", formOverviewService.getAllForms());
+        var dashboard = formOverviewService.getDashboard(0);
+        model.addAttribute("ontologies", dashboard.getOntologies());
+        model.addAttribute("forms", dashboard.getForms());
+        model.addAttribute("elementCounts", dashboard.getElementCounts());
+        model.addAttribute("draftCounts", dashboard.getDraftCounts());
+        model.addAttribute("page", dashboard.getPage());
+        model.addAttribute("pageCount", dashboard.getPageCount());
 
         return "index";
     }
@@ -4,14 +4,15 @@ import fau.fdm.OntoFormGenerator.data.*;
 import fau.fdm.OntoFormGenerator.exception.OntologyValidationException;
 import fau.fdm.OntoFormGenerator.service.*;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
+import fau.fdm.OntoFormGenerator.tdb.OntologyStatistics;
+import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import fau.fdm.OntoFormGenerator.validation.GraphChanges;
+import fau.fdm.OntoFormGenerator.validation.RaceStatistics;
 import org.apache.commons.io.FileUtils;
-import org.apache.jena.query.Dataset;
 import org.apache.jena.query.ReadWrite;
-import org.apache.jena.tdb2.TDB2Factory;
-import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -39,10 +40,10 @@ public class OntologyController {
 
     private final FormOverviewService formOverviewService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
 
-    public OntologyController(OntologyOverviewService ontologyOverviewService, OntologyContentService ontologyContentService, FormOverviewService formOverviewService, FormFillService formFillService, OntologyConstraintService ontologyConstraintService, OntologyValidationService ontologyValidationService, GeneralTDBService generalTDBService) {
+    public OntologyController(OntologyOverviewService ontologyOverviewService, OntologyContentService ontologyContentService, FormOverviewService formOverviewService, FormFillService formFillService, OntologyConstraintService ontologyConstraintService, OntologyValidationService ontologyValidationService, GeneralTDBService generalTDBService, TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
         this.ontologyOverviewService = ontologyOverviewService;
         this.ontologyContentService = ontologyContentService;
         this.formOverviewService = formOverviewService;
@@ -182,6 +183,11 @@ public class OntologyController {
         return new ResponseEntity<>(ontologyContentService.buildSubclassGraph(ontologyName), HttpStatus.OK);
     }
 
+    @RequestMapping(value = "/api/ontologies/{ontologyName}/statistics", method = RequestMethod.GET)
+    public ResponseEntity<OntologyStatistics.Snapshot> getOntologyStatistics(@PathVariable String ontologyName) {
+        return new ResponseEntity<>(ontologyOverviewService.getOntologyStatistics(ontologyName), HttpStatus.OK);
+    }
+
     @RequestMapping(value = "/api/ontologies/{ontologyName}/classes", method = RequestMethod.GET)
     public ResponseEntity<List<OntologyClass>> getAllClassesOfOntology(@PathVariable String ontologyName) {
         return new ResponseEntity<>(ontologyContentService.getAllClassesOfOntology(ontologyName), HttpStatus.OK);
@@ -194,26 +200,25 @@ public class OntologyController {
                                                  @PathVariable String individualName,
                                                  @RequestParam("individualUri") String individualUri,
                                                  @RequestBody Map<String, String[]> form) {
-        Dataset dataset = TDB2Factory.connectDataset(ontologyDirectory);
-        dataset.begin(ReadWrite.WRITE);
-        try {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            var dataset = connection.getDataset();
             if (individualUri == null) {
                 individualUri = generalTDBService.getIndividualURIInOntology(dataset, ontologyName, individualName);
             }
+            var graph = dataset.getNamedModel(ontologyName).getGraph();
+            // An edit only changes the statements of the individual
+            var before = GraphChanges.triplesOf(graph, individualUri);
             var uri = ontologyContentService.editIndividual(dataset, ontologyName, individualUri, form);
-            var res = ontologyValidationService.validateOntologyWithReasoner(dataset, ontologyName);
+            var changes = GraphChanges.diff(before, GraphChanges.triplesOf(graph, individualUri));
+            var res = ontologyValidationService.validateOntologyWithReasoner(dataset, ontologyName, changes);
             if (res.isConsistent()) {
-                dataset.commit();
+                connection.commit();
                 return ResponseEntity.ok("Instance was created and validated");
             } else {
-                dataset.abort();
                 return ResponseEntity.badRequest().body(res.getReason());
             }
-        } catch (RuntimeException | OWLOntologyCreationException e) {
-            dataset.abort();
+        } catch (RuntimeException e) {
             return ResponseEntity.internalServerError().body("An error occurred while validating the ontology.");
-        } finally {
-            dataset.end();
         }
     }
 
@@ -239,9 +244,24 @@ public class OntologyController {
                 HttpStatus.OK);
     }
 
+    @RequestMapping(value = "/api/database/statistics", method = RequestMethod.GET)
+    public ResponseEntity<TDBDatasetManager.TransactionStatistics> getDatabaseStatistics() {
+        return new ResponseEntity<>(datasetManager.getStatistics(), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/api/validation/race-statistics", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, RaceStatistics.OntologyStatistics>> getRaceStatistics() {
+        return new ResponseEntity<>(ontologyValidationService.getRaceStatistics(), HttpStatus.OK);
+    }
+
     private String loadIndexPage(Model model) {
-        model.addAttribute("ontologies", ontologyOverviewService.getImportedOntologies());
-        model.addAttribute("forms", formOverviewService.getAllForms());
+        var dashboard = formOverviewService.getDashboard(0);
+        model.addAttribute("ontologies", dashboard.getOntologies());
+        model.addAttribute("forms", dashboard.getForms());
+        model.addAttribute("elementCounts", dashboard.getElementCounts());
+        model.addAttribute("draftCounts", dashboard.getDraftCounts());
+        model.addAttribute("page", dashboard.getPage());
+        model.addAttribute("pageCount", dashboard.getPageCount());
 
         return "index";
     }
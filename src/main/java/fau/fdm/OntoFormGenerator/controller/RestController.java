@@ -18,7 +18,6 @@ import java.util.ArrayList;
 public class RestController {
 
     private final FormFillService formFillService;
-    private final OntologyConstraintService ontologyConstraintService;
     private final GeneralTDBService generalTDBService;
     Logger logger = LoggerFactory.getLogger(OntologyOverviewService.class);
 
@@ -28,51 +27,53 @@ public class RestController {
     private final FormEditorService formEditorService;
 
     public RestController(OntologyOverviewService ontologyOverviewService,
-                          FormOverviewService formOverviewService, OntologyContentService ontologyContentService, FormEditorService formEditorService, FormFillService formFillService, OntologyConstraintService ontologyConstraintService, GeneralTDBService generalTDBService) {
+                          FormOverviewService formOverviewService, OntologyContentService ontologyContentService, FormEditorService formEditorService, FormFillService formFillService, GeneralTDBService generalTDBService) {
         this.ontologyOverviewService = ontologyOverviewService;
         this.formOverviewService = formOverviewService;
         this.ontologyContentService = ontologyContentService;
         this.formEditorService = formEditorService;
         this.formFillService = formFillService;
-        this.ontologyConstraintService = ontologyConstraintService;
         this.generalTDBService = generalTDBService;
     }
 
     @RequestMapping(value = "/", method = RequestMethod.GET)
-    public String loadMainPage(Model model) {
+    public String loadMainPage(Model model, @RequestParam(value = "page", defaultValue = "0") int page) {
 
-        model.addAttribute("ontologies", ontologyOverviewService.getImportedOntologies());
-        var allForms = formOverviewService.getAllForms();
-        model.addAttribute("forms", allForms);
-        model.addAttribute("formDrafts", formOverviewService.getAllDraftsOfForms(allForms));
+        var dashboard = formOverviewService.getDashboard(page);
+        model.addAttribute("ontologies", dashboard.getOntologies());
+        model.addAttribute("forms", dashboard.getForms());
+        model.addAttribute("elementCounts", dashboard.getElementCounts());
+        model.addAttribute("draftCounts", dashboard.getDraftCounts());
+        model.addAttribute("page", dashboard.getPage());
+        model.addAttribute("pageCount", dashboard.getPageCount());
 
         return "index";
     }
 
     @RequestMapping(value = "/editor/{form}", method = RequestMethod.GET)
     public String loadEditorPage(Model model, @PathVariable String form, @RequestParam("ontology") String ontology) {
-        var targetClass = formEditorService.getTargetClassOfForm(form);
+        var definition = formEditorService.getFormDefinition(form);
         model.addAttribute("form", form);
         model.addAttribute("ontology", ontology);
-        model.addAttribute("ontologyClasses", ontologyContentService.getAllClassesOfOntology(ontology));
+        model.addAttribute("ontologyClasses", definition.getOntologyClasses());
 
-        model.addAttribute("targetClass", targetClass);
-        model.addAttribute("formElements", formEditorService.getAllFormElementsOfForm(form));
+        model.addAttribute("targetClass", definition.getTargetClass());
+        model.addAttribute("formElements", definition.getFormFields());
 
-        model.addAttribute("constraints", ontologyConstraintService.getConstraints(ontology,
-                targetClass.getUri(), null));
+        model.addAttribute("constraints", definition.getConstraints());
 
         return "editor";
     }
 
     @RequestMapping(value = "/fill/{form}", method = RequestMethod.GET)
     public String loadFilloutPage(Model model, @PathVariable String form, @RequestParam("ontology") String ontology) {
+        var definition = formEditorService.getFormDefinition(form);
         model.addAttribute("form", form);
         model.addAttribute("ontology", ontology);
-        model.addAttribute("ontologyClasses", ontologyContentService.getAllClassesOfOntology(ontology));
+        model.addAttribute("ontologyClasses", definition.getOntologyClasses());
 
-        model.addAttribute("targetClass", formEditorService.getTargetClassOfForm(form));
-        model.addAttribute("formElements", formEditorService.getAllFormElementsOfForm(form));
+        model.addAttribute("targetClass", definition.getTargetClass());
+        model.addAttribute("formElements", definition.getFormFields());
         model.addAttribute("additionalElements", new ArrayList<FormField>());
 
         model.addAttribute("draftName", null);
@@ -85,18 +86,20 @@ public class RestController {
         // formElements => all fields from original form
         // additionalElements => all additional set fields for this draft
         // setElements => all values
+        // The form itself is served from the compiled definition, only the draft is read from the TDB
         model.addAttribute("form", form);
-        var ontology = formOverviewService.getOntologyOfForm(form);
-        model.addAttribute("ontology", ontology.getName());
-        model.addAttribute("ontologyClasses", ontologyContentService.getAllClassesOfOntology(ontology.getName()));
+        var definition = formEditorService.getFormDefinition(form);
+        var ontologyName = definition.getOntologyName();
+        model.addAttribute("ontology", ontologyName);
+        model.addAttribute("ontologyClasses", definition.getOntologyClasses());
 
-        model.addAttribute("targetClass", formEditorService.getTargetClassOfForm(form));
-        model.addAttribute("formElements", formEditorService.getAllFormElementsOfForm(form));
+        model.addAttribute("targetClass", definition.getTargetClass());
+        model.addAttribute("formElements", definition.getFormFields());
         model.addAttribute("additionalElements", formFillService.getAllAdditionalFormElementsOfDraft(form,
-                ontology.getName(), individualName));
+                ontologyName, individualName));
 
         model.addAttribute("setElements", formFillService.getSetFieldsByDraft(form, individualName,
-                ontology.getName()));
+                ontologyName));
         model.addAttribute("individualName", formFillService.getCurrentDraftName(individualName));
 
         model.addAttribute("draftName", individualName);
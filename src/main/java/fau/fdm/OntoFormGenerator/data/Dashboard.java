@@ -0,0 +1,22 @@
+package fau.fdm.OntoFormGenerator.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of the index page: the imported ontologies, a page of the forms and the number of form elements and
+ * drafts of each form on the page.
+ */
+@Getter
+@AllArgsConstructor
+public class Dashboard {
+    private List<Ontology> ontologies;
+    private List<Form> forms;
+    // Number of form elements and drafts of each form, corresponding to the order of the forms
+    private List<Integer> elementCounts;
+    private List<Integer> draftCounts;
+    private int page;
+    private int pageCount;
+}
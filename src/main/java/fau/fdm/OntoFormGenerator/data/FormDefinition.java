@@ -0,0 +1,31 @@
+package fau.fdm.OntoFormGenerator.data;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Compiled definition of a form: everything the editor and fill pages need to render a form, read from the TDB
+ * once and shared by all requests until the form or its ontology is written again.
+ * The definition and the objects it holds must not be modified.
+ */
+@Getter
+public class FormDefinition {
+    private final String formName;
+    private final String ontologyName;
+    private final OntologyClass targetClass;
+    private final List<FormField> formFields;
+    private final List<Constraint> constraints;
+    private final List<OntologyClass> ontologyClasses;
+
+    public FormDefinition(String formName, String ontologyName, OntologyClass targetClass,
+                          List<FormField> formFields, List<Constraint> constraints,
+                          List<OntologyClass> ontologyClasses) {
+        this.formName = formName;
+        this.ontologyName = ontologyName;
+        this.targetClass = targetClass;
+        this.formFields = List.copyOf(formFields);
+        this.constraints = List.copyOf(constraints);
+        this.ontologyClasses = List.copyOf(ontologyClasses);
+    }
+}
@@ -0,0 +1,99 @@
+package fau.fdm.OntoFormGenerator.data;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Represents an asynchronous reasoner validation of an individual created from a filled form.
+ * The individual is kept in an in-memory delta until the validation finished, and is only added to the ontology
+ * if it is consistent with it.
+ */
+@Getter
+public class ValidationJob {
+
+    /**
+     * The states of a validation job. SUCCEEDED, FAILED, TIMED_OUT and ERROR are final.
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        PROMOTING,
+        SUCCEEDED,
+        FAILED,
+        TIMED_OUT,
+        ERROR
+    }
+
+    private final String id;
+    private final String formName;
+    private final String ontologyName;
+    private final String individualUri;
+    private final Instant createdAt;
+
+    private volatile Instant finishedAt;
+
+    // Status and result are changed together, so a late result never overwrites the result of a final status
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<State> state = new AtomicReference<>(new State(Status.QUEUED, null));
+
+    public ValidationJob(String id, String formName, String ontologyName, String individualUri) {
+        this.id = id;
+        this.formName = formName;
+        this.ontologyName = ontologyName;
+        this.individualUri = individualUri;
+        this.createdAt = Instant.now();
+    }
+
+    public Status getStatus() {
+        return state.get().status;
+    }
+
+    public ValidationResult getResult() {
+        return state.get().result;
+    }
+
+    /**
+     * Change the status of the job, if it is still in the expected status. The result is kept.
+     * @param expected The expected current status.
+     * @param newStatus The new status.
+     * @return True if the status was changed.
+     */
+    public boolean transition(Status expected, Status newStatus) {
+        return transition(expected, newStatus, null);
+    }
+
+    /**
+     * Change the status and the result of the job in one step, if it is still in the expected status.
+     * @param expected The expected current status.
+     * @param newStatus The new status.
+     * @param result The new result, null to keep the result.
+     * @return True if the status was changed.
+     */
+    public boolean transition(Status expected, Status newStatus, ValidationResult result) {
+        State current;
+        do {
+            current = state.get();
+            if (current.status != expected) return false;
+        } while (!state.compareAndSet(current, new State(newStatus, result != null ? result : current.result)));
+        if (isFinished()) finishedAt = Instant.now();
+        return true;
+    }
+
+    public boolean isFinished() {
+        var current = getStatus();
+        return current != Status.QUEUED && current != Status.RUNNING && current != Status.PROMOTING;
+    }
+
+    private static class State {
+        private final Status status;
+        private final ValidationResult result;
+
+        private State(Status status, ValidationResult result) {
+            this.status = status;
+            this.result = result;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Setter;
 /**
  * Represents the result of a validation process. Includes a boolean value indicating whether
  * the validation was successful and a reason if it was not.
+ * If only a module of the ontology was checked, the sizes of the module and the ontology are included.
  */
 @AllArgsConstructor
 @Getter
@@ -14,4 +15,10 @@ import lombok.Setter;
 public class ValidationResult {
     boolean consistent;
     String reason;
+    Integer moduleAxiomCount;
+    Integer ontologyAxiomCount;
+
+    public ValidationResult(boolean consistent, String reason) {
+        this(consistent, reason, null, null);
+    }
 }
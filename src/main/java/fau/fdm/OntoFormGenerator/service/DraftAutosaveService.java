@@ -0,0 +1,199 @@
+package fau.fdm.OntoFormGenerator.service;
+
+import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import org.apache.jena.query.ReadWrite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for the autosave of drafts.
+ * Autosaves are buffered in memory, and repeated autosaves of the same draft replace each other - every autosave
+ * holds the complete state of the draft. The buffered drafts are written in one write transaction on a fixed
+ * interval, when too many drafts are buffered, or for a single draft when its form is submitted - so frequent
+ * autosaves do not queue up as write transactions behind form submits and imports.
+ * Autosaves buffered since the last flush are lost if the process is killed, the interval bounds this window.
+ * Autosaves only update existing drafts - the autosave of a draft which was deleted or submitted before it was
+ * written is dropped.
+ * With write-through enabled, every autosave is written right away instead.
+ */
+@Service
+public class DraftAutosaveService {
+
+    private final Logger logger;
+
+    private final FormFillService formFillService;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final Map<String, PendingDraft> pendingDrafts = new ConcurrentHashMap<>();
+
+    // Held while drafts are written, so that a discarded draft cannot be written after it was discarded
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final int maxPendingDrafts;
+
+    private final boolean writeThrough;
+
+    public DraftAutosaveService(FormFillService formFillService, TDBDatasetManager datasetManager,
+                                @Value("${ontoformgenerator.drafts.autosave.flushIntervalMillis:2000}") long flushIntervalMillis,
+                                @Value("${ontoformgenerator.drafts.autosave.maxPendingDrafts:200}") int maxPendingDrafts,
+                                @Value("${ontoformgenerator.drafts.autosave.writeThrough:false}") boolean writeThrough) {
+        this.formFillService = formFillService;
+        this.datasetManager = datasetManager;
+        this.maxPendingDrafts = maxPendingDrafts;
+        this.writeThrough = writeThrough;
+        this.logger = LoggerFactory.getLogger(DraftAutosaveService.class);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "draft-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffer the autosave of a draft, replacing a buffered autosave of the same draft.
+     * @param formName The name of the form the draft is for.
+     * @param instanceName The current name of the draft.
+     * @param firstDraftName The name of draft under which the draft was created first - can be equal to instanceName.
+     * @param formValues The values of the standard form fields.
+     * @param additionalValues The values of the additional fields.
+     */
+    public void autosave(String formName,
+                         String instanceName,
+                         String firstDraftName,
+                         Map<String, List<String>> formValues,
+                         Map<String, List<String>> additionalValues) {
+        var draft = new PendingDraft(formName, instanceName, firstDraftName, formValues, additionalValues);
+        if (writeThrough) {
+            writeLock.lock();
+            try {
+                write(List.of(draft));
+            } finally {
+                writeLock.unlock();
+            }
+            return;
+        }
+        pendingDrafts.put(firstDraftName, draft);
+        if (pendingDrafts.size() >= maxPendingDrafts) {
+            flush();
+        }
+    }
+
+    /**
+     * Write all buffered drafts in one write transaction.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<PendingDraft> drafts = new ArrayList<>();
+            for (var firstDraftName : new ArrayList<>(pendingDrafts.keySet())) {
+                var draft = pendingDrafts.remove(firstDraftName);
+                if (draft != null) drafts.add(draft);
+            }
+            if (!drafts.isEmpty()) {
+                write(drafts);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write the buffered autosave of a draft right away, e.g. before its form is submitted.
+     * @param firstDraftName The name of draft under which the draft was created first.
+     */
+    public void flush(String firstDraftName) {
+        writeLock.lock();
+        try {
+            var draft = pendingDrafts.remove(firstDraftName);
+            if (draft != null) {
+                write(List.of(draft));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drop the buffered autosave of a draft, e.g. because the draft is saved explicitly or deleted.
+     * Waits for a running flush, so the autosave is not written after this method returned.
+     * @param firstDraftName The name of draft under which the draft was created first.
+     */
+    public void discard(String firstDraftName) {
+        writeLock.lock();
+        try {
+            pendingDrafts.remove(firstDraftName);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Error while flushing autosaved drafts", e);
+        }
+    }
+
+    /**
+     * Write the given drafts in one write transaction. If the transaction fails, the drafts are written one by one,
+     * so that a single broken draft (e.g. of a deleted form) does not prevent the others from being written.
+     */
+    private void write(List<PendingDraft> drafts) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            int dropped = 0;
+            for (var draft : drafts) {
+                if (formFillService.updateDraft(connection.getDataset(), draft.formName, draft.instanceName,
+                        draft.firstDraftName, draft.formValues, draft.additionalValues) < 0) {
+                    dropped++;
+                }
+            }
+            connection.commit();
+            logger.info("Wrote {} autosaved drafts, dropped {} of deleted drafts", drafts.size() - dropped, dropped);
+            return;
+        } catch (RuntimeException e) {
+            if (drafts.size() == 1) {
+                logger.error("Could not write autosaved draft {}", drafts.get(0).firstDraftName, e);
+                return;
+            }
+            logger.warn("Could not write {} autosaved drafts at once, writing them one by one", drafts.size(), e);
+        }
+        for (var draft : drafts) {
+            write(List.of(draft));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PendingDraft {
+        private final String formName;
+        private final String instanceName;
+        private final String firstDraftName;
+        private final Map<String, List<String>> formValues;
+        private final Map<String, List<String>> additionalValues;
+    }
+}
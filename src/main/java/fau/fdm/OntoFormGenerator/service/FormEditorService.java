@@ -1,17 +1,26 @@
 package fau.fdm.OntoFormGenerator.service;
 
 import fau.fdm.OntoFormGenerator.data.*;
+import fau.fdm.OntoFormGenerator.tdb.ClassMembershipIndex;
+import fau.fdm.OntoFormGenerator.tdb.FormCatalog;
+import fau.fdm.OntoFormGenerator.tdb.FormDefinitionCache;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
 import fau.fdm.OntoFormGenerator.tdb.IndividualService;
 import fau.fdm.OntoFormGenerator.tdb.PropertyService;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
-import org.apache.jena.ontology.Individual;
-import org.apache.jena.query.ReadWrite;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.query.*;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
 
@@ -31,11 +40,49 @@ public class FormEditorService {
     private final PropertyService propertyService;
     private final GeneralTDBService generalTDBService;
     private final OntologyConstraintService ontologyConstraintService;
+    private final OntologyContentService ontologyContentService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
+    private final FormDefinitionCache formDefinitionCache;
+    private final ClassMembershipIndex classMembershipIndex;
+    private final FormCatalog formCatalog;
+    private final FormOverviewService formOverviewService;
 
-    public FormEditorService(IndividualService individualService, PropertyService propertyService, GeneralTDBService generalTDBService, OntologyConstraintService ontologyConstraintService) {
+    private static final String FORMS_NAMESPACE =
+            "http://www.semanticweb.org/fau/ontologies/2024/ontoformgenerator/forms#";
+
+    // Only the form, its ontology, the type and the target field of an element are required, the other attributes
+    // fall back to the defaults of the form editor. The type is restricted to the element classes written by the
+    // form editor, and an element with several types or values is only read once.
+    private static final String FORM_ELEMENTS_QUERY = """
+            PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>
+            PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>
+            PREFIX form: <http://www.semanticweb.org/fau/ontologies/2024/ontoformgenerator/forms#>
+
+            SELECT ?element ?type ?label ?isObjectProperty ?position ?targetField ?maximumValues ?minimumValues
+                   ?required ?ontology WHERE {
+                ?form form:targetsOntology ?ontology ;
+                      form:hasFormElement ?element .
+                VALUES ?type { form:Input form:Select form:Date form:Datetime form:Number form:ObjectSelect }
+                ?element rdf:type ?type ;
+                         form:targetsField ?targetField .
+                OPTIONAL { ?element rdfs:label ?label }
+                OPTIONAL { ?element form:isObjectProperty ?isObjectProperty }
+                OPTIONAL { ?element form:hasPositionInForm ?position }
+                OPTIONAL { ?element form:hasMaximumValues ?maximumValues }
+                OPTIONAL { ?element form:hasMinimumValues ?minimumValues }
+                OPTIONAL { ?element form:required ?required }
+            }
+            ORDER BY (!BOUND(?position)) ?position ?element
+            """;
+
+    public FormEditorService(IndividualService individualService, PropertyService propertyService, GeneralTDBService generalTDBService, OntologyConstraintService ontologyConstraintService, OntologyContentService ontologyContentService, TDBDatasetManager datasetManager, FormDefinitionCache formDefinitionCache, ClassMembershipIndex classMembershipIndex, FormCatalog formCatalog, FormOverviewService formOverviewService) {
+        this.datasetManager = datasetManager;
+        this.formOverviewService = formOverviewService;
+        this.formCatalog = formCatalog;
+        this.classMembershipIndex = classMembershipIndex;
+        this.formDefinitionCache = formDefinitionCache;
+        this.ontologyContentService = ontologyContentService;
         this.individualService = individualService;
         this.propertyService = propertyService;
         this.logger = LoggerFactory.getLogger(FormEditorService.class);
@@ -49,13 +96,56 @@ public class FormEditorService {
      * @return The target class of the form.
      */
     public OntologyClass getTargetClassOfForm(String formName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, null)) {
-            var form = individualService.getIndividualByLocalName(connection.getDataset(), "forms", formName);
-            var classValue = propertyService.getObjectPropertyValueFromIndividual(connection.getDataset(),
-                    "forms", form, "targetsClass");
-            if (classValue == null) return null;
-            return new OntologyClass(classValue.getLocalName(), classValue.getURI());
+        var form = formOverviewService.getForm(formName);
+        return form != null ? form.getTargetClass() : null;
+    }
+
+    /**
+     * Get the target class of a specific form.
+     * @param dataset The dataset to use.
+     * @param formName The name of the form.
+     * @return The target class of the form.
+     */
+    public OntologyClass getTargetClassOfForm(Dataset dataset, String formName) {
+        var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
+        var classValue = propertyService.getObjectPropertyValueFromIndividual(dataset,
+                "forms", form, "targetsClass");
+        if (classValue == null) return null;
+        return new OntologyClass(classValue.getLocalName(), classValue.getURI());
+    }
+
+    /**
+     * Get the compiled definition of a form (target class, form elements, constraints of the target class and
+     * classes of the target ontology).
+     * The definition is built in one read transaction on first use and served from the
+     * {@link FormDefinitionCache} afterwards, until the form or its ontology is written again.
+     * @param formName The name of the form.
+     * @return The definition of the form, which must not be modified.
+     */
+    public FormDefinition getFormDefinition(String formName) {
+        var definition = formDefinitionCache.get(formName);
+        if (definition != null) return definition;
+        long generation = formDefinitionCache.getGeneration();
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
+            definition = buildFormDefinition(connection.getDataset(), formName);
         }
+        return formDefinitionCache.put(definition, generation);
+    }
+
+    private FormDefinition buildFormDefinition(Dataset dataset, String formName) {
+        long start = System.currentTimeMillis();
+        var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
+        var ontologyName = propertyService.getObjectPropertyValueFromIndividual(dataset, "forms", form,
+                "targetsOntology").getLocalName();
+        var targetClass = getTargetClassOfForm(dataset, formName);
+        var constraints = targetClass != null
+                ? ontologyConstraintService.getConstraints(dataset, ontologyName, targetClass.getUri(), null)
+                : List.<Constraint>of();
+        var definition = new FormDefinition(formName, ontologyName, targetClass,
+                getAllFormElementsOfForm(dataset, formName), constraints,
+                ontologyContentService.getAllClassesOfOntology(dataset, ontologyName));
+        logger.info("Built definition of form {} in {} ms", formName, System.currentTimeMillis() - start);
+        return definition;
     }
 
     /**
@@ -64,65 +154,65 @@ public class FormEditorService {
      * @return A list of all form elements of the form.
      */
     public List<FormField> getAllFormElementsOfForm(String formName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory,"forms")) {
-            var dataset = connection.getDataset();
-            var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
-            var formElements = propertyService.getMultipleObjectPropertyValuesFromIndividual(dataset,
-                    "forms", form, "hasFormElement");
-            var ontologyName = propertyService.getObjectPropertyValueFromIndividual(dataset,
-                    "forms", form, "targetsOntology").getLocalName();
-            List<FormField> formFields = new ArrayList<>(Collections.nCopies(formElements.size() + 50, null));
-            for (var formElement : formElements) {
-                var fieldName = propertyService.getLabelOfIndividual(dataset, "forms", formElement.getURI());
-                var formElementIndividual = individualService.getIndividualByIri(dataset, "forms", formElement.getURI());
-                var fieldType = formElementIndividual.getOntClass().getLocalName();
-                var isObjectProperty = propertyService.getDatatypePropertyValueFromIndividual(dataset,
-                        "forms", formElementIndividual, "isObjectProperty").getBoolean();
-                var position = propertyService.getDatatypePropertyValueFromIndividual(dataset,
-                        "forms", formElementIndividual, "hasPositionInForm").getInt();
-                var targetField = propertyService.getObjectPropertyValueFromIndividual(dataset,
-                        "forms", formElementIndividual, "targetsField");
-                var maximumValues = propertyService.getDatatypePropertyValueFromIndividual(dataset,
-                        "forms", formElementIndividual, "hasMaximumValues").getInt();
-                var minimumValues = propertyService.getDatatypePropertyValueFromIndividual(dataset,
-                        "forms", formElementIndividual, "hasMinimumValues").getInt();
-                var required = propertyService.getDatatypePropertyValueFromIndividual(dataset,
-                        "forms", formElementIndividual, "required").getBoolean();
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, "forms")) {
+            return getAllFormElementsOfForm(connection.getDataset(), formName);
+        }
+    }
+
+    /**
+     * Get all (standard, not additional) form elements of a form, ordered by their position in the form.
+     * All attributes of the elements are read with one query over the forms graph, the ranges of the target
+     * properties with one ontology model of the target ontology.
+     * @param dataset The dataset to use.
+     * @param formName The name of the form.
+     * @return A list of all form elements of the form.
+     */
+    public List<FormField> getAllFormElementsOfForm(Dataset dataset, String formName) {
+        var formUri = generalTDBService.getIndividualURIInOntology(dataset, "forms", formName);
+        var query = new ParameterizedSparqlString(FORM_ELEMENTS_QUERY);
+        query.setIri("form", formUri);
+        List<FormField> formFields = new ArrayList<>();
+        Set<String> readElements = new HashSet<>();
+        OntModel ontology = null;
+        try (QueryExecution queryExecution = QueryExecutionFactory.create(query.asQuery(),
+                dataset.getNamedModel("forms"))) {
+            var results = queryExecution.execSelect();
+            while (results.hasNext()) {
+                var solution = results.nextSolution();
+                if (!readElements.add(solution.getResource("element").toString())) continue;
+                if (ontology == null) {
+                    ontology = generalTDBService.getOntModel(dataset.getNamedModel(
+                            solution.getResource("ontology").getLocalName()));
+                }
+                var targetField = solution.getResource("targetField");
                 var domain = new OntologyClass(targetField.getLocalName(), targetField.getURI());
-                var property = propertyService.getPropertyFromOntologyByIRI(dataset, ontologyName, targetField.getURI());
-                if (isObjectProperty) {
-                    OntologyClass objectRange;
-                    var objectRangeProp = property.getRange();
-                    if (objectRangeProp != null) {
-                        objectRange = new OntologyClass(objectRangeProp.getLocalName(), objectRangeProp.getURI());
-                    } else {
-                        objectRange = new OntologyClass("Thing", "http://www.w3.org/2002/07/owl#Thing");
-                    }
-                    formFields.set(position, new FormField(
-                            new OntologyProperty(targetField.getLocalName(), domain, property.getURI(), true, objectRange, null),
-                            fieldType, fieldName, maximumValues, minimumValues, required));
+                var property = ontology.getOntProperty(targetField.getURI());
+                var range = property != null ? property.getRange() : null;
+                var label = solution.getLiteral("label");
+                var isObjectProperty = solution.getLiteral("isObjectProperty");
+                var maximumValues = solution.getLiteral("maximumValues");
+                var minimumValues = solution.getLiteral("minimumValues");
+                var required = solution.getLiteral("required");
+                OntologyProperty ontologyProperty;
+                if (isObjectProperty != null ? isObjectProperty.getBoolean()
+                        : property != null && property.isObjectProperty()) {
+                    var objectRange = range != null ? new OntologyClass(range.getLocalName(), range.getURI())
+                            : new OntologyClass("Thing", "http://www.w3.org/2002/07/owl#Thing");
+                    ontologyProperty = new OntologyProperty(targetField.getLocalName(), domain,
+                            targetField.getURI(), true, objectRange, null);
                 } else {
-                    var dataRangeProp = property.getRange();
-                    String dataRange;
-                    if (dataRangeProp != null) {
-                        dataRange = dataRangeProp.getLocalName();
-                    } else {
-                        dataRange = "string";
-                    }
-                    formFields.set(position, new FormField(
-                            new OntologyProperty(targetField.getLocalName(), domain, property.getURI(), false, null,
-                                    dataRange), fieldType, fieldName, maximumValues,
-                            minimumValues, required));
-                }
-            }
-            for (int i = 0; i < formFields.size(); i++) {
-                if (formFields.get(i) == null) {
-                    formFields.remove(i);
-                    i--;
+                    ontologyProperty = new OntologyProperty(targetField.getLocalName(), domain,
+                            targetField.getURI(), false, null, range != null ? range.getLocalName() : "string");
                 }
+                formFields.add(new FormField(ontologyProperty,
+                        solution.getResource("type").getLocalName(),
+                        label != null ? label.getLexicalForm() : null,
+                        maximumValues != null ? maximumValues.getInt() : 1,
+                        minimumValues != null ? minimumValues.getInt() : 1,
+                        required != null && required.getBoolean()));
             }
-            return formFields;
         }
+        return formFields;
     }
 
     /**
@@ -142,10 +232,11 @@ public class FormEditorService {
      *                }
      */
     public void updateForm(String formName, MultiValueMap<String, String> formInput) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory,"forms")) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, "forms")) {
             logger.info("Updating form {}", formName);
             logger.debug("Form input: {}", formInput);
             var dataset = connection.getDataset();
+            var formsModel = dataset.getNamedModel("forms");
             var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
             var ontology = propertyService.getObjectPropertyValueFromIndividual(dataset, "forms",
                     form, "targetsOntology");
@@ -159,6 +250,10 @@ public class FormEditorService {
                 throw new RuntimeException("Properties must be unique");
             }
 
+            // All changes of existing statements are collected and applied in one batch at the end
+            Model removals = ModelFactory.createDefaultModel();
+            Model additions = ModelFactory.createDefaultModel();
+
             // Set targetsClass
             var classIri = generalTDBService.getClassURIInOntology(dataset, formInput.getFirst("ontologyName"),
                     formInput.getFirst("ontologyClass"));
@@ -169,65 +264,37 @@ public class FormEditorService {
                         individualService.getIndividualByIri(dataset, "forms", ontology.getURI()),
                         "hasTargetClass", classIndividual.getURI());
             }
-            form.addProperty(
-                    propertyService.getPropertyFromOntology(dataset, "forms", "targetsClass"),
-                    classIndividual
-            );
+            var targetsClass = formsModel.createProperty(FORMS_NAMESPACE + "targetsClass");
+            for (var statement : formsModel.listStatements(form, targetsClass, (RDFNode) null).toList()) {
+                if (!statement.getObject().equals(classIndividual)) removals.add(statement);
+            }
+            additions.add(form, targetsClass, classIndividual);
             var constraints = ontologyConstraintService.getConstraints(dataset, formInput.getFirst("ontologyName"),
                     classIri, null);
 
-            // Get all already existing form elements
-            var alreadyInsertedElements = propertyService.getMultipleObjectPropertyValuesFromIndividual(dataset,
-                    "forms", form, "hasFormElement");
-
+            // Get all already existing form elements by their label, the submitted fields are matched by name
+            var hasFormElement = formsModel.createProperty(FORMS_NAMESPACE + "hasFormElement");
+            Map<String, Resource> storedElements = new HashMap<>();
+            List<Resource> unmatchedElements = new ArrayList<>();
+            for (var element : formsModel.listObjectsOfProperty(form, hasFormElement).toList()) {
+                if (!element.isURIResource()) continue;
+                var label = formsModel.getProperty(element.asResource(), RDFS.label);
+                if (label == null || !label.getObject().isLiteral()
+                        || storedElements.putIfAbsent(label.getString(), element.asResource()) != null) {
+                    unmatchedElements.add(element.asResource());
+                }
+            }
 
             for (int i = 0; i < formInput.get("fieldName").size(); i++) {
-                // Check if field already exists
                 var fieldName = formInput.get("fieldName").get(i);
-                Resource foundElement = null;
-                for (int j = 0; j < alreadyInsertedElements.size(); j++) {
-                    if (alreadyInsertedElements.get(j) != null &&
-                            propertyService.getLabelOfIndividual(dataset, "forms", alreadyInsertedElements.get(j).getURI())
-                                    .equals(fieldName)) {
-                        foundElement = alreadyInsertedElements.get(j);
-                        alreadyInsertedElements.set(j, null);
-                        break;
-                    }
-                }
-
-                // Remove old data
-                if (foundElement != null) {
-                    var oldField = individualService.getIndividualByIri(dataset, "forms", foundElement.getURI());
-                    individualService.deleteIndividualByLocalName(dataset, "forms", oldField.getLocalName());
-                }
-
-                // set targetsField for each field
                 var propertyName = formInput.get("propertyName").get(i);
                 var property = propertyService.getPropertyFromOntology(dataset, ontology.getLocalName(), propertyName);
-                var targetField = individualService.addIndividualWithUniqueIRI(dataset, "TargetField",
-                        property.getURI());
-                Individual field;
-                var fieldUri = "http://www.semanticweb.org/fau/ontologies/2024/ontoformgenerator/forms#" + fieldName +
-                        UUID.randomUUID();
-                if (formInput.get("isObjectProperty").get(i).equals("true")) {
-                    // object property
-                    field = individualService.addIndividualWithUniqueIRI(dataset, "ObjectSelect", fieldUri);
-                    propertyService.addDatatypePropertyToIndividual(dataset, "forms",
-                            field, "isObjectProperty", "true", XSDDatatype.XSDboolean);
-                } else {
-                    // datatype property
-                    var fieldType = getFormType(formInput.get("propertyRange").get(i));
-                    field = individualService.addIndividualWithUniqueIRI(dataset, fieldType, fieldUri);
-                    propertyService.addDatatypePropertyToIndividual(dataset, "forms",
-                            field, "isObjectProperty", "false", XSDDatatype.XSDboolean);
+                var isObjectProperty = formInput.get("isObjectProperty").get(i).equals("true");
+                var fieldType = isObjectProperty ? "ObjectSelect" : getFormType(formInput.get("propertyRange").get(i));
+                if (fieldType == null) {
+                    throw new RuntimeException("Unsupported range " + formInput.get("propertyRange").get(i) +
+                            " of property " + propertyName);
                 }
-                field.addLabel(connection.getModel().createTypedLiteral(fieldName));
-                propertyService.addObjectPropertyToIndividual(dataset, "forms",
-                        field, "targetsField", targetField.getURI());
-                propertyService.addObjectPropertyToIndividual(dataset, "forms",
-                        form, "hasFormElement", field.getURI());
-                propertyService.addDatatypePropertyToIndividual(dataset, "forms",
-                        field, "hasPositionInForm", String.valueOf(i), XSDDatatype.XSDint);
                 var maximumValues = formInput.get("maximumValues").get(i);
                 if (maximumValues == null || maximumValues.isEmpty()) {
                     maximumValues = "1";
@@ -249,12 +316,6 @@ public class FormEditorService {
                 if (minConstraint.isPresent() && Integer.parseInt(minimumValues) < (int) minConstraint.get().getValue()) {
                     throw new RuntimeException("Minimum values must be greater than or equal to " + minConstraint.get().getValue());
                 }
-                propertyService.addDatatypePropertyToIndividual(dataset, "forms",
-                        field, "hasMaximumValues", maximumValues,
-                        XSDDatatype.XSDpositiveInteger);
-                propertyService.addDatatypePropertyToIndividual(dataset, "forms",
-                        field, "hasMinimumValues", minimumValues,
-                        XSDDatatype.XSDinteger);
                 String checked = "false";
                 if (formInput.containsKey("required-checkbox")) {
                     for (var val : formInput.get("required-checkbox")) {
@@ -264,24 +325,88 @@ public class FormEditorService {
                         }
                     }
                 }
-                propertyService.addDatatypePropertyToIndividual(dataset, "forms",
-                        field, "required", checked, XSDDatatype.XSDboolean);
+
+                // The target field individual is shared by all fields targeting the same property
+                var targetField = formsModel.createResource(property.getURI());
+                if (!formsModel.contains(targetField, RDF.type, formsModel.createResource(FORMS_NAMESPACE + "TargetField"))) {
+                    individualService.addIndividualWithUniqueIRI(dataset, "TargetField", property.getURI());
+                }
+
+                // Keep the IRI of an existing field, only new fields get a new individual
+                var fieldTypeClass = formsModel.createResource(FORMS_NAMESPACE + fieldType);
+                Resource field = storedElements.remove(fieldName);
+                if (field == null) {
+                    field = individualService.addIndividualWithUniqueIRI(dataset, fieldType,
+                            FORMS_NAMESPACE + fieldName + UUID.randomUUID());
+                    additions.add(form, hasFormElement, field);
+                } else if (!formsModel.contains(field, RDF.type, fieldTypeClass)) {
+                    classMembershipIndex.removeIndividual("forms", field);
+                    classMembershipIndex.addIndividual("forms", field.getURI(), fieldTypeClass.getURI());
+                }
+
+                Model fieldState = ModelFactory.createDefaultModel();
+                fieldState.add(field, RDF.type, fieldTypeClass);
+                fieldState.add(field, RDFS.label, fieldState.createTypedLiteral(fieldName));
+                fieldState.add(field, formsModel.createProperty(FORMS_NAMESPACE + "isObjectProperty"),
+                        String.valueOf(isObjectProperty), XSDDatatype.XSDboolean);
+                fieldState.add(field, formsModel.createProperty(FORMS_NAMESPACE + "targetsField"), targetField);
+                fieldState.add(field, formsModel.createProperty(FORMS_NAMESPACE + "hasPositionInForm"),
+                        String.valueOf(i), XSDDatatype.XSDint);
+                // Canonical lexical forms, so that an unchanged value is recognized as unchanged
+                fieldState.add(field, formsModel.createProperty(FORMS_NAMESPACE + "hasMaximumValues"),
+                        String.valueOf(Integer.parseInt(maximumValues)), XSDDatatype.XSDpositiveInteger);
+                fieldState.add(field, formsModel.createProperty(FORMS_NAMESPACE + "hasMinimumValues"),
+                        String.valueOf(Integer.parseInt(minimumValues)), XSDDatatype.XSDinteger);
+                fieldState.add(field, formsModel.createProperty(FORMS_NAMESPACE + "required"),
+                        checked, XSDDatatype.XSDboolean);
+                diffFormElement(formsModel, field, fieldState, removals, additions);
             }
 
             // delete all old form elements that are not in the new form
-            for (var alreadyInsertedElement : alreadyInsertedElements) {
-                if (alreadyInsertedElement == null) continue;
-                individualService.deleteIndividualByLocalName(dataset, "forms", alreadyInsertedElement
-                        .getLocalName());
+            unmatchedElements.addAll(storedElements.values());
+            for (var unmatchedElement : unmatchedElements) {
+                individualService.deleteIndividualByIri(dataset, "forms", unmatchedElement.getURI());
             }
+
+            formsModel.remove(removals);
+            formsModel.add(additions);
+            formDefinitionCache.invalidate(formName);
+            formCatalog.putForm(new Form(formName, ontology.getLocalName(),
+                    new OntologyClass(classIndividual.getLocalName(), classIndividual.getURI())),
+                    formInput.get("fieldName").size());
             connection.commit();
-            logger.info("Form {} updated", formName);
+            logger.info("Form {} updated, removed {} and added {} statements, deleted {} elements", formName,
+                    removals.size(), additions.size(), unmatchedElements.size());
         } catch (Exception e) {
             logger.error("Error while updating form", e);
             throw e;
         }
     }
 
+    /**
+     * Collect the statements to remove and to add, to bring a form element from its stored state to the given state.
+     * Only the statements with the predicates of the given state are compared, types are only compared with
+     * the classes of the forms ontology.
+     * @param formsModel The model of the forms graph.
+     * @param element The form element.
+     * @param elementState The complete new state of the form element.
+     * @param removals The model collecting the statements to remove.
+     * @param additions The model collecting the statements to add.
+     */
+    private void diffFormElement(Model formsModel, Resource element, Model elementState,
+                                 Model removals, Model additions) {
+        var predicates = elementState.listStatements().mapWith(Statement::getPredicate).toSet();
+        formsModel.listStatements(element, null, (RDFNode) null).forEachRemaining(statement -> {
+            if (!predicates.contains(statement.getPredicate())) return;
+            if (statement.getPredicate().equals(RDF.type) && !(statement.getObject().isURIResource()
+                    && statement.getObject().asResource().getURI().startsWith(FORMS_NAMESPACE))) return;
+            if (!elementState.contains(statement)) removals.add(statement);
+        });
+        elementState.listStatements().forEachRemaining(statement -> {
+            if (!formsModel.contains(statement)) additions.add(statement);
+        });
+    }
+
     private String getFormType(String datatype) {
         switch (datatype) {
             case "string" -> {
@@ -1,18 +1,33 @@
 package fau.fdm.OntoFormGenerator.service;
 
-import com.google.gson.Gson;
 import fau.fdm.OntoFormGenerator.data.FormField;
 import fau.fdm.OntoFormGenerator.data.OntologyClass;
 import fau.fdm.OntoFormGenerator.data.OntologyProperty;
 import fau.fdm.OntoFormGenerator.data.SetField;
+import fau.fdm.OntoFormGenerator.tdb.AssertedTypeIndex;
+import fau.fdm.OntoFormGenerator.tdb.ClassMembershipIndex;
+import fau.fdm.OntoFormGenerator.tdb.DraftStore;
+import fau.fdm.OntoFormGenerator.tdb.FormCatalog;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
 import fau.fdm.OntoFormGenerator.tdb.IndividualService;
+import fau.fdm.OntoFormGenerator.tdb.OntologyNameIndex;
+import fau.fdm.OntoFormGenerator.tdb.OntologyStatistics;
 import fau.fdm.OntoFormGenerator.tdb.PropertyService;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import fau.fdm.OntoFormGenerator.validation.GraphChanges;
+import fau.fdm.OntoFormGenerator.validation.ReasonerPool;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.query.Dataset;
 import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -36,15 +51,40 @@ public class FormFillService {
     private final GeneralTDBService generalTDBService;
     private final PropertyService propertyService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
+
+    private final OntologyNameIndex nameIndex;
+
+    private final AssertedTypeIndex assertedTypeIndex;
+
+    private final ClassMembershipIndex classMembershipIndex;
+
+    private final OntologyStatistics ontologyStatistics;
+
+    private final DraftStore draftStore;
+
+    private final FormCatalog formCatalog;
+
+    private final ReasonerPool reasonerPool;
 
     @Value("${ontoformgenerator.ontologies.forms}")
     private String formsOntologyIri;
 
     public FormFillService(IndividualService individualService,
-                           GeneralTDBService generalTDBService, PropertyService propertyService) {
+                           GeneralTDBService generalTDBService, PropertyService propertyService,
+                           TDBDatasetManager datasetManager, OntologyNameIndex nameIndex,
+                           AssertedTypeIndex assertedTypeIndex, ClassMembershipIndex classMembershipIndex,
+                           DraftStore draftStore, FormCatalog formCatalog, OntologyStatistics ontologyStatistics,
+                           ReasonerPool reasonerPool) {
         this.individualService = individualService;
+        this.reasonerPool = reasonerPool;
+        this.ontologyStatistics = ontologyStatistics;
+        this.draftStore = draftStore;
+        this.formCatalog = formCatalog;
+        this.datasetManager = datasetManager;
+        this.nameIndex = nameIndex;
+        this.assertedTypeIndex = assertedTypeIndex;
+        this.classMembershipIndex = classMembershipIndex;
         this.logger = LoggerFactory.getLogger(FormFillService.class);
         this.generalTDBService = generalTDBService;
         this.propertyService = propertyService;
@@ -56,7 +96,7 @@ public class FormFillService {
      * @param individualUri The URI of the individual to delete.
      */
     public void deleteIndividualByIri(String ontologyName, String individualUri) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             individualService.deleteIndividualByIri(connection.getDataset(), ontologyName, individualUri);
             individualService.deleteIndividualByIri(connection.getDataset(), "forms", individualUri);
             connection.commit();
@@ -71,8 +111,8 @@ public class FormFillService {
     public void deleteDraft(String formName,
                             String draftUri) {
         logger.info("Deleting draft with URI: " + draftUri);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, null)) {
-            individualService.deleteIndividualByIri(connection.getDataset(), "forms", draftUri);
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            draftStore.deleteDraft(connection.getDataset(), draftUri);
             logger.info("Deletion of draft successful.");
             connection.commit();
         }
@@ -94,62 +134,82 @@ public class FormFillService {
                                           Map<String, List<String>> formValues,
                                           Map<String, List<String>> additionalValues) {
         logger.info("Creating draft for form: " + formName + " with name: " + instanceName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
-            var dataset = connection.getDataset();
-
-            StringBuilder json = new StringBuilder("{\n");
-            json.append("\"normalFields\": {\n");
-            for (var formValue : formValues.keySet()) {
-                if (formValues.get(formValue) == null || formValues.get(formValue).isEmpty())
-                    continue;
-                json.append("\"%s\": [\"%s\"],\n".formatted(formValue, String.join("\", \"", formValues.get(formValue))));
-            }
-            if (!formValues.isEmpty()) json.deleteCharAt(json.lastIndexOf(","));
-            json.append("},\n");
-
-            json.append("\"additionalFields\": {\n");
-            for (var formValue : additionalValues.keySet()) {
-                if (additionalValues.get(formValue) == null || additionalValues.get(formValue).isEmpty())
-                    continue;
-                json.append("\"%s\": [\"%s\"],\n".formatted(formValue, String.join("\", \"", additionalValues.get(formValue))));
-            }
-            if (!additionalValues.isEmpty()) json.deleteCharAt(json.lastIndexOf(","));
-            json.append("}\n");
-            json.append("}");
-            logger.debug("Draft JSON: {}", json.toString());
-
-            var baseIri = formsOntologyIri + "#" + firstDraftName;
-            var indiv = individualService.getIndividualByIri(dataset, "forms", baseIri);
-            boolean alreadyCreated = true;
-            if (indiv == null) {
-                indiv = individualService.addIndividualWithUniqueIRI(dataset, "Individual", baseIri);
-                alreadyCreated = false;
-            }
-
-            if (alreadyCreated) {
-                propertyService.removePropertyValueFromIndividual(dataset, "forms", indiv,
-                        "hasDraft");
-                propertyService.removePropertyValueFromIndividual(dataset, "forms", indiv,
-                        "hasDraftName");
-            } else {
-                var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
-                propertyService.addObjectPropertyToIndividual(dataset, "forms", form,
-                        "created", baseIri);
-                propertyService.addDatatypePropertyToIndividual(dataset, "forms", indiv,
-                        "isDraft", "true", XSDDatatype.XSDboolean);
-            }
-            propertyService.addDatatypePropertyToIndividual(dataset, "forms", indiv,
-                    "hasDraft", json.toString(), XSDDatatype.XSDstring);
-            propertyService.addDatatypePropertyToIndividual(dataset, "forms", indiv,
-                    "hasDraftName", instanceName, XSDDatatype.XSDstring);
+        // Drafts are only written to the forms graph, the ontology is not changed
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, "forms")) {
+            int changedFields = writeDraft(connection.getDataset(), formName, instanceName, firstDraftName,
+                    formValues, additionalValues);
             connection.commit();
-            logger.info("Draft creation successful.");
+            logger.info("Draft creation successful, {} fields written.", changedFields);
         } catch (Exception e) {
             logger.error("Draft creation failed: " + e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Creates a draft from a filled form or updates an existing draft, within the write transaction of the caller.
+     * @param dataset The dataset to use - has to be in a write transaction.
+     * @param formName The name of the form the draft is for.
+     * @param instanceName The current name of the draft.
+     * @param firstDraftName The name of draft under which the draft was created first - can be equal to instanceName.
+     * @param formValues The values of the standard form fields.
+     * @param additionalValues The values of the additional fields.
+     * @return The number of added, changed and removed fields of the draft.
+     */
+    public int writeDraft(Dataset dataset,
+                          String formName,
+                          String instanceName,
+                          String firstDraftName,
+                          Map<String, List<String>> formValues,
+                          Map<String, List<String>> additionalValues) {
+        var baseIri = formsOntologyIri + "#" + firstDraftName;
+        var indiv = individualService.getIndividualByIri(dataset, "forms", baseIri);
+        if (indiv == null) {
+            indiv = individualService.addIndividualWithUniqueIRI(dataset, "Individual", baseIri);
+            var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
+            propertyService.addObjectPropertyToIndividual(dataset, "forms", form,
+                    "created", baseIri);
+            propertyService.addDatatypePropertyToIndividual(dataset, "forms", indiv,
+                    "isDraft", "true", XSDDatatype.XSDboolean);
+        }
+        var draftName = propertyService.getDatatypePropertyValueFromIndividual(dataset, "forms", indiv,
+                "hasDraftName");
+        if (draftName == null || !draftName.getString().equals(instanceName)) {
+            propertyService.removePropertyValueFromIndividual(dataset, "forms", indiv,
+                    "hasDraftName");
+            propertyService.addDatatypePropertyToIndividual(dataset, "forms", indiv,
+                    "hasDraftName", instanceName, XSDDatatype.XSDstring);
+        }
+        var label = dataset.getNamedModel("forms").getResource(baseIri).getProperty(RDFS.label);
+        formCatalog.putDraft(formName, FormCatalog.createDraft(instanceName,
+                label != null ? label.getString() : null, baseIri, firstDraftName));
+        return draftStore.writeFields(dataset, baseIri, formValues, additionalValues);
+    }
+
+    /**
+     * Update an existing draft within the write transaction of the caller, e.g. with an autosave.
+     * Unlike {@link #writeDraft}, a draft which does not exist is not created - an autosave which arrives after its
+     * draft was deleted or submitted must not bring the draft back.
+     * @param dataset The dataset to use - has to be in a write transaction.
+     * @param formName The name of the form the draft is for.
+     * @param instanceName The current name of the draft.
+     * @param firstDraftName The name of draft under which the draft was created first - can be equal to instanceName.
+     * @param formValues The values of the standard form fields.
+     * @param additionalValues The values of the additional fields.
+     * @return The number of added, changed and removed fields of the draft, or -1 if the draft does not exist.
+     */
+    public int updateDraft(Dataset dataset,
+                           String formName,
+                           String instanceName,
+                           String firstDraftName,
+                           Map<String, List<String>> formValues,
+                           Map<String, List<String>> additionalValues) {
+        if (individualService.getIndividualByIri(dataset, "forms", formsOntologyIri + "#" + firstDraftName) == null) {
+            return -1;
+        }
+        return writeDraft(dataset, formName, instanceName, firstDraftName, formValues, additionalValues);
+    }
+
     /**
      * Get all already set fields in a draft.
      * @param formName The name of the form the draft is for.
@@ -158,18 +218,11 @@ public class FormFillService {
      * @return A list of all set fields in the draft.
      */
     public List<SetField> getSetFieldsByDraft(String formName, String individualName, String ontologyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
-            var form = individualService.getIndividualByLocalName(connection.getDataset(), "forms", formName);
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             var individual = individualService.findIndividualInOntology(connection.getDataset(), "forms", individualName);
-            var draft = propertyService.getDatatypePropertyValueFromIndividual(connection.getDataset(), "forms", individual, "hasDraft");
-            var gson = new Gson();
-            var draftMap = gson.fromJson(draft.getString(), Map.class);
             var setFields = new ArrayList<SetField>();
-            var additionalFields = (Map) draftMap.get("additionalFields");
-            var normalFields = (Map) draftMap.get("normalFields");
-            normalFields.putAll(additionalFields);
-            for (var key : normalFields.keySet()) {
-                setFields.add(new SetField(key.toString(), (List<String>) normalFields.get(key.toString())));
+            for (var field : draftStore.getFields(connection.getDataset(), individual.getURI())) {
+                setFields.add(new SetField(field.getName(), field.getValues()));
             }
             return setFields;
         }
@@ -181,7 +234,7 @@ public class FormFillService {
      * @return The current name of the draft.
      */
     public String getCurrentDraftName(String individualName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, null)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
             var individual = individualService.findIndividualInOntology(connection.getDataset(), "forms", individualName);
             var draft = propertyService.getDatatypePropertyValueFromIndividual(connection.getDataset(), "forms", individual, "hasDraftName");
             return draft.getString();
@@ -198,15 +251,12 @@ public class FormFillService {
     public List<FormField> getAllAdditionalFormElementsOfDraft(String formName, String ontologyName,
                                                                String individualName) {
         logger.info("Getting all additional form elements of draft: " + individualName + " in form: " + formName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             var individual = individualService.findIndividualInOntology(connection.getDataset(), "forms", individualName);
-            var draft = propertyService.getDatatypePropertyValueFromIndividual(connection.getDataset(), "forms", individual, "hasDraft");
-            var gson = new Gson();
-            var draftMap = gson.fromJson(draft.getString(), Map.class);
             var formFields = new ArrayList<FormField>();
-            var fields = (Map) draftMap.get("additionalFields");
-            for (var field : fields.keySet()) {
-                var fieldName = (String) field;
+            for (var field : draftStore.getFields(connection.getDataset(), individual.getURI())) {
+                if (!field.isAdditional()) continue;
+                var fieldName = field.getName();
 
                 var property = propertyService.getPropertyFromOntology(connection.getDataset(), ontologyName, fieldName);
                 var isObjectProperty = generalTDBService.checkIfObjectProperty(connection.getDataset(), ontologyName, property.getURI());
@@ -239,18 +289,9 @@ public class FormFillService {
     public void addFieldElementToInstance(String formName, String individualName,
                                           String propertyName) {
         logger.info("Adding field element: " + propertyName + " to draft: " + individualName + " in form: " + formName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, null)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
             var individual = individualService.findIndividualInOntology(connection.getDataset(), "forms", individualName);
-            var draft = propertyService.getDatatypePropertyValueFromIndividual(connection.getDataset(), "forms", individual, "hasDraft");
-            var gson = new Gson();
-            var draftMap = gson.fromJson(draft.getString(), Map.class);
-            var additionalField = (Map) draftMap.get("additionalFields");
-            additionalField.put(propertyName, new ArrayList<>());
-            var json = gson.toJson(draftMap);
-            propertyService.removePropertyValueFromIndividual(connection.getDataset(), "forms", individual,
-                    "hasDraft");
-            propertyService.addDatatypePropertyToIndividual(connection.getDataset(), "forms", individual,
-                    "hasDraft", json, XSDDatatype.XSDstring);
+            draftStore.addAdditionalField(connection.getDataset(), individual.getURI(), propertyName);
             connection.commit();
             logger.info("Field element added successfully.");
         }
@@ -274,60 +315,11 @@ public class FormFillService {
                                                String draftName,
                                                Map<String, String[]> formValues) {
         logger.info("Creating individual from filled form: " + instanceName + " in form: " + formName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             var ontology = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM, connection.getDataset().getNamedModel(ontologyName));
-            var classURI = generalTDBService.getClassURIInOntology(connection.getDataset(), ontologyName, targetField);
-            var ontologyURI = classURI.substring(0, classURI.lastIndexOf("#") + 1);
-            var individual = ontology.createIndividual(ontologyURI + instanceName + "_" + UUID.randomUUID(),
-                    ontology.getOntClass(classURI));
-            individual.setLabel(instanceName, null);
-            for (var formValue : formValues.keySet()) {
-                if (formValue.equals("instanceName") || formValue.equals("ontologyName") || formValue.equals("targetClass") ||
-                        formValue.equals("create-individual-dialog-option"))
-                    continue;
-                var propUri = generalTDBService.getPropertyURIInOntology(connection.getDataset(), ontologyName, formValue);
-                var prop = ontology.getProperty(propUri);
-                if (generalTDBService.checkIfObjectProperty(connection.getDataset(), ontologyName, prop.getURI())) {
-                    for (var objectValue : formValues.get(formValue)) {
-                        var objectIndividual = individualService.findIndividualInOntology(connection.getDataset(), ontologyName, objectValue);
-                        individual.addProperty(prop, objectIndividual);
-                    }
-                } else {
-                    var dtype = ontology.getDatatypeProperty(propUri).getRange().getLocalName();
-                    for (var dataValue : formValues.get(formValue)) {
-                        switch (dtype) {
-                            case "int":
-                                individual.addLiteral(prop, Integer.parseInt(dataValue));
-                                break;
-                            case "float":
-                                individual.addLiteral(prop, Float.parseFloat(dataValue));
-                                break;
-                            case "double":
-                                individual.addLiteral(prop, Double.parseDouble(dataValue));
-                                break;
-                            case "boolean":
-                                individual.addLiteral(prop, Boolean.parseBoolean(dataValue));
-                                break;
-                            case "dateTime":
-                                var lit = ontology.createTypedLiteral(dataValue, XSDDatatype.XSDdateTime);
-                                individual.addLiteral(prop, lit);
-                                break;
-                            default:
-                                individual.addLiteral(prop, dataValue);
-                                break;
-                        }
-                    }
-                }
-            }
-            if (draftName != null) {
-                // draft already exists
-                var completeDraftIri = formsOntologyIri + "#" + draftName;
-                individualService.deleteIndividualByIri(connection.getDataset(), "forms", completeDraftIri);
-            }
-            individualService.addIndividualWithUniqueIRI(connection.getDataset(), "Individual", individual.getURI());
-            var form = individualService.getIndividualByLocalName(connection.getDataset(), "forms", formName);
-            propertyService.addObjectPropertyToIndividual(connection.getDataset(), "forms", form,
-                    "created", individual.getURI());
+            var individual = addIndividualFromFormValues(connection.getDataset(), ontology, ontologyName,
+                    targetField, instanceName, formValues);
+            registerCreatedIndividual(connection.getDataset(), formName, ontologyName, draftName, individual);
             connection.commit();
             logger.info("Individual creation successful.");
             return individual.getURI();
@@ -337,6 +329,136 @@ public class FormFillService {
         }
     }
 
+    /**
+     * Create an individual from a filled form in an in-memory delta, without changing the ontology itself.
+     * The delta can be validated as a union with the ontology, and is only written to the ontology if it is
+     * promoted ({@link #promoteStagedIndividual}) - discarding it does not need a write transaction.
+     * @param formName The name of the form.
+     * @param ontologyName The name of the ontology the form is in.
+     * @param targetField The target class of the individual.
+     * @param instanceName The name of the individual.
+     * @param formValues The values of the form fields.
+     * @return The staged individual.
+     */
+    public StagedIndividual stageIndividualFromFilledForm(String formName,
+                                                          String ontologyName,
+                                                          String targetField,
+                                                          String instanceName,
+                                                          Map<String, String[]> formValues) {
+        logger.info("Staging individual from filled form: " + instanceName + " in form: " + formName);
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            var dataset = connection.getDataset();
+            var delta = ModelFactory.createDefaultModel();
+            // New statements of a union model are added to its left graph - the delta
+            var ontology = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
+                    ModelFactory.createUnion(delta, dataset.getNamedModel(ontologyName)));
+            var individual = addIndividualFromFormValues(dataset, ontology, ontologyName,
+                    targetField, instanceName, formValues);
+            logger.info("Individual staged successfully with {} statements.", delta.size());
+            return new StagedIndividual(individual.getURI(), delta);
+        }
+    }
+
+    /**
+     * Write a staged individual into its ontology and register it as created by the form, in one write transaction.
+     * Removes the draft if it exists.
+     * @param stagedIndividual The staged individual.
+     * @param formName The name of the form.
+     * @param ontologyName The name of the ontology the form is in.
+     * @param draftName The original/first name of the corresponding draft if it exists. Else, null.
+     */
+    public void promoteStagedIndividual(StagedIndividual stagedIndividual,
+                                        String formName,
+                                        String ontologyName,
+                                        String draftName) {
+        logger.info("Promoting staged individual: " + stagedIndividual.getUri() + " in form: " + formName);
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
+            var dataset = connection.getDataset();
+            var model = dataset.getNamedModel(ontologyName);
+            // The validators already validated the delta, so they only apply it instead of loading the ontology
+            reasonerPool.recordChanges(ontologyName, GraphChanges.added(stagedIndividual.getDelta(), model.getGraph()));
+            model.add(stagedIndividual.getDelta());
+            var individual = individualService.getIndividualByIri(dataset, ontologyName, stagedIndividual.getUri());
+            registerCreatedIndividual(dataset, formName, ontologyName, draftName, individual);
+            connection.commit();
+            logger.info("Staged individual promoted successfully.");
+        }
+    }
+
+    private Individual addIndividualFromFormValues(Dataset dataset,
+                                                   OntModel ontology,
+                                                   String ontologyName,
+                                                   String targetField,
+                                                   String instanceName,
+                                                   Map<String, String[]> formValues) {
+        var classURI = generalTDBService.getClassURIInOntology(dataset, ontologyName, targetField);
+        var ontologyURI = classURI.substring(0, classURI.lastIndexOf("#") + 1);
+        var individual = ontology.createIndividual(ontologyURI + instanceName + "_" + UUID.randomUUID(),
+                ontology.getOntClass(classURI));
+        individual.setLabel(instanceName, null);
+        for (var formValue : formValues.keySet()) {
+            if (formValue.equals("instanceName") || formValue.equals("ontologyName") || formValue.equals("targetClass") ||
+                    formValue.equals("create-individual-dialog-option"))
+                continue;
+            var propUri = generalTDBService.getPropertyURIInOntology(dataset, ontologyName, formValue);
+            var prop = ontology.getProperty(propUri);
+            if (generalTDBService.checkIfObjectProperty(dataset, ontologyName, prop.getURI())) {
+                for (var objectValue : formValues.get(formValue)) {
+                    var objectIndividual = individualService.findIndividualInOntology(dataset, ontologyName, objectValue);
+                    individual.addProperty(prop, objectIndividual);
+                }
+            } else {
+                var dtype = ontology.getDatatypeProperty(propUri).getRange().getLocalName();
+                for (var dataValue : formValues.get(formValue)) {
+                    switch (dtype) {
+                        case "int":
+                            individual.addLiteral(prop, Integer.parseInt(dataValue));
+                            break;
+                        case "float":
+                            individual.addLiteral(prop, Float.parseFloat(dataValue));
+                            break;
+                        case "double":
+                            individual.addLiteral(prop, Double.parseDouble(dataValue));
+                            break;
+                        case "boolean":
+                            individual.addLiteral(prop, Boolean.parseBoolean(dataValue));
+                            break;
+                        case "dateTime":
+                            var lit = ontology.createTypedLiteral(dataValue, XSDDatatype.XSDdateTime);
+                            individual.addLiteral(prop, lit);
+                            break;
+                        default:
+                            individual.addLiteral(prop, dataValue);
+                            break;
+                    }
+                }
+            }
+        }
+        return individual;
+    }
+
+    private void registerCreatedIndividual(Dataset dataset,
+                                           String formName,
+                                           String ontologyName,
+                                           String draftName,
+                                           Individual individual) {
+        nameIndex.add(ontologyName, OntologyNameIndex.EntityKind.INDIVIDUAL, individual.getLocalName(),
+                individual.getURI());
+        assertedTypeIndex.add(ontologyName, individual.getURI());
+        ontologyStatistics.addIndividual(ontologyName, individual.getURI());
+        // Adds the types inferred from the property values of the form as well
+        classMembershipIndex.addIndividual(ontologyName, individual);
+        if (draftName != null) {
+            // draft already exists
+            var completeDraftIri = formsOntologyIri + "#" + draftName;
+            draftStore.deleteDraft(dataset, completeDraftIri);
+        }
+        individualService.addIndividualWithUniqueIRI(dataset, "Individual", individual.getURI());
+        var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
+        propertyService.addObjectPropertyToIndividual(dataset, "forms", form,
+                "created", individual.getURI());
+    }
+
     private String getFormType(String datatype) {
         switch (datatype) {
             case "string" -> {
@@ -359,4 +481,15 @@ public class FormFillService {
             }
         }
     }
+
+    /**
+     * An individual created from a filled form, which is not written to its ontology yet.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class StagedIndividual {
+        private final String uri;
+        // The statements of the individual, which are not in the ontology yet
+        private final Model delta;
+    }
 }
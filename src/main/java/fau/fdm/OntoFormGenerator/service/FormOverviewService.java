@@ -1,10 +1,14 @@
 package fau.fdm.OntoFormGenerator.service;
 
 import fau.fdm.OntoFormGenerator.data.*;
+import fau.fdm.OntoFormGenerator.tdb.DraftStore;
+import fau.fdm.OntoFormGenerator.tdb.FormCatalog;
+import fau.fdm.OntoFormGenerator.tdb.FormDefinitionCache;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
 import fau.fdm.OntoFormGenerator.tdb.IndividualService;
 import fau.fdm.OntoFormGenerator.tdb.PropertyService;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.ReadWrite;
 import org.slf4j.Logger;
@@ -29,11 +33,23 @@ public class FormOverviewService {
 
     private final PropertyService propertyService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
+
+    private final FormDefinitionCache formDefinitionCache;
+
+    private final DraftStore draftStore;
+
+    private final FormCatalog formCatalog;
+
+    @Value("${ontoformgenerator.dashboard.pageSize:20}")
+    private int dashboardPageSize;
 
     @Autowired
-    public FormOverviewService(IndividualService individualService, PropertyService propertyService, GeneralTDBService generalTDBService) {
+    public FormOverviewService(IndividualService individualService, PropertyService propertyService, GeneralTDBService generalTDBService, TDBDatasetManager datasetManager, FormDefinitionCache formDefinitionCache, DraftStore draftStore, FormCatalog formCatalog) {
+        this.draftStore = draftStore;
+        this.formCatalog = formCatalog;
+        this.datasetManager = datasetManager;
+        this.formDefinitionCache = formDefinitionCache;
         this.propertyService = propertyService;
         this.logger = LoggerFactory.getLogger(FormOverviewService.class);
         this.individualService = individualService;
@@ -47,17 +63,16 @@ public class FormOverviewService {
      * @return A list of forms that target the specified class.
      */
     public List<Form> getFormsWithTargetClass(String ontologyName, String targetClass) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
-            var targetClassIndiv = individualService.findIndividualInOntology(connection.getDataset(), ontologyName, targetClass);
-
-            var allForms = individualService.getAllIndividualsOfClass(connection.getDataset(), "forms", "Form");
-            return allForms.stream()
-                    .filter(form -> propertyService.getObjectPropertyValueFromIndividual(connection.getDataset(), "forms", form, "targetsClass")
-                    .getLocalName().equals(targetClass))
-                    .map(form -> new Form(form.getLocalName(), ontologyName,
-                            new OntologyClass(targetClass, targetClassIndiv.getURI())))
-                    .toList();
-        }
+        return getCatalog().getFormsWithTargetClass(ontologyName, targetClass);
+    }
+
+    /**
+     * Get a form by its name.
+     * @param formName The name of the form.
+     * @return The form with its ontology and target class, or null if no such form exists.
+     */
+    public Form getForm(String formName) {
+        return getCatalog().getForm(formName);
     }
 
     /**
@@ -70,7 +85,8 @@ public class FormOverviewService {
     public void addNewForm(String formName, String ontologyName, String ontologyURI,
                            String targetClass) {
         logger.info("Adding new form: " + formName + " targeting ontology: " + ontologyName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        // A form is only written to the forms graph, the ontology is not changed
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, "forms")) {
             var dataset = connection.getDataset();
             var individual = individualService.addIndividualByLocalName(dataset, "Form", formName);
             propertyService.addObjectPropertyToIndividual(dataset,
@@ -90,6 +106,9 @@ public class FormOverviewService {
                     propertyService.getPropertyFromOntology(dataset, "forms", "targetsClass"),
                     classIndividual
             );
+            formDefinitionCache.invalidate(formName);
+            formCatalog.putForm(new Form(formName, ontologyName,
+                    new OntologyClass(classIndividual.getLocalName(), classIndividual.getURI())), 0);
             logger.info("Form added: " + formName);
             connection.commit();
         } catch (Exception e) {
@@ -99,24 +118,49 @@ public class FormOverviewService {
     }
 
     /**
-     * Get all forms of all ontologies in the database.
+     * Get all forms of all ontologies in the database, sorted by name.
      * @return A list of all forms in the database.
      */
     public List<Form> getAllForms() {
-        List<Form> forms = new ArrayList<>();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, null)) {
-            var individuals = individualService.getAllIndividualsOfClass(connection.getDataset(), "forms", "Form");
-            for (var individual : individuals) {
-                var formName = individual.getLocalName();
-                var ontologyName = propertyService.getObjectPropertyValueFromIndividual(connection.getDataset(),
-                        "forms", individual, "targetsOntology").getLocalName();
-                var targetClass = propertyService.getObjectPropertyValueFromIndividual(connection.getDataset(),
-                        "forms", individual, "targetsClass");
-                var form = new Form(formName, ontologyName, new OntologyClass(targetClass.getLocalName(),
-                        targetClass.getURI()));
-                forms.add(form);
-            }
-            return forms;
+        return getCatalog().getForms(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get one page of the index page with the configured page size.
+     * @param page The index of the page, starting at 0.
+     * @return The ontologies, the forms of the page and the number of elements and drafts of each of these forms.
+     */
+    public Dashboard getDashboard(int page) {
+        return getDashboard(page, dashboardPageSize);
+    }
+
+    /**
+     * Get one page of the index page, served from the {@link FormCatalog} - so its cost does not grow with
+     * the number of forms and drafts in the database.
+     * @param page The index of the page, starting at 0 - pages after the last page are mapped to the last page.
+     * @param pageSize The number of forms per page.
+     * @return The ontologies, the forms of the page and the number of elements and drafts of each of these forms.
+     */
+    public Dashboard getDashboard(int page, int pageSize) {
+        var state = getCatalog();
+        int pageCount = Math.max(1, (state.getFormCount() + pageSize - 1) / pageSize);
+        page = Math.min(Math.max(page, 0), pageCount - 1);
+        var forms = state.getForms(page * pageSize, pageSize);
+        List<Integer> elementCounts = new ArrayList<>();
+        List<Integer> draftCounts = new ArrayList<>();
+        for (var form : forms) {
+            elementCounts.add(state.getElementCount(form.getFormName()));
+            draftCounts.add(state.getDraftCount(form.getFormName()));
+        }
+        return new Dashboard(state.getOntologies(), forms, elementCounts, draftCounts, page, pageCount);
+    }
+
+    private FormCatalog.State getCatalog() {
+        var state = formCatalog.get();
+        if (state != null) return state;
+        long generation = formCatalog.getGeneration();
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
+            return formCatalog.build(connection.getDataset(), generation);
         }
     }
 
@@ -126,7 +170,7 @@ public class FormOverviewService {
      * @return A list of all created individuals of the form.
      */
     public List<Individual> getAllIndividualsOfForm(String formName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, null)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
             var dataset = connection.getDataset();
             var formIndividual = individualService.getIndividualByLocalName(dataset, "forms", formName);
             var individuals = propertyService.getMultipleObjectPropertyValuesFromIndividual(dataset,
@@ -148,27 +192,23 @@ public class FormOverviewService {
     }
 
     /**
-     * Get all drafts of a form list.
-     * @param forms The list of forms for which the drafts should be retrieved.
-     * @return A list drafts for each form in the list, corresponding to the order of the input list.
+     * Get all drafts of a form, sorted by IRI.
+     * @param formName The name of the form.
+     * @return A list of all drafts of the form.
      */
-    public List<List<Draft>> getAllDraftsOfForms(List<Form> forms) {
-        List<List<Draft>> drafts = new ArrayList<>();
-        for (var form : forms) {
-            drafts.add(getAllDraftsOfForm(form.getFormName()));
-        }
-        return drafts;
+    public List<Draft> getAllDraftsOfForm(String formName) {
+        return getCatalog().getDrafts(formName, 0, Integer.MAX_VALUE);
     }
 
     /**
-     * Get all drafts of a form.
+     * Get one page of the drafts of a form, sorted by IRI.
      * @param formName The name of the form.
-     * @return A list of all drafts of the form.
+     * @param page The index of the page, starting at 0.
+     * @param pageSize The number of drafts per page.
+     * @return The drafts of the page, empty after the last page.
      */
-    public List<Draft> getAllDraftsOfForm(String formName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, null)) {
-            return getAllDraftsOfForm(connection.getDataset(), formName);
-        }
+    public List<Draft> getDraftsOfForm(String formName, int page, int pageSize) {
+        return getCatalog().getDrafts(formName, Math.max(page, 0) * pageSize, pageSize);
     }
 
     /**
@@ -204,7 +244,7 @@ public class FormOverviewService {
      * @param formName The name of the form to delete.
      */
     public void deleteForm(String formName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, null)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
             deleteForm(connection.getDataset(), formName);
             connection.commit();
         }
@@ -218,7 +258,7 @@ public class FormOverviewService {
     public void deleteForm(Dataset dataset, String formName) {
         logger.info("Deleting form: " + formName);
         for (var draft : getAllDraftsOfForm(dataset, formName)) {
-            individualService.deleteIndividualByIri(dataset, "forms", draft.getIri());
+            draftStore.deleteDraft(dataset, draft.getIri());
         }
         var formElements = propertyService.getMultipleObjectPropertyValuesFromIndividual(dataset,
                 "forms", individualService.getIndividualByLocalName(dataset, "forms", formName),
@@ -228,6 +268,8 @@ public class FormOverviewService {
                     formElement.getURI());
         }
         individualService.deleteIndividualByLocalName(dataset, "forms", formName);
+        formDefinitionCache.invalidate(formName);
+        formCatalog.removeForm(formName);
         logger.info("Form deleted: " + formName);
     }
 
@@ -237,11 +279,9 @@ public class FormOverviewService {
      * @return The ontology the form targets.
      */
     public Ontology getOntologyOfForm(String formName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, null)) {
-            var formIndividual = individualService.getIndividualByLocalName(connection.getDataset(), "forms", formName);
-            var ontologyIndividual = propertyService.getObjectPropertyValueFromIndividual(connection.getDataset(),
-                    "forms", formIndividual, "targetsOntology");
-            return new Ontology(ontologyIndividual.getLocalName(), ontologyIndividual.getURI());
-        }
+        var catalog = getCatalog();
+        var form = catalog.getForm(formName);
+        if (form == null) return null;
+        return catalog.getOntology(form.getOntologyName());
     }
 }
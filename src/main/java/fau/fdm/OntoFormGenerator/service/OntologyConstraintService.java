@@ -5,6 +5,7 @@ import fau.fdm.OntoFormGenerator.data.Individual;
 import fau.fdm.OntoFormGenerator.data.OntologyClass;
 import fau.fdm.OntoFormGenerator.data.OntologyProperty;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.query.Dataset;
@@ -13,7 +14,6 @@ import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -25,12 +25,12 @@ import java.util.List;
 @Service
 public class OntologyConstraintService {
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
 
     private final Logger logger;
 
-    public OntologyConstraintService() {
+    public OntologyConstraintService(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
         this.logger = LoggerFactory.getLogger(OntologyConstraintService.class);
     }
 
@@ -91,7 +91,7 @@ public class OntologyConstraintService {
      * @return A list of constraints for this combination.
      */
     public List<Constraint> getConstraints(String ontologyName, String domainClassUri, String propertyUri) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             return getConstraints(connection.getDataset(), ontologyName, domainClassUri, propertyUri);
         }
     }
@@ -109,7 +109,7 @@ public class OntologyConstraintService {
                                                               String ontologyName,
                                                               String domainClassUri,
                                                               String propertyUri) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             var ontModel = connection.getModel();
             ontModel.getOntClass(domainClassUri).listSuperClasses().forEachRemaining(cls -> {
                 if (cls.isRestriction()) {
@@ -4,26 +4,31 @@ package fau.fdm.OntoFormGenerator.service;
 import fau.fdm.OntoFormGenerator.data.*;
 import fau.fdm.OntoFormGenerator.data.Individual;
 import fau.fdm.OntoFormGenerator.exception.*;
+import fau.fdm.OntoFormGenerator.tdb.AssertedTypeIndex;
+import fau.fdm.OntoFormGenerator.tdb.ClassMembershipIndex;
+import fau.fdm.OntoFormGenerator.tdb.FormDefinitionCache;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
 import fau.fdm.OntoFormGenerator.tdb.IndividualService;
+import fau.fdm.OntoFormGenerator.tdb.OntologyNameIndex;
+import fau.fdm.OntoFormGenerator.tdb.OntologyStatistics;
+import fau.fdm.OntoFormGenerator.tdb.PropertyKindTable;
+import fau.fdm.OntoFormGenerator.tdb.PropertySearchIndex;
 import fau.fdm.OntoFormGenerator.tdb.PropertyService;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import fau.fdm.OntoFormGenerator.validation.ReasonerPool;
 import org.apache.jena.ontapi.OntModelFactory;
 import org.apache.jena.ontapi.OntSpecification;
 import org.apache.jena.ontapi.model.OntIndividual;
 import org.apache.jena.ontology.*;
 import org.apache.jena.query.*;
-import org.apache.jena.rdf.model.InfModel;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.reasoner.Reasoner;
-import org.apache.jena.reasoner.ReasonerRegistry;
+import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.vocabulary.XSD;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -42,11 +47,35 @@ public class OntologyContentService {
 
     private final GeneralTDBService generalTDBService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
+
+    private final OntologyNameIndex nameIndex;
+
+    private final PropertyKindTable propertyKindTable;
+
+    private final AssertedTypeIndex assertedTypeIndex;
+
+    private final ClassMembershipIndex classMembershipIndex;
+
+    private final ReasonerPool reasonerPool;
+
+    private final FormDefinitionCache formDefinitionCache;
+
+    private final PropertySearchIndex propertySearchIndex;
+
+    private final OntologyStatistics ontologyStatistics;
 
     @Autowired
-    public OntologyContentService(IndividualService individualService, GeneralTDBService generalTDBService, PropertyService propertyService, OntologyValidationService ontologyValidationService) {
+    public OntologyContentService(IndividualService individualService, GeneralTDBService generalTDBService, PropertyService propertyService, OntologyValidationService ontologyValidationService, TDBDatasetManager datasetManager, OntologyNameIndex nameIndex, PropertyKindTable propertyKindTable, AssertedTypeIndex assertedTypeIndex, ClassMembershipIndex classMembershipIndex, ReasonerPool reasonerPool, FormDefinitionCache formDefinitionCache, PropertySearchIndex propertySearchIndex, OntologyStatistics ontologyStatistics) {
+        this.datasetManager = datasetManager;
+        this.ontologyStatistics = ontologyStatistics;
+        this.propertySearchIndex = propertySearchIndex;
+        this.formDefinitionCache = formDefinitionCache;
+        this.reasonerPool = reasonerPool;
+        this.nameIndex = nameIndex;
+        this.propertyKindTable = propertyKindTable;
+        this.assertedTypeIndex = assertedTypeIndex;
+        this.classMembershipIndex = classMembershipIndex;
         this.generalTDBService = generalTDBService;
         this.logger = LoggerFactory.getLogger(OntologyContentService.class);
         this.individualService = individualService;
@@ -60,15 +89,25 @@ public class OntologyContentService {
      * @return A list of all classes in the ontology.
      */
     public List<OntologyClass> getAllClassesOfOntology(String ontologyName) {
-        List<OntologyClass> classes = new ArrayList<>();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
-            connection.getModel().listClasses().forEach(
-                    ontClass -> classes.add(new OntologyClass(ontClass.getLocalName(), ontClass.getURI()))
-            );
-            return classes;
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            return getAllClassesOfOntology(connection.getDataset(), ontologyName);
         }
     }
 
+    /**
+     * Get all classes of an ontology.
+     * @param dataset The dataset to use.
+     * @param ontologyName The name of the ontology.
+     * @return A list of all classes of the ontology.
+     */
+    public List<OntologyClass> getAllClassesOfOntology(Dataset dataset, String ontologyName) {
+        List<OntologyClass> classes = new ArrayList<>();
+        generalTDBService.getOntModel(dataset.getNamedModel(ontologyName)).listClasses().forEach(
+                ontClass -> classes.add(new OntologyClass(ontClass.getLocalName(), ontClass.getURI()))
+        );
+        return classes;
+    }
+
     /**
      * Get all properties of a domain class.
      * @param ontologyName The name of the ontology.
@@ -77,7 +116,7 @@ public class OntologyContentService {
      */
     public List<OntologyProperty> getAllPropertiesOfDomain(String ontologyName, String classURI) {
         List<OntologyProperty> properties = new ArrayList<>();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             OntClass ontClass = connection.getModel().getOntClass(classURI);
             if (ontClass == null) {
                 return properties;
@@ -122,56 +161,61 @@ public class OntologyContentService {
      */
     public List<Individual> getAllIndividualsOfOntology(String ontologyName) {
         List<Individual> individuals = new ArrayList<>();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             OntModel ontModel = connection.getModel();
             Dataset dataset = connection.getDataset();
+            var labels = propertyService.getLabelsOfOntology(dataset, ontologyName);
             ontModel.listIndividuals().forEach(
                     individual -> {
                         var individualName = individual.getLocalName();
                         var individualIri = individual.getURI();
                         var ontClass = individual.getOntClass();
                         var ontologyClass = new OntologyClass(ontClass.getLocalName(), ontClass.getURI());
-                        individuals.add(new Individual(individualName, propertyService.getLabelOfIndividual(dataset, ontologyName, individualIri),
-                                individualIri, ontologyClass,
-                                individualService.checkIfIndividualIsImported(dataset, ontologyName, individualIri)));
+                        individuals.add(new Individual(individualName, labels.get(individualIri),
+                                individualIri, ontologyClass, false));
                     }
             );
+            setImported(dataset, ontologyName, individuals);
             return individuals;
         }
     }
 
     /**
-     * Get all individuals of a class. Uses reasoning to also get all indirect individuals.
+     * Get all individuals of a class. Uses the materialized class membership closure to also get all indirect
+     * individuals.
      * @param ontologyName The name of the ontology.
      * @param classIri The URI of the class.
      * @return A list of all individuals of the class.
      */
     public List<Individual> getAllIndividualsOfClass(String ontologyName, String classIri) {
         List<Individual> individuals = new ArrayList<>();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
-            Reasoner reasoner = ReasonerRegistry.getOWLMicroReasoner();
-            reasoner.bindSchema(connection.getModel());
-            InfModel infModel = ModelFactory.createInfModel(reasoner, connection.getModel());
-            Resource classRes = infModel.getResource(classIri);
-            var typeProp = infModel.getProperty("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
-
-            infModel.listStatements(null, typeProp, classRes).forEach(
-                    stmt -> {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            var dataset = connection.getDataset();
+            var members = classMembershipIndex.getIndividualsOfClass(dataset, ontologyName, classIri);
+            var ontologyClass = new OntologyClass(generalTDBService.getClassNameInOntology(dataset, ontologyName,
+                    classIri), classIri);
+            var labels = propertyService.getLabelsOfOntology(dataset, ontologyName);
+            members.forEach(
+                    individualIri -> {
                         var individual = new Individual();
-                        individual.setName(stmt.getSubject().getLocalName());
-                        individual.setLabel(propertyService.getLabelOfIndividual(connection.getDataset(), ontologyName, stmt.getSubject().getURI()));
-                        individual.setIri(stmt.getSubject().getURI());
-                        individual.setOntologyClass(new OntologyClass(generalTDBService.getClassNameInOntology(
-                                connection.getDataset(), ontologyName, classIri
-                        ), classIri));
-                        individual.setImported(individualService.checkIfIndividualIsImported(connection.getDataset(), ontologyName, stmt.getSubject().getURI()));
+                        individual.setName(ResourceFactory.createResource(individualIri).getLocalName());
+                        individual.setLabel(labels.get(individualIri));
+                        individual.setIri(individualIri);
+                        individual.setOntologyClass(ontologyClass);
                         individuals.add(individual);
                     }
             );
+            setImported(dataset, ontologyName, individuals);
             return individuals;
         }
     }
 
+    private void setImported(Dataset dataset, String ontologyName, List<Individual> individuals) {
+        var imported = individualService.areImported(dataset, ontologyName,
+                individuals.stream().map(Individual::getIri).toList());
+        individuals.forEach(individual -> individual.setImported(imported.get(individual.getIri())));
+    }
+
     /**
      * Get the individual of an ontology by its label name.
      * @param individualName The label name of the individual.
@@ -179,7 +223,7 @@ public class OntologyContentService {
      * @return The individual with the given name.
      */
     public Individual getIndividualByString(String individualName, String ontologyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             var individual = individualService.findIndividualInOntology(connection.getDataset(), ontologyName, individualName);
             if (individual == null) {
                 return null;
@@ -197,7 +241,7 @@ public class OntologyContentService {
      * @return A list of all set properties of the individual.
      */
     public List<SetProperty> getAllSetPropertiesByIndividual(String individualURI, String ontologyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             return getSetProperties(connection.getDataset(), individualURI, ontologyName);
         }
     }
@@ -205,37 +249,41 @@ public class OntologyContentService {
     private List<SetProperty> getSetProperties(Dataset dataset, String individualUri, String ontologyName) {
         List<SetProperty> setProperties = new ArrayList<>();
         var individual = individualService.getIndividualByIri(dataset, ontologyName, individualUri);
-        individual.listProperties().forEachRemaining(
-                stmt -> {
-                    if (stmt.getPredicate().getLocalName().equals("type"))
-                        return;
-                    if (generalTDBService.checkIfAnnotationProperty(dataset, ontologyName, stmt.getPredicate().getURI()))
-                        return;
-                    var setProperty = new SetProperty();
-                    var ontClass = new OntologyClass(individual.getOntClass().getLocalName(),
-                            individual.getOntClass().getURI());
-                    var isObjectProperty = generalTDBService.checkIfObjectProperty(dataset, ontologyName,
-                            stmt.getPredicate().getURI());
-                    setProperty.setProperty(new OntologyProperty(
-                            stmt.getPredicate().getLocalName(),
-                            ontClass,
-                            null,
-                            isObjectProperty,
-                            isObjectProperty ? new OntologyClass(stmt.getObject().asResource().getLocalName(),
-                                    stmt.getObject().asResource().getURI()) : null,
-                            isObjectProperty ? null : stmt.getObject().asLiteral().getDatatype().getJavaClass().getSimpleName()
-                    ));
-                    setProperty.setIndividual(new Individual(individual.getLocalName(),
-                            propertyService.getLabelOfIndividual(dataset, ontologyName, individual.getURI()),
-                            individual.getURI(), ontClass, individualService.checkIfIndividualIsImported(dataset, ontologyName, individual.getURI())));
-                    if (isObjectProperty) {
-                        setProperty.setValue(stmt.getObject().asResource().getLocalName());
-                    } else {
-                        setProperty.setValue(stmt.getObject().toString());
-                    }
-                    setProperties.add(setProperty);
-                }
-        );
+        var propertyKinds = generalTDBService.getPropertyKinds(dataset, ontologyName);
+        OntologyClass ontClass = null;
+        Individual setIndividual = null;
+        for (var stmt : individual.listProperties().toList()) {
+            if (stmt.getPredicate().getLocalName().equals("type"))
+                continue;
+            if (propertyKinds.isAnnotationProperty(stmt.getPredicate().getURI()))
+                continue;
+            if (setIndividual == null) {
+                // Same for every set property, so only looked up once
+                ontClass = new OntologyClass(individual.getOntClass().getLocalName(),
+                        individual.getOntClass().getURI());
+                setIndividual = new Individual(individual.getLocalName(),
+                        propertyService.getLabelOfIndividual(dataset, ontologyName, individual.getURI()),
+                        individual.getURI(), ontClass, individualService.checkIfIndividualIsImported(dataset, ontologyName, individual.getURI()));
+            }
+            var setProperty = new SetProperty();
+            var isObjectProperty = propertyKinds.isObjectProperty(stmt.getPredicate().getURI());
+            setProperty.setProperty(new OntologyProperty(
+                    stmt.getPredicate().getLocalName(),
+                    ontClass,
+                    stmt.getPredicate().getURI(),
+                    isObjectProperty,
+                    isObjectProperty ? new OntologyClass(stmt.getObject().asResource().getLocalName(),
+                            stmt.getObject().asResource().getURI()) : null,
+                    isObjectProperty ? null : stmt.getObject().asLiteral().getDatatype().getJavaClass().getSimpleName()
+            ));
+            setProperty.setIndividual(setIndividual);
+            if (isObjectProperty) {
+                setProperty.setValue(stmt.getObject().asResource().getLocalName());
+            } else {
+                setProperty.setValue(stmt.getObject().toString());
+            }
+            setProperties.add(setProperty);
+        }
         return setProperties;
     }
 
@@ -248,10 +296,15 @@ public class OntologyContentService {
      */
     public Boolean addEmptyIndividual(String ontologyName, String classUri, String individualName) {
         logger.info("Adding empty individual {} to class {}", individualName, classUri);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             var ontClass = connection.getModel().getOntClass(classUri);
             var ontologyURI = ontClass.getURI().substring(0, ontClass.getURI().lastIndexOf("#") + 1);
             connection.getModel().createIndividual(ontologyURI + individualName, ontClass);
+            nameIndex.add(ontologyName, OntologyNameIndex.EntityKind.INDIVIDUAL, individualName,
+                    ontologyURI + individualName);
+            assertedTypeIndex.add(ontologyName, ontologyURI + individualName);
+            ontologyStatistics.addIndividual(ontologyName, ontologyURI + individualName);
+            classMembershipIndex.addIndividual(ontologyName, ontologyURI + individualName, classUri);
             connection.commit();
             logger.info("Successfully added individual {} to class {}", individualName, classUri);
             return true;
@@ -299,6 +352,8 @@ public class OntologyContentService {
                     } else {
                         propertyService.removePropertyValueFromIndividual(dataset, ontologyName,
                                 individual, form.get("propertyName")[i]);
+                        classMembershipIndex.removePropertyValue(ontologyName,
+                                setProperties.get(j).getProperty().getUri());
                     }
                     setProperties.remove(j);
                     break;
@@ -314,6 +369,8 @@ public class OntologyContentService {
                 // object property
                 var objectIndividual = individualService.findIndividualInOntology(dataset, ontologyName, propertyValue);
                 individual.addProperty(prop, objectIndividual);
+                classMembershipIndex.addPropertyValue(ontologyName, individualUri, prop.getURI(),
+                        objectIndividual.getURI());
             } else {
                 // datatype property
                 var dtype = ontology.getDataProperty(prop.getURI()).ranges().findFirst().get().getLocalName();
@@ -334,6 +391,7 @@ public class OntologyContentService {
                         individual.addLiteral(prop, propertyValue);
                         break;
                 }
+                classMembershipIndex.addPropertyValue(ontologyName, individualUri, prop.getURI(), null);
             }
         }
 
@@ -351,8 +409,11 @@ public class OntologyContentService {
                 propertyService.removePropertyValueFromIndividual(dataset, ontologyName,
                         individual, alreadyInsertedElement.getProperty().getName(),
                         alreadyInsertedElement.getValue());
+                classMembershipIndex.removePropertyValue(ontologyName,
+                        alreadyInsertedElement.getProperty().getUri());
             }
         }
+        datasetManager.markChanged(ontologyName);
         logger.info("Successfully edited individual {} in ontology {}", individualUri, ontologyName);
         return individualUri;
     }
@@ -364,7 +425,7 @@ public class OntologyContentService {
      */
     public SubclassGraph buildSubclassGraph(String ontologyName) {
         SubclassGraph subclassGraph = new SubclassGraph();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             var ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
                     connection.getDataset().getNamedModel(ontologyName));
 
@@ -411,7 +472,7 @@ public class OntologyContentService {
     public OntologyClass addNewClass(String ontologyName, String className,
                                      String superClass) throws OntologyValidationException {
         logger.info("Adding new class {} to ontology {}", className, ontologyName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             var superClassUri = generalTDBService.getClassURIInOntology(connection.getDataset(), ontologyName, superClass);
             var uri = generalTDBService.getOntologyURIByOntologyName(connection.getDataset(), ontologyName)
                     + "#" + className;
@@ -424,6 +485,12 @@ public class OntologyContentService {
             }
             var isUsedDefinedProp = connection.getModel().getProperty(IS_USER_DEFINED);
             newClass.addProperty(isUsedDefinedProp, connection.getModel().createTypedLiteral(true));
+            nameIndex.add(ontologyName, OntologyNameIndex.EntityKind.CLASS, className, uri);
+            classMembershipIndex.addClass(ontologyName, uri,
+                    superClassUri != null ? superClassUri : "http://www.w3.org/2002/07/owl#Thing");
+            ontologyStatistics.addClass(ontologyName, uri);
+            reasonerPool.invalidate(ontologyName);
+            formDefinitionCache.invalidateOntology(ontologyName);
             connection.commit();
             logger.info("Successfully added new class {} to ontology {}", className, ontologyName);
             return new OntologyClass(className, uri);
@@ -441,7 +508,7 @@ public class OntologyContentService {
      */
     public void deleteIndividual(String ontologyName, String individualUri) {
         logger.info("Deleting individual {} from ontology {}", individualUri, ontologyName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             individualService.deleteIndividualByIri(connection.getDataset(), ontologyName, individualUri);
             individualService.deleteIndividualByIri(connection.getDataset(), "forms", individualUri);
             logger.info("Successfully deleted individual {} from ontology {}", individualUri, ontologyName);
@@ -473,13 +540,17 @@ public class OntologyContentService {
                                               boolean objectProperty, String domain, String range,
                                               boolean validate) throws OntologyValidationException {
         logger.info("Creating new property {} in ontology {}", propertyName, ontologyName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        if (validate) {
+            // Checked before the write transaction is opened, so the writer is not held for it
+            var synonyms = ontologyValidationService.findPotentialSimilarProperties(ontologyName, domain, propertyName);
+            if (!synonyms.isEmpty()) {
+                logger.error("Error creating new property {} in ontology {}", propertyName, ontologyName);
+                throw new SimilarPropertiesExistException(propertyName,
+                        synonyms.stream().map(OntologyProperty::getName).toArray(String[]::new));
+            }
+        }
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             if (validate) {
-                var synonyms = ontologyValidationService.findPotentialSimilarProperties(connection.getDataset(), ontologyName, domain, propertyName);
-                if (!synonyms.isEmpty()) {
-                    throw new SimilarPropertiesExistException(propertyName,
-                            synonyms.stream().map(OntologyProperty::getName).toArray(String[]::new));
-                }
                 var namingValidationResult = ontologyValidationService.checkNamingSchema(connection.getDataset(), ontologyName, propertyName);
                 if (!namingValidationResult.isValid()) {
                     throw new NamingSchemaDifferentException(propertyName, ontologyName,
@@ -518,6 +589,19 @@ public class OntologyContentService {
             if (propDescription != null && !propDescription.isEmpty()) {
                 property.addProperty(rdfsComment, ontModel.createTypedLiteral(propDescription));
             }
+            nameIndex.add(ontologyName, OntologyNameIndex.EntityKind.PROPERTY, propertyName, uri);
+            var searchEntry = new OntologyProperty(propertyName,
+                    new OntologyClass(domainClass.getLocalName(), domainClass.getURI()), uri, objectProperty,
+                    objectProperty ? new OntologyClass(fullRange.getLocalName(), fullRange.getURI()) : null,
+                    objectProperty ? null : fullRange.getLocalName());
+            searchEntry.setRdfsComment(propDescription != null && !propDescription.isEmpty() ? propDescription : null);
+            propertySearchIndex.add(ontologyName, searchEntry);
+            ontologyStatistics.addProperty(ontologyName, uri, propertyName, objectProperty
+                    ? OntologyStatistics.PropertyKind.OBJECT : OntologyStatistics.PropertyKind.DATATYPE);
+            propertyKindTable.invalidate(ontologyName);
+            classMembershipIndex.invalidate(ontologyName);
+            reasonerPool.invalidate(ontologyName);
+            formDefinitionCache.invalidateOntology(ontologyName);
             connection.commit();
             logger.info("Successfully created new property {} in ontology {}", propertyName, ontologyName);
             return new OntologyProperty(propertyName, new OntologyClass(domain, domainClass.getURI()), uri,
@@ -547,7 +631,7 @@ public class OntologyContentService {
      * @return A list of all target classes.
      */
     public List<OntologyClass> getTargetClasses(String ontologyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             var ontology = individualService.findIndividualInOntology(connection.getDataset(), "forms", ontologyName);
             var targetClasses = propertyService.getMultipleObjectPropertyValuesFromIndividual(connection.getDataset(), "forms",
                     ontology, "hasTargetClass");
@@ -561,38 +645,16 @@ public class OntologyContentService {
 
     /**
      * Query properties of a class in an ontology - search for name, label and description.
+     * Served from the {@link PropertySearchIndex}, the query tokens are matched as prefixes of the words in the
+     * local name (split at camelCase humps and underscores), label and description.
      * @param ontologyName The name of the ontology.
      * @param classIri The URI of the class.
      * @param query The search query.
      * @return A list of all properties that match the search query.
      */
     public List<OntologyProperty> queryProperties(String ontologyName, String classIri, String query) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
-            // 1. Search for name (case invariant; contains)
-            // 2. Search for label (case invariant; contains)
-            // 3. Search for description (case invariant; contains)
-            var properties = propertyService.searchProperties(connection.getDataset(), ontologyName, classIri, query);
-            List<OntologyProperty> ontologyProperties = new ArrayList<>();
-            properties.forEach(
-                    property -> {
-                        var ontologyProperty = new OntologyProperty();
-                        ontologyProperty.setName(property.getLocalName());
-                        if (property.getDomain() != null) {
-                            ontologyProperty.setDomain(new OntologyClass(property.getDomain().getLocalName(), property.getDomain().getURI()));
-                        }
-                        ontologyProperty.setObjectProperty(property.isObjectProperty());
-                        if (property.isObjectProperty()) {
-                            if (property.getRange() != null)
-                                ontologyProperty.setObjectRange(new OntologyClass(property.getRange().getLocalName(), property.getRange().getURI()));
-                        } else {
-                            ontologyProperty.setDatatypeRange(property.getRange().getLocalName());
-                        }
-                        ontologyProperty.setRdfsLabel(property.getLabel(null));
-                        ontologyProperty.setRdfsComment(property.getComment(null));
-                        ontologyProperties.add(ontologyProperty);
-                    }
-            );
-            return ontologyProperties;
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            return propertySearchIndex.search(connection.getDataset(), ontologyName, classIri, query);
         }
     }
 }
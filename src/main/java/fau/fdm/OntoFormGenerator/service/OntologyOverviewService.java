@@ -1,10 +1,21 @@
 package fau.fdm.OntoFormGenerator.service;
 
 import fau.fdm.OntoFormGenerator.data.Ontology;
+import fau.fdm.OntoFormGenerator.tdb.AssertedTypeIndex;
+import fau.fdm.OntoFormGenerator.tdb.ClassMembershipIndex;
+import fau.fdm.OntoFormGenerator.tdb.FormCatalog;
+import fau.fdm.OntoFormGenerator.tdb.FormDefinitionCache;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
 import fau.fdm.OntoFormGenerator.tdb.IndividualService;
+import fau.fdm.OntoFormGenerator.tdb.InferenceCache;
+import fau.fdm.OntoFormGenerator.tdb.OntologyNameIndex;
+import fau.fdm.OntoFormGenerator.tdb.OntologyStatistics;
+import fau.fdm.OntoFormGenerator.tdb.PropertyKindTable;
+import fau.fdm.OntoFormGenerator.tdb.PropertySearchIndex;
 import fau.fdm.OntoFormGenerator.tdb.PropertyService;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import fau.fdm.OntoFormGenerator.validation.ReasonerPool;
 import org.apache.jena.ontapi.GraphRepository;
 import org.apache.jena.ontapi.OntModelFactory;
 import org.apache.jena.ontapi.OntSpecification;
@@ -41,11 +52,41 @@ public class OntologyOverviewService {
     private final GeneralTDBService generalTDBService;
     private PropertyService propertyService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
+
+    private final OntologyNameIndex nameIndex;
+
+    private final PropertyKindTable propertyKindTable;
+
+    private final AssertedTypeIndex assertedTypeIndex;
+
+    private final ClassMembershipIndex classMembershipIndex;
+
+    private final InferenceCache inferenceCache;
+
+    private final ReasonerPool reasonerPool;
+
+    private final FormDefinitionCache formDefinitionCache;
+
+    private final FormCatalog formCatalog;
+
+    private final PropertySearchIndex propertySearchIndex;
+
+    private final OntologyStatistics ontologyStatistics;
 
     @Autowired
-    public OntologyOverviewService(IndividualService individualService, GeneralTDBService generalTDBService, FormOverviewService formOverviewService, PropertyService propertyService) {
+    public OntologyOverviewService(IndividualService individualService, GeneralTDBService generalTDBService, FormOverviewService formOverviewService, PropertyService propertyService, TDBDatasetManager datasetManager, OntologyNameIndex nameIndex, PropertyKindTable propertyKindTable, AssertedTypeIndex assertedTypeIndex, ClassMembershipIndex classMembershipIndex, InferenceCache inferenceCache, ReasonerPool reasonerPool, FormDefinitionCache formDefinitionCache, FormCatalog formCatalog, PropertySearchIndex propertySearchIndex, OntologyStatistics ontologyStatistics) {
+        this.datasetManager = datasetManager;
+        this.nameIndex = nameIndex;
+        this.propertyKindTable = propertyKindTable;
+        this.assertedTypeIndex = assertedTypeIndex;
+        this.classMembershipIndex = classMembershipIndex;
+        this.inferenceCache = inferenceCache;
+        this.reasonerPool = reasonerPool;
+        this.formDefinitionCache = formDefinitionCache;
+        this.formCatalog = formCatalog;
+        this.propertySearchIndex = propertySearchIndex;
+        this.ontologyStatistics = ontologyStatistics;
         this.generalTDBService = generalTDBService;
         this.logger = LoggerFactory.getLogger(OntologyOverviewService.class);
         this.individualService = individualService;
@@ -58,6 +99,17 @@ public class OntologyOverviewService {
         this.individualService = null;
         this.generalTDBService = null;
         this.formOverviewService = formOverviewService;
+        this.datasetManager = null;
+        this.nameIndex = null;
+        this.propertyKindTable = null;
+        this.assertedTypeIndex = null;
+        this.classMembershipIndex = null;
+        this.inferenceCache = null;
+        this.reasonerPool = null;
+        this.formDefinitionCache = null;
+        this.formCatalog = null;
+        this.propertySearchIndex = null;
+        this.ontologyStatistics = null;
     }
 
     /**
@@ -69,7 +121,7 @@ public class OntologyOverviewService {
      */
     public boolean importOntology(File owlFile, String ontologyName) throws IOException {
         logger.info("Importing ontology {} from file {}", ontologyName, owlFile.getPath());
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             var dataset = connection.getDataset();
             var newOntURI = "http://www.ontoformgenerator.de/ontologies/" + ontologyName;
             var newModel = OntModelFactory.createModel(newOntURI, GraphRepository.createGraphDocumentRepositoryMem());
@@ -93,6 +145,15 @@ public class OntologyOverviewService {
             var ontIndiv = individualService.addIndividualWithUniqueIRI(dataset, "Ontology", newOntURI);
             propertyService.createAnnotationProperty(dataset, "general", "isUserDefined", "isUserDefined",
                     "Indicates whether this entity was created by OntoFormGenerator.");
+            nameIndex.rebuild(dataset, ontologyName);
+            propertyKindTable.invalidate(ontologyName);
+            propertySearchIndex.invalidate(ontologyName);
+            ontologyStatistics.invalidate(ontologyName);
+            assertedTypeIndex.invalidate(ontologyName);
+            classMembershipIndex.invalidate(ontologyName);
+            reasonerPool.invalidate(ontologyName);
+            formDefinitionCache.invalidateOntology(ontologyName);
+            formCatalog.putOntology(new Ontology(ontologyName, ontIndiv.getURI()));
             connection.commit();
             logger.info("Ontology {} imported successfully", ontologyName);
             return true;
@@ -108,7 +169,7 @@ public class OntologyOverviewService {
      */
     public List<Ontology> getImportedOntologies() {
         List<Ontology> ontologies = new ArrayList<>();
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, "forms")) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, "forms")) {
             OntClass ontologyClass = connection.getModel().getOntClass(formsIRI + "#Ontology");
             ontologyClass.listInstances().forEachRemaining(
                     res -> {
@@ -137,7 +198,7 @@ public class OntologyOverviewService {
      */
     public void deleteOntology(String ontologyName) {
         logger.info("Deleting ontology {}", ontologyName);
-        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, ontologyName)) {
             var dataset = connection.getDataset();
             dataset.removeNamedModel(ontologyName);
             individualService.selectIndividualsInSPARQLQuery(dataset, "forms",
@@ -157,6 +218,16 @@ public class OntologyOverviewService {
                     });
             var ontologyIri = generalTDBService.getIndividualURIInOntology(dataset, "forms", ontologyName);
             individualService.deleteIndividualByIri(dataset, "forms", ontologyIri);
+            nameIndex.invalidate(ontologyName);
+            propertyKindTable.invalidate(ontologyName);
+            propertySearchIndex.invalidate(ontologyName);
+            ontologyStatistics.invalidate(ontologyName);
+            assertedTypeIndex.invalidate(ontologyName);
+            classMembershipIndex.invalidate(ontologyName);
+            inferenceCache.evict(ontologyName);
+            reasonerPool.invalidate(ontologyName);
+            formDefinitionCache.invalidateOntology(ontologyName);
+            formCatalog.removeOntology(ontologyName);
             logger.info("Ontology {} deleted successfully", ontologyName);
             connection.commit();
         } catch (Exception e) {
@@ -164,13 +235,25 @@ public class OntologyOverviewService {
         }
     }
 
+    /**
+     * Get the statistics of an ontology - the number of classes, properties by kind, individuals and triples and the
+     * naming schemata of its property names.
+     * @param ontologyName The name of the ontology.
+     * @return The statistics of the ontology.
+     */
+    public OntologyStatistics.Snapshot getOntologyStatistics(String ontologyName) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            return ontologyStatistics.getStatistics(connection.getDataset(), ontologyName);
+        }
+    }
+
     /**
      * Download an ontology and its knowledge base including all created individuals by its name.
      * @param ontologyName The name of the ontology to download.
      * @return A byte array resource containing the ontology.
      */
     public ByteArrayResource downloadOntology(String ontologyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             connection.getModel().write(outputStream, "RDF/XML");
             return new ByteArrayResource(outputStream.toByteArray());
@@ -1,31 +1,36 @@
 package fau.fdm.OntoFormGenerator.service;
 
-import fau.fdm.OntoFormGenerator.data.OntologyClass;
 import fau.fdm.OntoFormGenerator.data.OntologyProperty;
 import fau.fdm.OntoFormGenerator.data.ValidationResult;
 import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
-import fau.fdm.OntoFormGenerator.tdb.PropertyService;
+import fau.fdm.OntoFormGenerator.tdb.OntologyStatistics;
+import fau.fdm.OntoFormGenerator.tdb.PropertySearchIndex;
 import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import fau.fdm.OntoFormGenerator.validation.Cancellation;
 import fau.fdm.OntoFormGenerator.validation.FactValidator;
+import fau.fdm.OntoFormGenerator.validation.GraphChanges;
 import fau.fdm.OntoFormGenerator.validation.HermitValidator;
+import fau.fdm.OntoFormGenerator.validation.IncrementalValidator;
+import fau.fdm.OntoFormGenerator.validation.RaceStatistics;
+import fau.fdm.OntoFormGenerator.validation.RaceValidator;
+import fau.fdm.OntoFormGenerator.validation.ReasonerPool;
+import fau.fdm.OntoFormGenerator.validation.SynonymIndex;
 import fau.fdm.OntoFormGenerator.validation.Validator;
 import fau.fdm.OntoFormGenerator.validation.ValidatorMode;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.jena.ontology.OntModel;
-import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.semanticweb.owlapi.model.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Service for validating ontologies.
@@ -33,20 +38,37 @@ import java.util.Map;
 @Service
 public class OntologyValidationService {
 
-    private final PropertyService propertyService;
+    private final PropertySearchIndex propertySearchIndex;
 
-    private final RestTemplate restTemplate;
+    private final SynonymIndex synonymIndex;
     private final GeneralTDBService generalTDBService;
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final TDBDatasetManager datasetManager;
 
     @Value("${ontoformgenerator.validator.mode}")
     private ValidatorMode mode;
 
-    public OntologyValidationService(PropertyService propertyService, GeneralTDBService generalTDBService) {
-        this.propertyService = propertyService;
-        this.restTemplate = new RestTemplate();
+    @Value("${ontoformgenerator.validator.module.fullCheckInterval:10}")
+    private int moduleFullCheckInterval;
+
+    @Value("${ontoformgenerator.validator.explanation.timeoutMillis:10000}")
+    private long explanationTimeoutMillis;
+
+    @Value("${ontoformgenerator.validator.explanation.maxReasonerCalls:500}")
+    private int explanationMaxReasonerCalls;
+
+    private final ReasonerPool reasonerPool;
+
+    private final OntologyStatistics ontologyStatistics;
+
+    private final RaceStatistics raceStatistics = new RaceStatistics();
+
+    public OntologyValidationService(PropertySearchIndex propertySearchIndex, GeneralTDBService generalTDBService, TDBDatasetManager datasetManager, ReasonerPool reasonerPool, SynonymIndex synonymIndex, OntologyStatistics ontologyStatistics) {
+        this.datasetManager = datasetManager;
+        this.ontologyStatistics = ontologyStatistics;
+        this.reasonerPool = reasonerPool;
+        this.propertySearchIndex = propertySearchIndex;
+        this.synonymIndex = synonymIndex;
         this.generalTDBService = generalTDBService;
     }
 
@@ -92,7 +114,7 @@ public class OntologyValidationService {
      * @return True if the URI is already used, false otherwise.
      */
     public boolean checkIfURIisUsed(String ontologyName, String URI) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             return checkIfURIisUsed(connection.getDataset(), ontologyName, URI);
         }
     }
@@ -106,8 +128,8 @@ public class OntologyValidationService {
      */
     public NamingSchemaValidationResult checkNamingSchema(Dataset dataset, String ontologyName,
                              String newPropertyName) {
-        var ontologySchema = getOntologyNamingSchema(dataset, ontologyName);
-        var newPropertySchema = getNamingSchema(newPropertyName);
+        var ontologySchema = ontologyStatistics.getMostCommonNamingSchema(dataset, ontologyName);
+        var newPropertySchema = NamingSchema.of(newPropertyName);
         var result = new NamingSchemaValidationResult();
         result.setNewPropertyName(newPropertyName);
         result.setNewPropertyNamingSchema(newPropertySchema);
@@ -123,43 +145,14 @@ public class OntologyValidationService {
      * @return A result object containing the result of the validation - including the naming schemata and whether they match.
      */
     public NamingSchemaValidationResult checkNamingSchema(String ontologyName, String newPropertyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             return checkNamingSchema(connection.getDataset(), ontologyName, newPropertyName);
         }
     }
 
-    private NamingSchema getNamingSchema(String name) {
-        if (name.matches("^[A-Z]+$")) {
-            return NamingSchema.ALL_CAPS;
-        } else if (name.matches("^[a-z]+$")) {
-            return NamingSchema.ALL_LOWER;
-        } else if (name.matches("^([a-z]+[A-Z][a-z])+$")) {
-            return NamingSchema.CAMEL_CASE;
-        } else if (name.matches("^([a-z]+_[a-z])+$")) {
-            return NamingSchema.SNAKE_CASE;
-        } else {
-            return NamingSchema.CAMEL_CASE;
-        }
-    }
-
-    private NamingSchema getOntologyNamingSchema(Dataset dataset, String ontologyName) {
-        OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
-                dataset.getNamedModel(ontologyName));
-        Map<NamingSchema, Integer> counter = new HashMap<>();
-        ontModel.listAllOntProperties().forEachRemaining(property -> {
-            var propNamingSchema = getNamingSchema(property.getLocalName());
-            counter.put(propNamingSchema, counter.getOrDefault(propNamingSchema, 0) + 1);
-        });
-        var maxValue = counter.entrySet().stream().max(Map.Entry.comparingByValue());
-        if (maxValue.isPresent()) {
-            return maxValue.get().getKey();
-        } else {
-            return NamingSchema.CAMEL_CASE;
-        }
-    }
-
     /**
      * Find potential similar properties to a new property in an ontology - then it should not be added, probably.
+     * Properties are similar, if they contain one of the related terms of the words of the new property name.
      * @param dataset The dataset to use.
      * @param ontologyName The name of the ontology.
      * @param domainUri The URI of the domain class.
@@ -170,32 +163,24 @@ public class OntologyValidationService {
                                                                  String ontologyName,
                                                                  String domainUri,
                                                                  String newPropertyName) {
-        List<OntologyProperty> resultList = new ArrayList<>();
-        String url = "https://api.datamuse.com/words?rel_trg=" + newPropertyName;
-        var response = restTemplate.getForObject(url, List.class);
-        var synonyms = (List<Map<String, Object>>) response;
-        assert synonyms != null;
-        for (var synonym : synonyms) {
-            var props = propertyService.searchProperties(dataset, ontologyName, domainUri, synonym.get("word").toString());
-            for (var property : props) {
-                var ontologyProperty = new OntologyProperty();
-                ontologyProperty.setName(property.getLocalName());
-                if (property.getDomain() != null) {
-                    ontologyProperty.setDomain(new OntologyClass(property.getDomain().getLocalName(), property.getDomain().getURI()));
-                }
-                ontologyProperty.setObjectProperty(property.isObjectProperty());
-                if (property.isObjectProperty()) {
-                    if (property.getRange() != null)
-                        ontologyProperty.setObjectRange(new OntologyClass(property.getRange().getLocalName(), property.getRange().getURI()));
-                } else {
-                    ontologyProperty.setDatatypeRange(property.getRange().getLocalName());
-                }
-                ontologyProperty.setRdfsLabel(property.getLabel(null));
-                ontologyProperty.setRdfsComment(property.getComment(null));
-                resultList.add(ontologyProperty);
-            }
+        var relatedTerms = synonymIndex.getRelatedTerms(newPropertyName);
+        if (relatedTerms.isEmpty()) return List.of();
+        return propertySearchIndex.searchAny(dataset, ontologyName, domainUri, relatedTerms);
+    }
+
+    /**
+     * Find potential similar properties to a new property in an ontology - then it should not be added, probably.
+     * @param ontologyName The name of the ontology.
+     * @param domainUri The URI of the domain class.
+     * @param newPropertyName The name of the new property.
+     * @return A list of potential similar properties - or an empty list if none were found.
+     */
+    public List<OntologyProperty> findPotentialSimilarProperties(String ontologyName,
+                                                                 String domainUri,
+                                                                 String newPropertyName) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            return findPotentialSimilarProperties(connection.getDataset(), ontologyName, domainUri, newPropertyName);
         }
-        return resultList;
     }
 
     /**
@@ -204,7 +189,7 @@ public class OntologyValidationService {
      * @return The result of the validation.
      */
     public ValidationResult validateOntologyWithReasoner(String ontologyName) {
-        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, ontologyDirectory, ontologyName)) {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
             return validateOntologyWithReasoner(connection.getDataset(), ontologyName);
         } catch (OWLOntologyCreationException e) {
             throw new RuntimeException(e);
@@ -213,6 +198,9 @@ public class OntologyValidationService {
 
     /**
      * Start a reasoner validation for an ontology.
+     * The validation runs incrementally on a warm reasoner of the ontology from the reasoner pool, which only
+     * receives the changes since its last validation. In a write transaction, the changes of the transaction are not
+     * known, so the reasoner loads the whole ontology again.
      * @param dataset The dataset to use.
      * @param ontologyName The name of the ontology.
      * @return The result of the validation.
@@ -221,13 +209,111 @@ public class OntologyValidationService {
     public ValidationResult validateOntologyWithReasoner(Dataset dataset, String ontologyName)
             throws OWLOntologyCreationException {
         var tdbModel = dataset.getNamedModel(ontologyName);
+        var contextModel = generalTDBService.getOntModel(tdbModel);
+        var changes = dataset.transactionMode() == ReadWrite.WRITE ? null : GraphChanges.none();
+        return validate(ontologyName, tdbModel, contextModel, changes);
+    }
+
+    /**
+     * Start a reasoner validation for an ontology with the changes the current write transaction made to it.
+     * Only these changes are applied to the warm reasoner. They are recorded for the other reasoners of the
+     * ontology, if the transaction is committed.
+     * @param dataset The dataset to use.
+     * @param ontologyName The name of the ontology.
+     * @param changes All changes of the ontology in the current transaction.
+     * @return The result of the validation.
+     */
+    public ValidationResult validateOntologyWithReasoner(Dataset dataset, String ontologyName, GraphChanges changes) {
+        var tdbModel = dataset.getNamedModel(ontologyName);
+        var contextModel = generalTDBService.getOntModel(tdbModel);
+        if (dataset.transactionMode() == ReadWrite.WRITE) {
+            reasonerPool.recordChanges(ontologyName, changes);
+        }
+        return validate(ontologyName, tdbModel, contextModel, changes);
+    }
+
+    /**
+     * Start a reasoner validation for an ontology together with a delta of statements, which are not
+     * part of the ontology yet (e.g. a staged individual).
+     * Only the delta is applied to the warm reasoner.
+     * @param ontologyName The name of the ontology.
+     * @param delta The statements to validate as a union with the ontology.
+     * @return The result of the validation.
+     */
+    public ValidationResult validateWithDelta(String ontologyName, Model delta) {
+        return validateWithDelta(ontologyName, delta, new Cancellation());
+    }
+
+    /**
+     * Start a reasoner validation for an ontology together with a delta of statements, which can be cancelled.
+     * The validating thread is not interrupted, the validation stops between its stages or by interrupting the
+     * reasoner.
+     * @param ontologyName The name of the ontology.
+     * @param delta The statements to validate as a union with the ontology.
+     * @param cancellation The cancellation of the validation.
+     * @return The result of the validation.
+     * @throws org.semanticweb.owlapi.reasoner.ReasonerInterruptedException If the validation was cancelled.
+     */
+    public ValidationResult validateWithDelta(String ontologyName, Model delta, Cancellation cancellation) {
+        cancellation.check();
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+            var tdbModel = connection.getDataset().getNamedModel(ontologyName);
+            var stagedModel = ModelFactory.createUnion(delta, tdbModel);
+            var contextModel = generalTDBService.getOntModel(stagedModel);
+            return validate(ontologyName, stagedModel, contextModel, GraphChanges.added(delta, tdbModel.getGraph()),
+                    cancellation);
+        }
+    }
+
+    private ValidationResult validate(String ontologyName, Model model, Model contextModel, GraphChanges changes) {
+        return validate(ontologyName, model, contextModel, changes, new Cancellation());
+    }
+
+    private ValidationResult validate(String ontologyName, Model model, Model contextModel, GraphChanges changes,
+                                      Cancellation cancellation) {
+        // The version of the committed graph the transaction sees, unknown if it was changed since it started
+        var version = datasetManager.isUpToDate(ontologyName) ? datasetManager.getGraphVersion(ontologyName) : -1;
+        try (var lease = reasonerPool.acquire(ontologyName, mode,
+                () -> createIncrementalValidator(ontologyName), () -> validateOntologyWithReasoner(ontologyName))) {
+            try {
+                var validator = lease.getValidator();
+                var committed = reasonerPool.getCommittedChanges(ontologyName, validator.getVersion(), version);
+                return validator.validate(model, contextModel, version, committed, changes, cancellation);
+            } catch (RuntimeException e) {
+                lease.discard();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Get the win statistics of the reasoners in race mode.
+     * @return The statistics by ontology name.
+     */
+    public Map<String, RaceStatistics.OntologyStatistics> getRaceStatistics() {
+        return raceStatistics.getStatistics();
+    }
+
+    private IncrementalValidator createIncrementalValidator(String ontologyName) {
+        if (mode == ValidatorMode.HERMIT_MODULE) {
+            return new IncrementalValidator(createValidator(ontologyName), moduleFullCheckInterval);
+        }
+        return new IncrementalValidator(createValidator(ontologyName));
+    }
+
+    private Validator createValidator(String ontologyName) {
         Validator validator = null;
-        if (mode == ValidatorMode.HERMIT) {
+        if (mode == ValidatorMode.HERMIT || mode == ValidatorMode.HERMIT_MODULE) {
             validator = new HermitValidator();
         } else if (mode == ValidatorMode.JFACT) {
             validator = new FactValidator();
+        } else if (mode == ValidatorMode.RACE) {
+            validator = new RaceValidator(ontologyName, raceStatistics);
+        }
+        if (validator != null) {
+            validator.setExplanationBudget(explanationTimeoutMillis, explanationMaxReasonerCalls);
         }
-        return validator.validate(tdbModel);
+        return validator;
     }
 
     @Getter
@@ -251,7 +337,33 @@ public class OntologyValidationService {
         ALL_CAPS,
         ALL_LOWER,
         CAMEL_CASE,
-        SNAKE_CASE
+        SNAKE_CASE;
+
+        private static final Pattern ALL_CAPS_PATTERN = Pattern.compile("^[A-Z]+$");
+        private static final Pattern ALL_LOWER_PATTERN = Pattern.compile("^[a-z]+$");
+        private static final Pattern CAMEL_CASE_PATTERN = Pattern.compile("^([a-z]+[A-Z][a-z])+$");
+        private static final Pattern SNAKE_CASE_PATTERN = Pattern.compile("^([a-z]+_[a-z])+$");
+
+        /**
+         * Get the naming schema of a name - names matching no schema count as camel case.
+         * @param name The name, e.g. the local name of a property.
+         * @return The naming schema of the name.
+         */
+        public static NamingSchema of(String name) {
+            if (name == null) {
+                return CAMEL_CASE;
+            } else if (ALL_CAPS_PATTERN.matcher(name).matches()) {
+                return ALL_CAPS;
+            } else if (ALL_LOWER_PATTERN.matcher(name).matches()) {
+                return ALL_LOWER;
+            } else if (CAMEL_CASE_PATTERN.matcher(name).matches()) {
+                return CAMEL_CASE;
+            } else if (SNAKE_CASE_PATTERN.matcher(name).matches()) {
+                return SNAKE_CASE;
+            } else {
+                return CAMEL_CASE;
+            }
+        }
     }
 }
 
@@ -0,0 +1,168 @@
+package fau.fdm.OntoFormGenerator.service;
+
+import fau.fdm.OntoFormGenerator.data.ValidationJob;
+import fau.fdm.OntoFormGenerator.data.ValidationResult;
+import fau.fdm.OntoFormGenerator.validation.Cancellation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Service for running reasoner validations of filled forms asynchronously.
+ * The individual of a filled form is staged as an in-memory delta first and a validation job is queued on a bounded
+ * executor - the request returns the id of the job, which can be polled for its status and result.
+ * The delta is validated as a union with the ontology, and only written to the ontology in one write transaction if
+ * it is consistent - other readers never see an invalid individual, and a failed validation needs no write at all.
+ * Jobs exceeding the timeout are marked as timed out and their delta is not written anymore - the promotion of a
+ * delta only starts from a running job. The validation of a timed out job is cancelled cooperatively: it stops
+ * between its stages and its reasoner is interrupted, the worker thread itself is never interrupted, as it may be
+ * reading the shared TDB dataset.
+ */
+@Service
+public class ValidationJobService {
+
+    private final Logger logger;
+
+    private final FormFillService formFillService;
+
+    private final OntologyValidationService ontologyValidationService;
+
+    private final DraftAutosaveService draftAutosaveService;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, ValidationJob> jobs = new ConcurrentHashMap<>();
+
+    private final long timeoutSeconds;
+
+    private final Duration retention;
+
+    public ValidationJobService(FormFillService formFillService,
+                                OntologyValidationService ontologyValidationService,
+                                DraftAutosaveService draftAutosaveService,
+                                @Value("${ontoformgenerator.validation.jobs.threads:2}") int threads,
+                                @Value("${ontoformgenerator.validation.jobs.queueCapacity:20}") int queueCapacity,
+                                @Value("${ontoformgenerator.validation.jobs.timeoutSeconds:120}") long timeoutSeconds,
+                                @Value("${ontoformgenerator.validation.jobs.retentionMinutes:30}") long retentionMinutes) {
+        this.formFillService = formFillService;
+        this.ontologyValidationService = ontologyValidationService;
+        this.draftAutosaveService = draftAutosaveService;
+        this.timeoutSeconds = timeoutSeconds;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.logger = LoggerFactory.getLogger(ValidationJobService.class);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("validation-job"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("validation-job-timeout"));
+        this.scheduler.scheduleWithFixedDelay(this::removeExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stage the individual of a filled form and queue its validation.
+     * @param formName The name of the form.
+     * @param ontologyName The name of the ontology the form is in.
+     * @param targetField The target class of the individual.
+     * @param instanceName The name of the individual.
+     * @param draftName The original/first name of the corresponding draft if it exists. Else, null.
+     * @param formValues The values of the form fields.
+     * @return The queued validation job.
+     * @throws RejectedExecutionException If the queue of validation jobs is full.
+     */
+    public ValidationJob submitFormFill(String formName,
+                                        String ontologyName,
+                                        String targetField,
+                                        String instanceName,
+                                        String draftName,
+                                        Map<String, String[]> formValues) {
+        var jobId = UUID.randomUUID().toString();
+        var stagedIndividual = formFillService.stageIndividualFromFilledForm(formName, ontologyName,
+                targetField, instanceName, formValues);
+        var job = new ValidationJob(jobId, formName, ontologyName, stagedIndividual.getUri());
+        jobs.put(jobId, job);
+        var cancellation = new Cancellation();
+        try {
+            executor.execute(() -> run(job, stagedIndividual, draftName, cancellation));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            throw e;
+        }
+        scheduler.schedule(() -> timeOut(job, cancellation), timeoutSeconds, TimeUnit.SECONDS);
+        logger.info("Queued validation job {} for individual {}", jobId, stagedIndividual.getUri());
+        return job;
+    }
+
+    /**
+     * Get a validation job by its id.
+     * @param jobId The id of the job.
+     * @return The job, or null if it does not exist (anymore).
+     */
+    public ValidationJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(ValidationJob job, FormFillService.StagedIndividual stagedIndividual, String draftName,
+                     Cancellation cancellation) {
+        if (!job.transition(ValidationJob.Status.QUEUED, ValidationJob.Status.RUNNING)) return;
+        try {
+            var result = ontologyValidationService.validateWithDelta(job.getOntologyName(),
+                    stagedIndividual.getDelta(), cancellation);
+            if (!result.isConsistent()) {
+                job.transition(ValidationJob.Status.RUNNING, ValidationJob.Status.FAILED, result);
+            } else if (job.transition(ValidationJob.Status.RUNNING, ValidationJob.Status.PROMOTING, result)) {
+                formFillService.promoteStagedIndividual(stagedIndividual, job.getFormName(), job.getOntologyName(),
+                        draftName);
+                if (draftName != null) {
+                    // The draft was deleted with the promotion, a later autosave must not be written anymore
+                    draftAutosaveService.discard(draftName);
+                }
+                job.transition(ValidationJob.Status.PROMOTING, ValidationJob.Status.SUCCEEDED);
+            }
+        } catch (RuntimeException e) {
+            if (job.getStatus() == ValidationJob.Status.TIMED_OUT) return;
+            logger.error("Validation job {} failed", job.getId(), e);
+            var result = new ValidationResult(false, "An error occurred while validating the ontology.");
+            if (!job.transition(ValidationJob.Status.RUNNING, ValidationJob.Status.ERROR, result)) {
+                job.transition(ValidationJob.Status.PROMOTING, ValidationJob.Status.ERROR, result);
+            }
+        }
+    }
+
+    private void timeOut(ValidationJob job, Cancellation cancellation) {
+        var result = new ValidationResult(false, "The validation did not finish in time.");
+        if (job.transition(ValidationJob.Status.QUEUED, ValidationJob.Status.TIMED_OUT, result)
+                || job.transition(ValidationJob.Status.RUNNING, ValidationJob.Status.TIMED_OUT, result)) {
+            // A running validation does not promote the staged individual anymore
+            logger.warn("Validation job {} timed out after {} s", job.getId(), timeoutSeconds);
+            cancellation.cancel();
+        }
+    }
+
+    private void removeExpiredJobs() {
+        var expiry = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiry));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // Running jobs are inside TDB transactions and must not be interrupted
+        executor.shutdown();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
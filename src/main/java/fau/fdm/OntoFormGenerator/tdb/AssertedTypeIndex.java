@@ -0,0 +1,119 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.vocabulary.RDF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of the subjects with an asserted rdf:type in the named graph of each ontology.
+ * Only resources created in OntoFormGenerator (or contained in the uploaded ontology file) have their type
+ * asserted in the named graph - everything else comes from an imported ontology.
+ * The set of a graph is built on first use with one pass over the rdf:type statements and is afterwards kept up to
+ * date by the write paths, which register new and deleted individuals with {@link #add} and {@link #remove}.
+ */
+@Service
+public class AssertedTypeIndex {
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final Map<String, Set<String>> assertedSubjects = new ConcurrentHashMap<>();
+
+    public AssertedTypeIndex(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(AssertedTypeIndex.class);
+    }
+
+    /**
+     * Get the subjects with an asserted rdf:type in the named graph of an ontology.
+     * @param dataset The dataset to use - only needed, if the set of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @return The URIs of the asserted subjects - must not be modified by the caller.
+     */
+    public Set<String> getAssertedSubjects(Dataset dataset, String ontologyName) {
+        var subjects = assertedSubjects.get(ontologyName);
+        if (subjects != null) return subjects;
+        var newSubjects = build(dataset, ontologyName);
+        if (dataset.transactionMode() == ReadWrite.WRITE) {
+            // Only cache the set if the changes it was built from are committed
+            datasetManager.afterCommit(() -> publish(ontologyName, newSubjects));
+            return newSubjects;
+        }
+        return publish(ontologyName, newSubjects);
+    }
+
+    /**
+     * Check if a subject has an asserted rdf:type in the named graph of an ontology.
+     * @param dataset The dataset to use - only needed, if the set of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @param uri The URI of the subject.
+     * @return True if the type of the subject is asserted in the named graph, false otherwise.
+     */
+    public boolean isAsserted(Dataset dataset, String ontologyName, String uri) {
+        return getAssertedSubjects(dataset, ontologyName).contains(uri);
+    }
+
+    /**
+     * Add a subject to the set of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param uri The URI of the subject.
+     */
+    public void add(String ontologyName, String uri) {
+        if (uri == null) return;
+        change(ontologyName, subjects -> subjects.add(uri));
+    }
+
+    /**
+     * Remove a subject from the set of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param uri The URI of the subject.
+     */
+    public void remove(String ontologyName, String uri) {
+        if (uri == null) return;
+        change(ontologyName, subjects -> subjects.remove(uri));
+    }
+
+    /**
+     * Drop the set of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        change(ontologyName, subjects -> assertedSubjects.remove(ontologyName));
+    }
+
+    private void change(String ontologyName, java.util.function.Consumer<Set<String>> change) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                var subjects = assertedSubjects.get(ontologyName);
+                if (subjects != null) change.accept(subjects);
+            }
+        });
+    }
+
+    private synchronized Set<String> publish(String ontologyName, Set<String> subjects) {
+        // A change committed during the build is not contained in the set, so it must not be cached
+        if (!datasetManager.isUpToDate(ontologyName)) return subjects;
+        var existing = assertedSubjects.putIfAbsent(ontologyName, subjects);
+        return existing != null ? existing : subjects;
+    }
+
+    private Set<String> build(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        Set<String> subjects = ConcurrentHashMap.newKeySet();
+        dataset.getNamedModel(ontologyName).listSubjectsWithProperty(RDF.type).forEachRemaining(subject -> {
+            if (subject.isURIResource()) subjects.add(subject.getURI());
+        });
+        logger.info("Built asserted type index of ontology {} with {} subjects in {} ms", ontologyName,
+                subjects.size(), System.currentTimeMillis() - start);
+        return subjects;
+    }
+}
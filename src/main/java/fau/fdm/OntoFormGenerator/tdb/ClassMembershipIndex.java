@@ -0,0 +1,371 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Materialized rdf:type closure of the individuals of each ontology.
+ * The closure of an ontology is computed once from the OWL Micro inference model of the {@link InferenceCache}
+ * and holds all direct and inferred class memberships as well as the super classes of every class. While the
+ * inference model is outdated and rebuilt in the background, reads are answered from it without caching the closure.
+ * Afterwards it is updated incrementally when individuals, classes or property values are added or removed. New
+ * property values add the domains and ranges of their property as types - only values of properties with further
+ * consequences (restrictions, inverse, symmetric, transitive or functional properties) and removed values of
+ * properties with a domain or range, including those of deleted individuals, drop the closure. Other changes of the
+ * inferred types (new properties, imports) drop the closure with {@link #invalidate} as well, so that it is computed
+ * again on the next read.
+ */
+@Service
+public class ClassMembershipIndex {
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final InferenceCache inferenceCache;
+
+    private final Map<String, Closure> closures = new ConcurrentHashMap<>();
+
+    public ClassMembershipIndex(TDBDatasetManager datasetManager, InferenceCache inferenceCache) {
+        this.datasetManager = datasetManager;
+        this.inferenceCache = inferenceCache;
+        this.logger = LoggerFactory.getLogger(ClassMembershipIndex.class);
+    }
+
+    /**
+     * Get all direct and indirect members of a class in an ontology.
+     * @param dataset The dataset to use - only needed, if the closure of the ontology has to be computed first.
+     * @param ontologyName The name of the ontology.
+     * @param classUri The URI of the class.
+     * @return The URIs of all individuals of the class - must not be modified by the caller.
+     */
+    public Set<String> getIndividualsOfClass(Dataset dataset, String ontologyName, String classUri) {
+        return getClosure(dataset, ontologyName).membersOf(classUri);
+    }
+
+    /**
+     * Add a new individual to the closure of an ontology, after the current write transaction was committed.
+     * The individual becomes a member of its class and all super classes of it.
+     * @param ontologyName The name of the ontology.
+     * @param individualUri The URI of the individual.
+     * @param classUri The URI of the class of the individual.
+     */
+    public void addIndividual(String ontologyName, String individualUri, String classUri) {
+        if (individualUri == null || classUri == null) return;
+        change(ontologyName, closure -> closure.addType(individualUri, classUri));
+    }
+
+    /**
+     * Add a new individual with its asserted types and property values to the closure of an ontology, after the
+     * current write transaction was committed. The statements of the individual are read immediately.
+     * @param ontologyName The name of the ontology.
+     * @param individual The new individual, in a model of the current transaction.
+     */
+    public void addIndividual(String ontologyName, Resource individual) {
+        if (!individual.isURIResource()) return;
+        var individualUri = individual.getURI();
+        List<String> types = new ArrayList<>();
+        // Property URI and object URI (null for literals) of every value
+        List<String[]> propertyValues = new ArrayList<>();
+        individual.listProperties().forEachRemaining(stmt -> {
+            if (stmt.getPredicate().equals(RDF.type)) {
+                if (stmt.getObject().isURIResource() && !stmt.getObject().equals(OWL2.NamedIndividual)) {
+                    types.add(stmt.getObject().asResource().getURI());
+                }
+            } else if (!stmt.getPredicate().equals(RDFS.label)) {
+                propertyValues.add(new String[]{stmt.getPredicate().getURI(),
+                        stmt.getObject().isURIResource() ? stmt.getObject().asResource().getURI() : null});
+            }
+        });
+        change(ontologyName, closure -> {
+            for (var type : types) {
+                if (!closure.addType(individualUri, type)) return false;
+            }
+            for (var value : propertyValues) {
+                if (!closure.addPropertyValue(individualUri, value[0], value[1])) return false;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Add a new property value of an individual to the closure of an ontology, after the current write transaction
+     * was committed. The individual becomes a member of the domains of the property, an object value of its ranges.
+     * @param ontologyName The name of the ontology.
+     * @param individualUri The URI of the individual.
+     * @param propertyUri The URI of the property.
+     * @param objectUri The URI of the object individual, or null for a literal value.
+     */
+    public void addPropertyValue(String ontologyName, String individualUri, String propertyUri, String objectUri) {
+        if (individualUri == null || propertyUri == null) return;
+        change(ontologyName, closure -> closure.addPropertyValue(individualUri, propertyUri, objectUri));
+    }
+
+    /**
+     * Register a removed property value of an individual, after the current write transaction was committed.
+     * Types inferred from a domain or range may have other reasons as well, so the closure is dropped if the
+     * property has any - values of other properties do not change the inferred types.
+     * @param ontologyName The name of the ontology.
+     * @param propertyUri The URI of the property.
+     */
+    public void removePropertyValue(String ontologyName, String propertyUri) {
+        if (propertyUri == null) return;
+        change(ontologyName, closure -> closure.keepsTypesWithout(propertyUri));
+    }
+
+    /**
+     * Remove an individual from the closure of an ontology, after the current write transaction was committed.
+     * The statements of the individual are read immediately, so it has to be called before they are removed. Like
+     * for {@link #removePropertyValue}, the closure is dropped if the individual is the subject or object of a value
+     * of a property with a domain or range - the other individual of the value may have lost an inferred type.
+     * @param ontologyName The name of the ontology.
+     * @param individual The individual, in a model of the current transaction.
+     */
+    public void removeIndividual(String ontologyName, Resource individual) {
+        if (!individual.isURIResource()) return;
+        var individualUri = individual.getURI();
+        Set<String> properties = new HashSet<>();
+        individual.listProperties().forEachRemaining(stmt -> properties.add(stmt.getPredicate().getURI()));
+        individual.getModel().listStatements(null, null, individual)
+                .forEachRemaining(stmt -> properties.add(stmt.getPredicate().getURI()));
+        properties.remove(RDF.type.getURI());
+        properties.remove(RDFS.label.getURI());
+        change(ontologyName, closure -> {
+            for (var property : properties) {
+                if (!closure.keepsTypesWithout(property)) return false;
+            }
+            closure.members.values().forEach(members -> members.remove(individualUri));
+            return true;
+        });
+    }
+
+    /**
+     * Add a new class with its super class to the closure of an ontology,
+     * after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param classUri The URI of the new class.
+     * @param superClassUri The URI of the direct super class of the new class.
+     */
+    public void addClass(String ontologyName, String classUri, String superClassUri) {
+        if (classUri == null || superClassUri == null) return;
+        change(ontologyName, closure -> {
+            var superClasses = closure.superClasses.get(superClassUri);
+            if (superClasses == null) return false;
+            Set<String> newSuperClasses = ConcurrentHashMap.newKeySet();
+            newSuperClasses.add(superClassUri);
+            newSuperClasses.addAll(superClasses);
+            closure.superClasses.put(classUri, newSuperClasses);
+            return true;
+        });
+    }
+
+    /**
+     * Drop the closure of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        change(ontologyName, closure -> false);
+    }
+
+    /**
+     * Apply a change to the closure of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param change The change, returning false if the closure cannot be updated and has to be dropped.
+     */
+    private void change(String ontologyName, Predicate<Closure> change) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                var closure = closures.get(ontologyName);
+                if (closure != null && !change.test(closure)) {
+                    closures.remove(ontologyName);
+                }
+            }
+        });
+    }
+
+    private synchronized Closure publish(String ontologyName, Closure closure) {
+        // A closure computed from an outdated inference model (which is rebuilt in the background) or missing a change
+        // committed during the computation must not be cached - it is computed again by the next read
+        if (closure.version < datasetManager.getGraphVersion(ontologyName)) return closure;
+        var existing = closures.putIfAbsent(ontologyName, closure);
+        return existing != null ? existing : closure;
+    }
+
+    private Closure getClosure(Dataset dataset, String ontologyName) {
+        var closure = closures.get(ontologyName);
+        if (closure != null) return closure;
+        var newClosure = build(dataset, ontologyName);
+        if (dataset.transactionMode() == ReadWrite.WRITE) {
+            // Only cache the closure if the changes it was computed from are committed
+            datasetManager.afterCommit(() -> publish(ontologyName, newClosure));
+            return newClosure;
+        }
+        return publish(ontologyName, newClosure);
+    }
+
+    private Closure build(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        var versionedModel = inferenceCache.getVersionedModel(dataset, ontologyName);
+        var infModel = versionedModel.getModel();
+        var closure = new Closure(versionedModel.getVersion());
+        infModel.listStatements(null, RDF.type, (RDFNode) null).forEachRemaining(stmt -> {
+            if (stmt.getSubject().isURIResource() && stmt.getObject().isURIResource()) {
+                closure.addMember(stmt.getObject().asResource().getURI(), stmt.getSubject().getURI());
+            }
+        });
+        infModel.listStatements(null, RDFS.subClassOf, (RDFNode) null).forEachRemaining(stmt -> {
+            if (stmt.getSubject().isURIResource() && stmt.getObject().isURIResource()) {
+                closure.superClasses.computeIfAbsent(stmt.getSubject().getURI(), c -> ConcurrentHashMap.newKeySet())
+                        .add(stmt.getObject().asResource().getURI());
+            }
+        });
+        Map<String, Set<String>> directDomains = new HashMap<>();
+        Map<String, Set<String>> directRanges = new HashMap<>();
+        collectObjects(infModel, RDFS.domain, directDomains);
+        collectObjects(infModel, RDFS.range, directRanges);
+        Map<String, Set<String>> superProperties = new HashMap<>();
+        collectObjects(infModel, RDFS.subPropertyOf, superProperties);
+        Set<String> complexProperties = new HashSet<>();
+        infModel.listObjectsOfProperty(OWL.onProperty).forEachRemaining(property -> {
+            if (property.isURIResource()) complexProperties.add(property.asResource().getURI());
+        });
+        infModel.listStatements(null, OWL.inverseOf, (RDFNode) null).forEachRemaining(stmt -> {
+            if (stmt.getSubject().isURIResource()) complexProperties.add(stmt.getSubject().getURI());
+            if (stmt.getObject().isURIResource()) complexProperties.add(stmt.getObject().asResource().getURI());
+        });
+        for (var type : List.of(OWL.SymmetricProperty, OWL.TransitiveProperty, OWL.FunctionalProperty,
+                OWL.InverseFunctionalProperty)) {
+            infModel.listSubjectsWithProperty(RDF.type, type).forEachRemaining(property -> {
+                if (property.isURIResource()) complexProperties.add(property.getURI());
+            });
+        }
+        for (var type : List.of(RDF.Property, OWL.ObjectProperty, OWL.DatatypeProperty)) {
+            infModel.listSubjectsWithProperty(RDF.type, type).forEachRemaining(property -> {
+                if (property.isURIResource()) closure.knownProperties.add(property.getURI());
+            });
+        }
+        // Values of a property are values of its super properties as well
+        for (var property : closure.knownProperties) {
+            Set<String> properties = new HashSet<>(superProperties.getOrDefault(property, Set.of()));
+            properties.add(property);
+            Set<String> domains = new HashSet<>();
+            Set<String> ranges = new HashSet<>();
+            for (var superProperty : properties) {
+                domains.addAll(directDomains.getOrDefault(superProperty, Set.of()));
+                ranges.addAll(directRanges.getOrDefault(superProperty, Set.of()));
+                if (complexProperties.contains(superProperty)) closure.complexProperties.add(property);
+            }
+            if (!domains.isEmpty()) closure.domains.put(property, domains);
+            if (!ranges.isEmpty()) closure.ranges.put(property, ranges);
+        }
+        logger.info("Computed class membership closure of ontology {} in {} ms", ontologyName,
+                System.currentTimeMillis() - start);
+        return closure;
+    }
+
+    private static void collectObjects(Model model, Property predicate, Map<String, Set<String>> objects) {
+        model.listStatements(null, predicate, (RDFNode) null).forEachRemaining(stmt -> {
+            if (stmt.getSubject().isURIResource() && stmt.getObject().isURIResource()) {
+                objects.computeIfAbsent(stmt.getSubject().getURI(), s -> new HashSet<>())
+                        .add(stmt.getObject().asResource().getURI());
+            }
+        });
+    }
+
+    private static class Closure {
+        private final Map<String, Set<String>> members = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> superClasses = new ConcurrentHashMap<>();
+        // Properties known when the closure was computed, with the domains and ranges including those of their
+        // super properties - only changed with the closure, so they are not concurrent
+        private final Set<String> knownProperties = new HashSet<>();
+        private final Map<String, Set<String>> domains = new HashMap<>();
+        private final Map<String, Set<String>> ranges = new HashMap<>();
+        private final Set<String> complexProperties = new HashSet<>();
+        // Version of the dataset the inference model was computed from
+        private final long version;
+
+        Closure(long version) {
+            this.version = version;
+        }
+
+        boolean isKnownProperty(String propertyUri) {
+            return knownProperties.contains(propertyUri);
+        }
+
+        boolean isComplexProperty(String propertyUri) {
+            return complexProperties.contains(propertyUri);
+        }
+
+        Set<String> domainsOf(String propertyUri) {
+            return domains.getOrDefault(propertyUri, Set.of());
+        }
+
+        Set<String> rangesOf(String propertyUri) {
+            return ranges.getOrDefault(propertyUri, Set.of());
+        }
+
+        /**
+         * @return False if removed values of the property may change the inferred types.
+         */
+        boolean keepsTypesWithout(String propertyUri) {
+            return isKnownProperty(propertyUri) && !isComplexProperty(propertyUri)
+                    && domainsOf(propertyUri).isEmpty() && rangesOf(propertyUri).isEmpty();
+        }
+
+        /**
+         * @return False if the class is unknown, so that the inferred types cannot be derived.
+         */
+        boolean addType(String individualUri, String classUri) {
+            var classSuperClasses = superClasses.get(classUri);
+            if (classSuperClasses == null) return false;
+            addMember(classUri, individualUri);
+            classSuperClasses.forEach(superClass -> addMember(superClass, individualUri));
+            return true;
+        }
+
+        /**
+         * @return False if the consequences of the value cannot be derived from the domains and ranges.
+         */
+        boolean addPropertyValue(String individualUri, String propertyUri, String objectUri) {
+            if (!isKnownProperty(propertyUri) || isComplexProperty(propertyUri)) return false;
+            for (var domain : domainsOf(propertyUri)) {
+                if (!addType(individualUri, domain)) return false;
+            }
+            if (objectUri != null) {
+                for (var range : rangesOf(propertyUri)) {
+                    if (!addType(objectUri, range)) return false;
+                }
+            }
+            return true;
+        }
+
+        Set<String> membersOf(String classUri) {
+            return members.getOrDefault(classUri, Set.of());
+        }
+
+        void addMember(String classUri, String individualUri) {
+            members.computeIfAbsent(classUri, c -> ConcurrentHashMap.newKeySet()).add(individualUri);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import com.google.gson.Gson;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Low-level Service for the field values of drafts in the forms graph.
+ * Every field of a draft is a resource of its own, linked with hasDraftField and holding the field name, whether it
+ * is an additional field, its position and its values as RDF list:
+ * <pre>
+ * draft forms:hasDraftField field .
+ * field forms:hasFieldName "name" ; forms:isAdditionalField false ; forms:hasPositionInForm 0 ;
+ *       forms:hasDraftValues ("value 1" "value 2") .
+ * </pre>
+ * So a field can be read and written on its own, and saving a draft only writes the fields which changed.
+ * Drafts of older versions hold all fields as one JSON literal (hasDraft), they are read from it and converted on
+ * their next write.
+ * Like the other low-level services, it does not create TDB transactions itself.
+ */
+@Service
+public class DraftStore {
+
+    private final IndividualService individualService;
+
+    private final FormCatalog formCatalog;
+
+    @Value("${ontoformgenerator.ontologies.baseIRI}")
+    private String baseIRI;
+
+    public DraftStore(IndividualService individualService, FormCatalog formCatalog) {
+        this.individualService = individualService;
+        this.formCatalog = formCatalog;
+    }
+
+    /**
+     * Get all fields of a draft, ordered by the position they were added to the draft.
+     * @param dataset The dataset to use.
+     * @param draftIri The IRI of the draft.
+     * @return The fields of the draft.
+     */
+    public List<DraftField> getFields(Dataset dataset, String draftIri) {
+        var model = dataset.getNamedModel("forms");
+        var draft = model.createResource(draftIri);
+        if (!model.contains(draft, property("hasDraftField"))) {
+            var legacyDraft = model.getProperty(draft, property("hasDraft"));
+            if (legacyDraft != null) {
+                return parseLegacyDraft(legacyDraft.getString());
+            }
+        }
+        List<DraftField> fields = new ArrayList<>();
+        for (var field : getFieldResources(model, draft)) {
+            fields.add(readField(field));
+        }
+        return fields;
+    }
+
+    /**
+     * Write the fields of a draft. Only fields with changed values are written again, fields with no values are
+     * removed from the draft.
+     * @param dataset The dataset to use - has to be in a write transaction.
+     * @param draftIri The IRI of the draft.
+     * @param normalFields The values of the standard form fields.
+     * @param additionalFields The values of the additional fields.
+     * @return The number of added, changed and removed fields.
+     */
+    public int writeFields(Dataset dataset, String draftIri, Map<String, List<String>> normalFields,
+                           Map<String, List<String>> additionalFields) {
+        var model = dataset.getNamedModel("forms");
+        var draft = model.createResource(draftIri);
+        convertLegacyDraft(model, draft);
+        // An additional field replaces a standard field of the same name, like in the former JSON format
+        Map<String, DraftField> submitted = new LinkedHashMap<>();
+        normalFields.forEach((name, values) -> {
+            if (values != null && !values.isEmpty()) submitted.put(name, new DraftField(name, false, values));
+        });
+        additionalFields.forEach((name, values) -> {
+            if (values != null && !values.isEmpty()) submitted.put(name, new DraftField(name, true, values));
+        });
+
+        int changes = 0;
+        var fieldResources = getFieldResources(model, draft);
+        int nextPosition = fieldResources.size();
+        for (var fieldResource : fieldResources) {
+            var stored = readField(fieldResource);
+            var field = submitted.remove(stored.getName());
+            if (field == null) {
+                removeField(model, draft, fieldResource);
+                changes++;
+            } else if (field.isAdditional() != stored.isAdditional() || !field.getValues().equals(stored.getValues())) {
+                fieldResource.removeAll(property("isAdditionalField"));
+                fieldResource.addLiteral(property("isAdditionalField"), field.isAdditional());
+                setValues(model, fieldResource, field.getValues());
+                changes++;
+            }
+        }
+        for (var field : submitted.values()) {
+            addField(model, draft, field, nextPosition++);
+            changes++;
+        }
+        return changes;
+    }
+
+    /**
+     * Add an additional field without values to a draft, if the draft does not contain the field yet.
+     * @param dataset The dataset to use - has to be in a write transaction.
+     * @param draftIri The IRI of the draft.
+     * @param fieldName The name of the field.
+     */
+    public void addAdditionalField(Dataset dataset, String draftIri, String fieldName) {
+        var model = dataset.getNamedModel("forms");
+        var draft = model.createResource(draftIri);
+        convertLegacyDraft(model, draft);
+        var fieldResources = getFieldResources(model, draft);
+        for (var fieldResource : fieldResources) {
+            if (fieldName.equals(fieldResource.getProperty(property("hasFieldName")).getString())) return;
+        }
+        addField(model, draft, new DraftField(fieldName, true, List.of()), fieldResources.size());
+    }
+
+    /**
+     * Delete a draft including all of its fields.
+     * @param dataset The dataset to use - has to be in a write transaction.
+     * @param draftIri The IRI of the draft.
+     */
+    public void deleteDraft(Dataset dataset, String draftIri) {
+        var model = dataset.getNamedModel("forms");
+        var draft = model.createResource(draftIri);
+        for (var fieldResource : getFieldResources(model, draft)) {
+            removeField(model, draft, fieldResource);
+        }
+        individualService.deleteIndividualByIri(dataset, "forms", draftIri);
+        formCatalog.removeDraft(draftIri);
+    }
+
+    private List<Resource> getFieldResources(Model model, Resource draft) {
+        List<Resource> fields = new ArrayList<>();
+        model.listObjectsOfProperty(draft, property("hasDraftField")).forEachRemaining(field -> {
+            if (field.isResource()) fields.add(field.asResource());
+        });
+        fields.sort(Comparator.comparingInt(field -> {
+            var position = field.getProperty(property("hasPositionInForm"));
+            return position != null ? position.getInt() : Integer.MAX_VALUE;
+        }));
+        return fields;
+    }
+
+    private DraftField readField(Resource field) {
+        List<String> values = new ArrayList<>();
+        var list = field.getPropertyResourceValue(property("hasDraftValues"));
+        if (list != null) {
+            list.as(RDFList.class).iterator().forEachRemaining(value -> values.add(value.asLiteral().getLexicalForm()));
+        }
+        var additional = field.getProperty(property("isAdditionalField"));
+        return new DraftField(field.getProperty(property("hasFieldName")).getString(),
+                additional != null && additional.getBoolean(), values);
+    }
+
+    private void addField(Model model, Resource draft, DraftField field, int position) {
+        var fieldResource = model.createResource(draft.getURI() + "/" +
+                URLEncoder.encode(field.getName(), StandardCharsets.UTF_8));
+        fieldResource.addProperty(property("hasFieldName"), field.getName(), XSDDatatype.XSDstring);
+        fieldResource.addLiteral(property("isAdditionalField"), field.isAdditional());
+        fieldResource.addProperty(property("hasPositionInForm"), String.valueOf(position), XSDDatatype.XSDint);
+        setValues(model, fieldResource, field.getValues());
+        draft.addProperty(property("hasDraftField"), fieldResource);
+    }
+
+    private void setValues(Model model, Resource fieldResource, List<String> values) {
+        var oldList = fieldResource.getPropertyResourceValue(property("hasDraftValues"));
+        if (oldList != null) {
+            oldList.as(RDFList.class).removeList();
+            fieldResource.removeAll(property("hasDraftValues"));
+        }
+        List<RDFNode> nodes = new ArrayList<>();
+        values.forEach(value -> nodes.add(model.createTypedLiteral(value, XSDDatatype.XSDstring)));
+        fieldResource.addProperty(property("hasDraftValues"), model.createList(nodes.iterator()));
+    }
+
+    private void removeField(Model model, Resource draft, Resource fieldResource) {
+        var list = fieldResource.getPropertyResourceValue(property("hasDraftValues"));
+        if (list != null) {
+            list.as(RDFList.class).removeList();
+        }
+        fieldResource.removeProperties();
+        model.remove(draft, property("hasDraftField"), fieldResource);
+    }
+
+    /**
+     * Convert a draft in the former JSON format to the structured format.
+     */
+    private void convertLegacyDraft(Model model, Resource draft) {
+        var legacyDraft = model.getProperty(draft, property("hasDraft"));
+        if (legacyDraft == null) return;
+        if (!model.contains(draft, property("hasDraftField"))) {
+            int position = 0;
+            for (var field : parseLegacyDraft(legacyDraft.getString())) {
+                addField(model, draft, field, position++);
+            }
+        }
+        draft.removeAll(property("hasDraft"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DraftField> parseLegacyDraft(String json) {
+        var draftMap = new Gson().fromJson(json, Map.class);
+        Map<String, DraftField> fields = new LinkedHashMap<>();
+        var normalFields = (Map<String, List<String>>) draftMap.get("normalFields");
+        var additionalFields = (Map<String, List<String>>) draftMap.get("additionalFields");
+        normalFields.forEach((name, values) -> fields.put(name, new DraftField(name, false, values)));
+        additionalFields.forEach((name, values) -> fields.put(name, new DraftField(name, true, values)));
+        return new ArrayList<>(fields.values());
+    }
+
+    private Property property(String name) {
+        return ResourceFactory.createProperty(baseIRI + "/forms#" + name);
+    }
+
+    /**
+     * A field of a draft with its values.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class DraftField {
+        private final String name;
+        // Additional fields are added to the draft by the user, they are not part of the form
+        private final boolean additional;
+        private final List<String> values;
+    }
+}
@@ -0,0 +1,350 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import fau.fdm.OntoFormGenerator.data.Draft;
+import fau.fdm.OntoFormGenerator.data.Form;
+import fau.fdm.OntoFormGenerator.data.Ontology;
+import fau.fdm.OntoFormGenerator.data.OntologyClass;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory catalog of the forms graph: the imported ontologies, the forms with their target ontology, target class
+ * and number of form elements, and the drafts of each form. Forms are additionally indexed by ontology and by target
+ * class, so that the form lookups and the index page do not have to walk the forms graph.
+ * The catalog is built with one query over the forms graph on first use, and afterwards kept up to date by the
+ * write paths, which register their changes with the put and remove methods - the changes are only applied after
+ * the surrounding write transaction was committed.
+ * Forms and drafts are sorted by name and IRI, so they can be paged through without copying the whole catalog.
+ */
+@Service
+public class FormCatalog {
+
+    private static final String DASHBOARD_QUERY = """
+            PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>
+            PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>
+            PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>
+            PREFIX form: <http://www.semanticweb.org/fau/ontologies/2024/ontoformgenerator/forms#>
+
+            SELECT ?ontology ?form ?formOntology ?targetClass ?elementCount ?draft ?draftName ?draftLabel WHERE {
+                {
+                    ?ontology rdf:type form:Ontology .
+                } UNION {
+                    ?form rdf:type form:Form ;
+                          form:targetsOntology ?formOntology ;
+                          form:targetsClass ?targetClass .
+                } UNION {
+                    SELECT ?form (COUNT(?element) AS ?elementCount) WHERE {
+                        ?form rdf:type form:Form ;
+                              form:hasFormElement ?element .
+                    }
+                    GROUP BY ?form
+                } UNION {
+                    ?form rdf:type form:Form ;
+                          form:created ?draft .
+                    ?draft form:isDraft "true"^^xsd:boolean ;
+                           form:hasDraftName ?draftName .
+                    OPTIONAL { ?draft rdfs:label ?draftLabel }
+                }
+            }
+            """;
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private volatile State state;
+
+    // Incremented on every change, a catalog built across a change is not published
+    private final AtomicLong generation = new AtomicLong();
+
+    public FormCatalog(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(FormCatalog.class);
+    }
+
+    /**
+     * @return The current state of the catalog, or null if it has to be built first.
+     */
+    public State get() {
+        return state;
+    }
+
+    /**
+     * Get the current generation of the catalog, has to be read before the read transaction building the state
+     * is started.
+     * @return The current generation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Build the state of the catalog with one query over the forms graph and publish it, unless the catalog was
+     * changed since the given generation was read.
+     * @param dataset The dataset to use.
+     * @param generation The generation read before the read transaction was started.
+     * @return The published state, or the built state if it was not published.
+     */
+    public State build(Dataset dataset, long generation) {
+        long start = System.currentTimeMillis();
+        var newState = new State();
+        Map<String, List<Draft>> drafts = new HashMap<>();
+        Map<String, Integer> elementCounts = new HashMap<>();
+        try (QueryExecution queryExecution = QueryExecutionFactory.create(QueryFactory.create(DASHBOARD_QUERY),
+                dataset.getNamedModel("forms"))) {
+            queryExecution.execSelect().forEachRemaining(solution -> {
+                if (solution.contains("ontology")) {
+                    var ontology = solution.getResource("ontology");
+                    newState.ontologies.put(ontology.getLocalName(),
+                            new Ontology(ontology.getLocalName(), ontology.getURI()));
+                } else if (solution.contains("elementCount")) {
+                    elementCounts.put(solution.getResource("form").getLocalName(),
+                            solution.getLiteral("elementCount").getInt());
+                } else if (solution.contains("draft")) {
+                    var draft = solution.getResource("draft");
+                    var label = solution.getLiteral("draftLabel");
+                    drafts.computeIfAbsent(solution.getResource("form").getLocalName(), name -> new ArrayList<>())
+                            .add(createDraft(solution.getLiteral("draftName").getString(),
+                                    label != null ? label.getString() : null, draft.getURI(),
+                                    draft.getLocalName()));
+                } else {
+                    var targetClass = solution.getResource("targetClass");
+                    var form = new Form(solution.getResource("form").getLocalName(),
+                            solution.getResource("formOntology").getLocalName(),
+                            new OntologyClass(targetClass.getLocalName(), targetClass.getURI()));
+                    newState.putForm(form, 0);
+                }
+            });
+        }
+        elementCounts.forEach((formName, count) -> {
+            if (newState.forms.containsKey(formName)) newState.elementCounts.put(formName, count);
+        });
+        drafts.forEach((formName, formDrafts) -> formDrafts.forEach(draft -> newState.putDraft(formName, draft)));
+        logger.info("Built form catalog with {} forms in {} ms", newState.forms.size(),
+                System.currentTimeMillis() - start);
+        synchronized (this) {
+            if (this.generation.get() != generation) return newState;
+            if (state == null) state = newState;
+            return state;
+        }
+    }
+
+    /**
+     * Create the summary of a draft as shown on the index page.
+     * @param draftName The current name of the draft.
+     * @param label The label of the draft, or null.
+     * @param draftIri The IRI of the draft.
+     * @param firstDraftName The name under which the draft was created first.
+     * @return The summary of the draft.
+     */
+    public static Draft createDraft(String draftName, String label, String draftIri, String firstDraftName) {
+        return new Draft(draftName, label, draftIri, new OntologyClass("test", "test"), true, firstDraftName);
+    }
+
+    /**
+     * Add an ontology, after the current write transaction was committed.
+     * @param ontology The imported ontology.
+     */
+    public void putOntology(Ontology ontology) {
+        change(state -> state.ontologies.put(ontology.getName(), ontology));
+    }
+
+    /**
+     * Remove an ontology, after the current write transaction was committed.
+     * The forms of the ontology have to be removed with {@link #removeForm}.
+     * @param ontologyName The name of the ontology.
+     */
+    public void removeOntology(String ontologyName) {
+        change(state -> state.ontologies.remove(ontologyName));
+    }
+
+    /**
+     * Add a form or update its ontology, target class and number of elements, after the current write transaction
+     * was committed.
+     * @param form The form.
+     * @param elementCount The number of form elements of the form.
+     */
+    public void putForm(Form form, int elementCount) {
+        change(state -> state.putForm(form, elementCount));
+    }
+
+    /**
+     * Remove a form with its drafts, after the current write transaction was committed.
+     * @param formName The name of the form.
+     */
+    public void removeForm(String formName) {
+        change(state -> state.removeForm(formName));
+    }
+
+    /**
+     * Add a draft or update its name, after the current write transaction was committed.
+     * @param formName The name of the form the draft is for.
+     * @param draft The summary of the draft.
+     */
+    public void putDraft(String formName, Draft draft) {
+        change(state -> state.putDraft(formName, draft));
+    }
+
+    /**
+     * Remove a draft, after the current write transaction was committed.
+     * @param draftIri The IRI of the draft.
+     */
+    public void removeDraft(String draftIri) {
+        change(state -> state.removeDraft(draftIri));
+    }
+
+    private void change(java.util.function.Consumer<State> change) {
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                generation.incrementAndGet();
+                if (state != null) change.accept(state);
+            }
+        });
+    }
+
+    /**
+     * The state of the catalog. Readers see the changes of the write paths as soon as they are committed.
+     */
+    public static class State {
+        private final Map<String, Ontology> ontologies = new ConcurrentSkipListMap<>();
+        private final NavigableMap<String, Form> forms = new ConcurrentSkipListMap<>();
+        private final Map<String, Integer> elementCounts = new ConcurrentHashMap<>();
+        // Secondary indexes from the ontology name and from the ontology name and target class name to form names
+        private final Map<String, NavigableSet<String>> formsByOntology = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<String>> formsByTargetClass = new ConcurrentHashMap<>();
+        private final Map<String, NavigableMap<String, Draft>> draftsByForm = new ConcurrentHashMap<>();
+        private final Map<String, String> formByDraft = new ConcurrentHashMap<>();
+
+        public List<Ontology> getOntologies() {
+            return new ArrayList<>(ontologies.values());
+        }
+
+        /**
+         * @param ontologyName The name of the ontology.
+         * @return The imported ontology, or null if no such ontology exists.
+         */
+        public Ontology getOntology(String ontologyName) {
+            return ontologies.get(ontologyName);
+        }
+
+        /**
+         * @param formName The name of the form.
+         * @return The form, or null if no such form exists.
+         */
+        public Form getForm(String formName) {
+            return forms.get(formName);
+        }
+
+        public int getElementCount(String formName) {
+            return elementCounts.getOrDefault(formName, 0);
+        }
+
+        /**
+         * @param ontologyName The name of the ontology.
+         * @return All forms targeting the ontology, sorted by name.
+         */
+        public List<Form> getFormsOfOntology(String ontologyName) {
+            return resolveForms(formsByOntology.get(ontologyName));
+        }
+
+        /**
+         * @param ontologyName The name of the ontology.
+         * @param className The name of the target class.
+         * @return All forms targeting the class in the ontology, sorted by name.
+         */
+        public List<Form> getFormsWithTargetClass(String ontologyName, String className) {
+            return resolveForms(formsByTargetClass.get(targetClassKey(ontologyName, className)));
+        }
+
+        public int getFormCount() {
+            return forms.size();
+        }
+
+        /**
+         * @param offset The index of the first form.
+         * @param limit The maximum number of forms.
+         * @return The forms in the given range, sorted by name.
+         */
+        public List<Form> getForms(int offset, int limit) {
+            return forms.values().stream().skip(offset).limit(limit).toList();
+        }
+
+        public int getDraftCount(String formName) {
+            var drafts = draftsByForm.get(formName);
+            return drafts != null ? drafts.size() : 0;
+        }
+
+        /**
+         * @param formName The name of the form.
+         * @param offset The index of the first draft.
+         * @param limit The maximum number of drafts.
+         * @return The drafts of the form in the given range, sorted by IRI.
+         */
+        public List<Draft> getDrafts(String formName, int offset, int limit) {
+            var drafts = draftsByForm.get(formName);
+            if (drafts == null) return List.of();
+            return drafts.values().stream().skip(offset).limit(limit).toList();
+        }
+
+        private List<Form> resolveForms(NavigableSet<String> formNames) {
+            if (formNames == null) return List.of();
+            return formNames.stream().map(forms::get).filter(Objects::nonNull).toList();
+        }
+
+        private void putForm(Form form, int elementCount) {
+            var formName = form.getFormName();
+            removeFromIndexes(forms.put(formName, form));
+            elementCounts.put(formName, elementCount);
+            formsByOntology.computeIfAbsent(form.getOntologyName(), name -> new ConcurrentSkipListSet<>())
+                    .add(formName);
+            formsByTargetClass.computeIfAbsent(targetClassKey(form.getOntologyName(), form.getTargetClass().getName()),
+                    key -> new ConcurrentSkipListSet<>()).add(formName);
+            draftsByForm.putIfAbsent(formName, new ConcurrentSkipListMap<>());
+        }
+
+        private void removeForm(String formName) {
+            removeFromIndexes(forms.remove(formName));
+            elementCounts.remove(formName);
+            var drafts = draftsByForm.remove(formName);
+            if (drafts != null) drafts.keySet().forEach(formByDraft::remove);
+        }
+
+        private void removeFromIndexes(Form form) {
+            if (form == null) return;
+            var ontologyForms = formsByOntology.get(form.getOntologyName());
+            if (ontologyForms != null) ontologyForms.remove(form.getFormName());
+            var classForms = formsByTargetClass.get(targetClassKey(form.getOntologyName(),
+                    form.getTargetClass().getName()));
+            if (classForms != null) classForms.remove(form.getFormName());
+        }
+
+        private static String targetClassKey(String ontologyName, String className) {
+            return ontologyName + "#" + className;
+        }
+
+        private void putDraft(String formName, Draft draft) {
+            var drafts = draftsByForm.get(formName);
+            if (drafts == null) return;
+            drafts.put(draft.getIri(), draft);
+            formByDraft.put(draft.getIri(), formName);
+        }
+
+        private void removeDraft(String draftIri) {
+            var formName = formByDraft.remove(draftIri);
+            if (formName == null) return;
+            var drafts = draftsByForm.get(formName);
+            if (drafts != null) drafts.remove(draftIri);
+        }
+    }
+}
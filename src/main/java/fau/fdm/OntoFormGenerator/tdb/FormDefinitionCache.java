@@ -0,0 +1,90 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import fau.fdm.OntoFormGenerator.data.FormDefinition;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of the compiled {@link FormDefinition} of each form.
+ * A definition is built by the form editor service on first use and dropped by the write paths with
+ * {@link #invalidate} (form writes) and {@link #invalidateOntology} (schema writes of the target ontology) after
+ * the surrounding write transaction was committed - the next read builds it again.
+ */
+@Service
+public class FormDefinitionCache {
+
+    private final TDBDatasetManager datasetManager;
+
+    private final Map<String, FormDefinition> definitions = new ConcurrentHashMap<>();
+
+    // Incremented on every invalidation, a definition built across an invalidation is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public FormDefinitionCache(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+    }
+
+    /**
+     * @param formName The name of the form.
+     * @return The cached definition of the form, or null if it has to be built first.
+     */
+    public FormDefinition get(String formName) {
+        return definitions.get(formName);
+    }
+
+    /**
+     * Get the current generation of the cache, has to be read before the read transaction building a definition
+     * is started.
+     * @return The current generation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a definition, unless the cache was invalidated since the given generation was read - the definition
+     * may then be built from a snapshot before the invalidating write.
+     * @param definition The definition built in a read transaction.
+     * @param generation The generation read before the read transaction was started.
+     * @return The cached definition of the form, or the given definition if it was not cached.
+     */
+    public FormDefinition put(FormDefinition definition, long generation) {
+        // Synchronized with the invalidations, so that no invalidation runs between the check and the put
+        synchronized (this) {
+            if (this.generation.get() != generation) return definition;
+            var existing = definitions.putIfAbsent(definition.getFormName(), definition);
+            return existing != null ? existing : definition;
+        }
+    }
+
+    /**
+     * Drop the definition of a form, after the current write transaction was committed.
+     * Has to be called by every write path which adds, changes or deletes a form or its elements.
+     * @param formName The name of the form.
+     */
+    public void invalidate(String formName) {
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                generation.incrementAndGet();
+                definitions.remove(formName);
+            }
+        });
+    }
+
+    /**
+     * Drop the definitions of all forms targeting an ontology, after the current write transaction was committed.
+     * Has to be called by every write path which adds, removes or changes classes, properties or restrictions.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidateOntology(String ontologyName) {
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                generation.incrementAndGet();
+                definitions.values().removeIf(definition -> definition.getOntologyName().equals(ontologyName));
+            }
+        });
+    }
+}
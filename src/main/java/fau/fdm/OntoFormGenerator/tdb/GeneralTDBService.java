@@ -5,8 +5,8 @@ import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
-import org.apache.jena.tdb2.TDB2Factory;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
@@ -28,8 +28,21 @@ import java.io.FileNotFoundException;
 @Service
 public class GeneralTDBService {
 
-    @Value("${ontoformgenerator.ontologyDirectory}")
-    private String ontologyDirectory;
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final OntologyNameIndex nameIndex;
+
+    private final PropertyKindTable propertyKindTable;
+
+    public GeneralTDBService(TDBDatasetManager datasetManager, OntologyNameIndex nameIndex,
+                             PropertyKindTable propertyKindTable) {
+        this.datasetManager = datasetManager;
+        this.nameIndex = nameIndex;
+        this.propertyKindTable = propertyKindTable;
+        this.logger = LoggerFactory.getLogger(GeneralTDBService.class);
+    }
 
     /**
      * Factory method to construct an ontology model from a general unspecified model extracted from TDB.
@@ -63,10 +76,14 @@ public class GeneralTDBService {
      * @return The URI of the class
      */
     public String getClassURIInOntology(Dataset dataset, String ontologyName, String className) {
-        var ontModel = getOntModel(dataset.getNamedModel(ontologyName));
         if (className.equals("owl:Thing")) {
             return "http://www.w3.org/2002/07/owl#Thing";
         }
+        var uri = nameIndex.getURI(dataset, ontologyName, OntologyNameIndex.EntityKind.CLASS, className);
+        if (uri != null) {
+            return uri;
+        }
+        var ontModel = getOntModel(dataset.getNamedModel(ontologyName));
         var namedClass = ontModel.listClasses().filterKeep(ontClass -> ontClass.getLocalName() != null &&
                 ontClass.getLocalName().equals(className)).next();
         return namedClass.getURI();
@@ -83,6 +100,10 @@ public class GeneralTDBService {
         if (classURI.equals("http://www.w3.org/2002/07/owl#Thing")) {
             return "Thing";
         }
+        var name = nameIndex.getLocalName(dataset, ontologyName, OntologyNameIndex.EntityKind.CLASS, classURI);
+        if (name != null) {
+            return name;
+        }
         var ontmodel = getOntModel(dataset.getNamedModel(ontologyName));
         var namedClass = ontmodel.listClasses().filterKeep(ontClass -> ontClass.getURI() != null &&
                 ontClass.getURI().equals(classURI)).next();
@@ -97,6 +118,10 @@ public class GeneralTDBService {
      * @return The URI of the property
      */
     public String getPropertyURIInOntology(Dataset dataset, String ontologyName, String propertyName) {
+        var uri = nameIndex.getURI(dataset, ontologyName, OntologyNameIndex.EntityKind.PROPERTY, propertyName);
+        if (uri != null) {
+            return uri;
+        }
         var ontmodel = getOntModel(dataset.getNamedModel(ontologyName));
         var namedProperty = ontmodel.listAllOntProperties().filterKeep(ontProperty -> ontProperty.getLocalName() != null &&
                 ontProperty.getLocalName().equals(propertyName)).next();
@@ -111,6 +136,10 @@ public class GeneralTDBService {
      * @return The URI of the individual
      */
     public String getIndividualURIInOntology(Dataset dataset, String ontologyName, String individualName) {
+        var uri = nameIndex.getURI(dataset, ontologyName, OntologyNameIndex.EntityKind.INDIVIDUAL, individualName);
+        if (uri != null) {
+            return uri;
+        }
         var ontmodel = getOntModel(dataset.getNamedModel(ontologyName));
         var namedIndividual = ontmodel.listIndividuals().filterKeep(ontIndividual -> ontIndividual.getLocalName().equals(individualName)).next();
         return namedIndividual.getURI();
@@ -124,9 +153,7 @@ public class GeneralTDBService {
      * @return true, if the property is an object property, false otherwise (e.g. datatype property or annotation property)
      */
     public boolean checkIfObjectProperty(Dataset dataset, String ontologyName, String propertyURI) {
-        var ontmodel = getOntModel(dataset.getNamedModel(ontologyName));
-        var namedProperty = ontmodel.listObjectProperties().filterKeep(ontProperty -> ontProperty.getURI().equals(propertyURI));
-        return namedProperty.hasNext();
+        return propertyKindTable.getPropertyKinds(dataset, ontologyName).isObjectProperty(propertyURI);
     }
 
     /**
@@ -139,20 +166,19 @@ public class GeneralTDBService {
      * @return true, if the property is an annotation property, false otherwise (e.g. object property or datatype property)
      */
     public boolean checkIfAnnotationProperty(Dataset dataset, String ontologyName, String propertyURI) {
-        if (propertyURI.equals("http://www.w3.org/2000/01/rdf-schema#label") ||
-                propertyURI.equals("http://www.w3.org/2000/01/rdf-schema#comment") ||
-                propertyURI.equals("http://www.w3.org/2000/01/rdf-schema#isDefinedBy") ||
-                propertyURI.equals("http://www.w3.org/2000/01/rdf-schema#seeAlso") ||
-                propertyURI.equals("http://www.w3.org/2002/07/owl#versionInfo") ||
-                propertyURI.equals("http://www.w3.org/2002/07/owl#priorVersion") ||
-                propertyURI.equals("http://www.w3.org/2002/07/owl#backwardCompatibleWith") ||
-                propertyURI.equals("http://www.w3.org/2002/07/owl#incompatibleWith") ||
-                propertyURI.equals("http://www.w3.org/2002/07/owl#deprecated")){
-            return true;
-        }
-        var ontmodel = getOntModel(dataset.getNamedModel(ontologyName));
-        var namedProperty = ontmodel.listAnnotationProperties().filterKeep(ontProperty -> ontProperty.getURI().equals(propertyURI));
-        return namedProperty.hasNext();
+        return propertyKindTable.getPropertyKinds(dataset, ontologyName).isAnnotationProperty(propertyURI);
+    }
+
+    /**
+     * Get the kinds (object property, annotation property) of all properties in the given ontology.
+     * Should be used instead of {@link #checkIfObjectProperty} and {@link #checkIfAnnotationProperty}
+     * when checking many properties in a row.
+     * @param dataset The TDB production dataset of OntoFormGenerator
+     * @param ontologyName The name of the ontology
+     * @return The property kinds of the ontology
+     */
+    public PropertyKindTable.PropertyKinds getPropertyKinds(Dataset dataset, String ontologyName) {
+        return propertyKindTable.getPropertyKinds(dataset, ontologyName);
     }
 
     /**
@@ -160,9 +186,8 @@ public class GeneralTDBService {
      */
     @EventListener(ApplicationReadyEvent.class)
     public void initFormOntology() {
-        Dataset dataset = TDB2Factory.connectDataset(ontologyDirectory);
-        dataset.begin(ReadWrite.WRITE);
-        try {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            var dataset = connection.getDataset();
             Model model = dataset.getNamedModel("forms");
             if (model.isEmpty()) {
                 try {
@@ -172,17 +197,13 @@ public class GeneralTDBService {
                     model = m;
                     dataset.addNamedModel("forms", model);
                 } catch (FileNotFoundException e) {
-                    // logger.error("Error reading forms ontology file while importing new ontology", e);
-                    dataset.abort();
-                    dataset.end();
+                    logger.error("Error reading forms ontology file while importing new ontology", e);
                     System.exit(1);
                 }
             }
-            dataset.commit();
+            connection.commit();
         } catch (Exception e) {
-            dataset.abort();
-        } finally {
-            dataset.end();
+            logger.error("Error initializing forms ontology", e);
         }
     }
 
@@ -191,11 +212,12 @@ public class GeneralTDBService {
      * @param deleteDb If true, the TDB database in the production folder will be deleted and recreated.
      */
     public void restart(boolean deleteDb) {
+        // The dataset handle outlives the context, TDB2 keeps the location open for the whole process
+        Dataset dataset = datasetManager.getDataset();
         Thread thread = new Thread(() -> {
             OntoFormGeneratorApplication.closeContext();
             if (deleteDb) {
                 try {
-                    Dataset dataset = TDB2Factory.connectDataset(ontologyDirectory);
                     dataset.begin(ReadWrite.WRITE);
                     dataset.listModelNames().forEachRemaining(dataset::removeNamedModel);
                     dataset.commit();
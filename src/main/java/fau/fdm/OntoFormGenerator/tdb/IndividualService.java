@@ -9,7 +9,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * TDB Service for handling individuals in the ontology.
@@ -20,11 +23,25 @@ public class IndividualService {
 
     private final GeneralTDBService generalTDBService;
 
+    private final OntologyNameIndex nameIndex;
+
+    private final AssertedTypeIndex assertedTypeIndex;
+
+    private final ClassMembershipIndex classMembershipIndex;
+
+    private final OntologyStatistics ontologyStatistics;
+
     @Value("${ontoformgenerator.ontologies.baseIRI}")
     private String baseIRI;
 
-    public IndividualService(GeneralTDBService generalTDBService) {
+    public IndividualService(GeneralTDBService generalTDBService, OntologyNameIndex nameIndex,
+                             AssertedTypeIndex assertedTypeIndex, ClassMembershipIndex classMembershipIndex,
+                             OntologyStatistics ontologyStatistics) {
         this.generalTDBService = generalTDBService;
+        this.ontologyStatistics = ontologyStatistics;
+        this.nameIndex = nameIndex;
+        this.assertedTypeIndex = assertedTypeIndex;
+        this.classMembershipIndex = classMembershipIndex;
     }
 
     // Retrieval methods
@@ -134,7 +151,12 @@ public class IndividualService {
         var model = dataset.getNamedModel(ontologyName);
         var ontModel = generalTDBService.getOntModel(model);
         var ontClass = ontModel.getOntClass(baseIRI + "/" + ontologyName + "#" + className);
-        return ontModel.createIndividual(baseIRI + "/" + ontologyName + "#" + individualName, ontClass);
+        var individual = ontModel.createIndividual(baseIRI + "/" + ontologyName + "#" + individualName, ontClass);
+        nameIndex.add(ontologyName, OntologyNameIndex.EntityKind.INDIVIDUAL, individualName, individual.getURI());
+        assertedTypeIndex.add(ontologyName, individual.getURI());
+        ontologyStatistics.addIndividual(ontologyName, individual.getURI());
+        classMembershipIndex.addIndividual(ontologyName, individual.getURI(), ontClass.getURI());
+        return individual;
     }
 
     /**
@@ -163,7 +185,12 @@ public class IndividualService {
         var model = dataset.getNamedModel("forms");
         var ontModel = generalTDBService.getOntModel(model);
         var ontClass = ontModel.getOntClass(baseIRI + "/forms#" + className);
-        return ontModel.createIndividual(IRI, ontClass);
+        var individual = ontModel.createIndividual(IRI, ontClass);
+        nameIndex.add("forms", OntologyNameIndex.EntityKind.INDIVIDUAL, individual.getLocalName(), IRI);
+        assertedTypeIndex.add("forms", IRI);
+        ontologyStatistics.addIndividual("forms", IRI);
+        classMembershipIndex.addIndividual("forms", IRI, ontClass.getURI());
+        return individual;
     }
 
     // ----------------------------------------------------------------------------------------------------------------
@@ -181,7 +208,13 @@ public class IndividualService {
                                             String ontologyName,
                                             String individualName) {
         OntModel ontModel = generalTDBService.getOntModel(dataset.getNamedModel(ontologyName));
-        ontModel.getIndividual(baseIRI + "/" + ontologyName + "#" + individualName).remove();
+        var iri = baseIRI + "/" + ontologyName + "#" + individualName;
+        var individual = ontModel.getIndividual(iri);
+        classMembershipIndex.removeIndividual(ontologyName, individual);
+        individual.remove();
+        nameIndex.remove(ontologyName, iri);
+        assertedTypeIndex.remove(ontologyName, iri);
+        ontologyStatistics.removeIndividual(ontologyName, iri);
     }
 
     /**
@@ -194,7 +227,12 @@ public class IndividualService {
                                       String ontologyName,
                                       String iri) {
         OntModel ontModel = generalTDBService.getOntModel(dataset.getNamedModel(ontologyName));
-        ontModel.getIndividual(iri).remove();
+        var individual = ontModel.getIndividual(iri);
+        classMembershipIndex.removeIndividual(ontologyName, individual);
+        individual.remove();
+        nameIndex.remove(ontologyName, iri);
+        assertedTypeIndex.remove(ontologyName, iri);
+        ontologyStatistics.removeIndividual(ontologyName, iri);
     }
 
     // ----------------------------------------------------------------------------------------------------------------
@@ -212,13 +250,25 @@ public class IndividualService {
     public boolean checkIfIndividualIsImported(Dataset dataset,
                                                String ontologyName,
                                                String individualIri) {
-        OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
-                dataset.getNamedModel(ontologyName));
-        var baseModelWithoutImports = ontModel.getBaseModel();
-        var filtered = baseModelWithoutImports.listStatements().filterKeep(
-                statement -> statement.getSubject().getURI().equals(individualIri) &&
-                        statement.getPredicate().getURI().equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#type")
-        );
-        return !filtered.hasNext();
+        return !assertedTypeIndex.isAsserted(dataset, ontologyName, individualIri);
+    }
+
+    /**
+     * Check for multiple individuals if they are imported in the ontology, or were created with the form generator.
+     * Should be used instead of {@link #checkIfIndividualIsImported} when checking many individuals in a row.
+     * @param dataset The dataset to use.
+     * @param ontologyName The name of the ontology.
+     * @param individualIris The IRIs of the individuals.
+     * @return A map from the IRI of each individual to true if it is imported, false otherwise.
+     */
+    public Map<String, Boolean> areImported(Dataset dataset,
+                                            String ontologyName,
+                                            Collection<String> individualIris) {
+        var assertedSubjects = assertedTypeIndex.getAssertedSubjects(dataset, ontologyName);
+        Map<String, Boolean> imported = new HashMap<>();
+        for (var iri : individualIris) {
+            imported.put(iri, !assertedSubjects.contains(iri));
+        }
+        return imported;
     }
 }
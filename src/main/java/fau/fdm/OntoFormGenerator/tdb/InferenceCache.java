@@ -0,0 +1,190 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.InfModel;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.reasoner.Reasoner;
+import org.apache.jena.reasoner.ReasonerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache of the materialized inference models (OWL Micro) of the ontologies.
+ * An inference model is computed once per ontology, copied into an in-memory model and shared by all requests -
+ * the copy can be read without a transaction and by multiple threads at once.
+ * Each entry is stamped with the dataset version it was computed from (see {@link TDBDatasetManager#markChanged}).
+ * After a write on the ontology, readers keep getting the outdated entry while a new one is computed in the
+ * background. The least recently used entries are evicted when the cached models exceed the statement budget.
+ */
+@Service
+public class InferenceCache {
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    @Value("${ontoformgenerator.inferenceCache.maxStatements:5000000}")
+    private long maxStatements;
+
+    // Access ordered, so that the iteration starts with the least recently used entry - guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedStatements = 0;
+
+    private final Set<String> rebuilding = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "inference-cache-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InferenceCache(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(InferenceCache.class);
+    }
+
+    /**
+     * Get the inference model of an ontology. If the cached model is outdated, it is returned anyway and
+     * a new one is computed in the background - only the very first read of an ontology has to wait for the reasoner.
+     * @param dataset The dataset to use - only needed, if the ontology is not cached yet.
+     * @param ontologyName The name of the ontology.
+     * @return The materialized inference model, which must not be modified.
+     */
+    public Model getInferredModel(Dataset dataset, String ontologyName) {
+        return getVersionedModel(dataset, ontologyName).getModel();
+    }
+
+    /**
+     * Get the inference model of an ontology together with the version of the dataset it was computed from.
+     * Like {@link #getInferredModel}, an outdated model is returned while a new one is computed in the background -
+     * data derived from the model is only up to date, if its version is not less than the version of the ontology
+     * graph ({@link TDBDatasetManager#getGraphVersion}).
+     * @param dataset The dataset to use - only needed, if the ontology is not cached yet.
+     * @param ontologyName The name of the ontology.
+     * @return The materialized inference model, which must not be modified, with its version.
+     */
+    public VersionedModel getVersionedModel(Dataset dataset, String ontologyName) {
+        var entry = get(ontologyName);
+        if (entry == null) {
+            entry = compute(dataset, ontologyName);
+        } else if (entry.version < datasetManager.getGraphVersion(ontologyName)) {
+            scheduleRebuild(ontologyName);
+        }
+        return new VersionedModel(entry.model, entry.version);
+    }
+
+    /**
+     * Remove the inference model of an ontology from the cache, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     */
+    public void evict(String ontologyName) {
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                var entry = entries.remove(ontologyName);
+                if (entry != null) cachedStatements -= entry.size;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private synchronized Entry get(String ontologyName) {
+        return entries.get(ontologyName);
+    }
+
+    private Entry compute(Dataset dataset, String ontologyName) {
+        var version = datasetManager.getTransactionVersion();
+        var model = materialize(dataset, ontologyName);
+        var entry = new Entry(model, version, model.size());
+        // Never cache uncommitted changes
+        if (dataset.transactionMode() != ReadWrite.WRITE) {
+            put(ontologyName, entry);
+        }
+        return entry;
+    }
+
+    private void scheduleRebuild(String ontologyName) {
+        if (!rebuilding.add(ontologyName)) return;
+        rebuildExecutor.execute(() -> {
+            try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, ontologyName)) {
+                compute(connection.getDataset(), ontologyName);
+            } catch (Exception e) {
+                logger.error("Error rebuilding inference model of ontology {}", ontologyName, e);
+            } finally {
+                rebuilding.remove(ontologyName);
+            }
+        });
+    }
+
+    private synchronized void put(String ontologyName, Entry entry) {
+        var old = entries.get(ontologyName);
+        if (old != null && old.version > entry.version) return;
+        if (old != null) cachedStatements -= old.size;
+        entries.put(ontologyName, entry);
+        cachedStatements += entry.size;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (cachedStatements > maxStatements && iterator.hasNext()) {
+            var eldest = iterator.next();
+            // Keep the new entry, even if it exceeds the budget on its own
+            if (eldest.getKey().equals(ontologyName)) continue;
+            cachedStatements -= eldest.getValue().size;
+            iterator.remove();
+            logger.info("Evicted inference model of ontology {} from cache", eldest.getKey());
+        }
+    }
+
+    private Model materialize(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
+                dataset.getNamedModel(ontologyName));
+        Reasoner reasoner = ReasonerRegistry.getOWLMicroReasoner();
+        reasoner.bindSchema(ontModel);
+        InfModel infModel = ModelFactory.createInfModel(reasoner, ontModel);
+        Model model = ModelFactory.createDefaultModel();
+        model.add(infModel);
+        logger.info("Computed inference model of ontology {} with {} statements in {} ms", ontologyName,
+                model.size(), System.currentTimeMillis() - start);
+        return model;
+    }
+
+    /**
+     * An inference model with the version of the dataset it was computed from.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VersionedModel {
+        private Model model;
+        private long version;
+    }
+
+    private static class Entry {
+        private final Model model;
+        private final long version;
+        private final long size;
+
+        Entry(Model model, long version, long size) {
+            this.model = model;
+            this.version = version;
+            this.size = size;
+        }
+    }
+}
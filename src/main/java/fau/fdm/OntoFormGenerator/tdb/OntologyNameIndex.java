@@ -0,0 +1,190 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index from local names to URIs (and back) of the classes, properties and individuals
+ * of each named graph in the TDB.
+ * The index of a graph is built on first use (or on import) with one pass over the ontology model and is afterwards
+ * kept up to date by the write paths, which register their changes with {@link #add} and {@link #remove}.
+ * Changes are only applied to the index after the surrounding write transaction was committed.
+ */
+@Service
+public class OntologyNameIndex {
+
+    /**
+     * The kinds of entities held in the index.
+     */
+    public enum EntityKind {
+        CLASS,
+        PROPERTY,
+        INDIVIDUAL
+    }
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final Map<String, NameIndex> indexes = new ConcurrentHashMap<>();
+
+    public OntologyNameIndex(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(OntologyNameIndex.class);
+    }
+
+    /**
+     * Get the URI of an entity by its local name.
+     * @param dataset The dataset to use - only needed, if the index of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @param kind The kind of the entity.
+     * @param localName The local name of the entity.
+     * @return The URI of the entity, or null if it is not in the index.
+     */
+    public String getURI(Dataset dataset, String ontologyName, EntityKind kind, String localName) {
+        var index = getIndex(dataset, ontologyName);
+        if (index == null) return null;
+        return index.uriByName.get(kind).get(localName);
+    }
+
+    /**
+     * Get the local name of an entity by its URI.
+     * @param dataset The dataset to use - only needed, if the index of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @param kind The kind of the entity.
+     * @param uri The URI of the entity.
+     * @return The local name of the entity, or null if it is not in the index.
+     */
+    public String getLocalName(Dataset dataset, String ontologyName, EntityKind kind, String uri) {
+        var index = getIndex(dataset, ontologyName);
+        if (index == null) return null;
+        return index.nameByUri.get(kind).get(uri);
+    }
+
+    /**
+     * Add an entity to the index of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param kind The kind of the entity.
+     * @param localName The local name of the entity.
+     * @param uri The URI of the entity.
+     */
+    public void add(String ontologyName, EntityKind kind, String localName, String uri) {
+        if (localName == null || uri == null) return;
+        change(ontologyName, index -> index.put(kind, localName, uri));
+    }
+
+    /**
+     * Remove an entity from the index of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param uri The URI of the entity.
+     */
+    public void remove(String ontologyName, String uri) {
+        if (uri == null) return;
+        change(ontologyName, index -> index.remove(uri));
+    }
+
+    /**
+     * Build the index of an ontology from the state of the current transaction and publish it after commit.
+     * Used on import, so that the first request does not have to build the index.
+     * @param dataset The dataset to use.
+     * @param ontologyName The name of the ontology.
+     */
+    public void rebuild(Dataset dataset, String ontologyName) {
+        var index = build(dataset, ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                if (datasetManager.isUpToDate(ontologyName)) {
+                    indexes.put(ontologyName, index);
+                } else {
+                    indexes.remove(ontologyName);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the index of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> indexes.remove(ontologyName));
+    }
+
+    private void change(String ontologyName, java.util.function.Consumer<NameIndex> change) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                var index = indexes.get(ontologyName);
+                if (index != null) change.accept(index);
+            }
+        });
+    }
+
+    private NameIndex getIndex(Dataset dataset, String ontologyName) {
+        var index = indexes.get(ontologyName);
+        if (index != null) return index;
+        // Inside a write transaction the graph may contain uncommitted changes, which must not be cached
+        if (dataset.transactionMode() == ReadWrite.WRITE) return null;
+        index = build(dataset, ontologyName);
+        synchronized (this) {
+            // A change committed during the build was not applied to the index, so it must not be published
+            if (!datasetManager.isUpToDate(ontologyName)) return index;
+            var existing = indexes.putIfAbsent(ontologyName, index);
+            return existing != null ? existing : index;
+        }
+    }
+
+    private NameIndex build(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
+                dataset.getNamedModel(ontologyName));
+        var index = new NameIndex();
+        ontModel.listClasses().forEachRemaining(
+                ontClass -> index.put(EntityKind.CLASS, ontClass.getLocalName(), ontClass.getURI()));
+        ontModel.listAllOntProperties().forEachRemaining(
+                property -> index.put(EntityKind.PROPERTY, property.getLocalName(), property.getURI()));
+        ontModel.listIndividuals().forEachRemaining(
+                individual -> index.put(EntityKind.INDIVIDUAL, individual.getLocalName(), individual.getURI()));
+        logger.info("Built name index of ontology {} in {} ms", ontologyName, System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private static class NameIndex {
+        private final Map<EntityKind, Map<String, String>> uriByName = new EnumMap<>(EntityKind.class);
+        private final Map<EntityKind, Map<String, String>> nameByUri = new EnumMap<>(EntityKind.class);
+
+        NameIndex() {
+            for (var kind : EntityKind.values()) {
+                uriByName.put(kind, new ConcurrentHashMap<>());
+                nameByUri.put(kind, new ConcurrentHashMap<>());
+            }
+        }
+
+        void put(EntityKind kind, String localName, String uri) {
+            if (localName == null || uri == null) return;
+            // Keep the first entity with this local name, like the linear search did
+            uriByName.get(kind).putIfAbsent(localName, uri);
+            nameByUri.get(kind).put(uri, localName);
+        }
+
+        void remove(String uri) {
+            for (var kind : EntityKind.values()) {
+                var localName = nameByUri.get(kind).remove(uri);
+                if (localName != null) {
+                    uriByName.get(kind).remove(localName, uri);
+                }
+            }
+        }
+    }
+}
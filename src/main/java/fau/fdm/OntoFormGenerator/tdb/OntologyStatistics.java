@@ -0,0 +1,267 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import fau.fdm.OntoFormGenerator.service.OntologyValidationService.NamingSchema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.ontology.OntProperty;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistics of each ontology: the number of classes, properties by kind, individuals and triples, and how many
+ * property names follow each naming schema.
+ * The statistics of an ontology are built with one pass over the ontology model on first use. Afterwards the write
+ * paths keep them up to date with {@link #addClass}, {@link #addProperty}, {@link #addIndividual} and
+ * {@link #removeIndividual}, so reading them - e.g. the most common naming schema for the naming check of a new
+ * property - does not need another pass. The triple count is counted again on read, once per committed change of the
+ * ontology.
+ */
+@Service
+public class OntologyStatistics {
+
+    /**
+     * The kinds of properties counted separately.
+     */
+    public enum PropertyKind {
+        OBJECT,
+        DATATYPE,
+        ANNOTATION,
+        OTHER
+    }
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final Map<String, Counts> statistics = new ConcurrentHashMap<>();
+
+    public OntologyStatistics(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(OntologyStatistics.class);
+    }
+
+    /**
+     * Get the statistics of an ontology.
+     * @param dataset The dataset to use - only needed, if the statistics of the ontology have to be built first or
+     *                the ontology was changed since its triples were counted.
+     * @param ontologyName The name of the ontology.
+     * @return A snapshot of the statistics of the ontology.
+     */
+    public Snapshot getStatistics(Dataset dataset, String ontologyName) {
+        var counts = getCounts(dataset, ontologyName);
+        var graphVersion = datasetManager.getGraphVersion(ontologyName);
+        long tripleCount;
+        synchronized (counts) {
+            tripleCount = counts.tripleCount;
+            if (counts.tripleVersion >= graphVersion) {
+                return counts.snapshot(ontologyName, tripleCount);
+            }
+        }
+        tripleCount = dataset.getNamedModel(ontologyName).size();
+        // Only keep the count, if the transaction sees exactly the committed changes
+        if (dataset.transactionMode() != ReadWrite.WRITE && graphVersion <= datasetManager.getTransactionVersion()) {
+            synchronized (counts) {
+                if (counts.tripleVersion < graphVersion) {
+                    counts.tripleCount = tripleCount;
+                    counts.tripleVersion = graphVersion;
+                }
+            }
+        }
+        synchronized (counts) {
+            return counts.snapshot(ontologyName, tripleCount);
+        }
+    }
+
+    /**
+     * Get the naming schema followed by most property names of an ontology.
+     * @param dataset The dataset to use - only needed, if the statistics of the ontology have to be built first.
+     * @param ontologyName The name of the ontology.
+     * @return The most common naming schema, camel case if the ontology has no properties.
+     */
+    public NamingSchema getMostCommonNamingSchema(Dataset dataset, String ontologyName) {
+        var counts = getCounts(dataset, ontologyName);
+        synchronized (counts) {
+            NamingSchema mostCommon = NamingSchema.CAMEL_CASE;
+            int max = 0;
+            for (var entry : counts.namingSchemas.entrySet()) {
+                if (entry.getValue() > max) {
+                    mostCommon = entry.getKey();
+                    max = entry.getValue();
+                }
+            }
+            return mostCommon;
+        }
+    }
+
+    /**
+     * Count a new class of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param classUri The URI of the new class.
+     */
+    public void addClass(String ontologyName, String classUri) {
+        update(ontologyName, counts -> counts.classes.add(classUri));
+    }
+
+    /**
+     * Count a new property of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param propertyUri The URI of the new property.
+     * @param localName The local name of the new property.
+     * @param kind The kind of the new property.
+     */
+    public void addProperty(String ontologyName, String propertyUri, String localName, PropertyKind kind) {
+        update(ontologyName, counts -> counts.addProperty(propertyUri, localName, kind));
+    }
+
+    /**
+     * Count a new individual of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param individualUri The URI of the new individual.
+     */
+    public void addIndividual(String ontologyName, String individualUri) {
+        update(ontologyName, counts -> counts.individuals.add(individualUri));
+    }
+
+    /**
+     * Stop counting a deleted individual of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param individualUri The URI of the deleted individual.
+     */
+    public void removeIndividual(String ontologyName, String individualUri) {
+        update(ontologyName, counts -> counts.individuals.remove(individualUri));
+    }
+
+    /**
+     * Drop the statistics of an ontology after the current write transaction was committed.
+     * Has to be called by every write path which changes classes, properties or individuals without updating the
+     * statistics.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                statistics.remove(ontologyName);
+            }
+        });
+    }
+
+    private void update(String ontologyName, java.util.function.Consumer<Counts> change) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                var counts = statistics.get(ontologyName);
+                if (counts != null) {
+                    synchronized (counts) {
+                        change.accept(counts);
+                    }
+                }
+            }
+        });
+    }
+
+    private Counts getCounts(Dataset dataset, String ontologyName) {
+        var counts = statistics.get(ontologyName);
+        if (counts != null) return counts;
+        var newCounts = build(dataset, ontologyName);
+        if (dataset.transactionMode() == ReadWrite.WRITE) {
+            // Only cache the statistics if the changes they were built from are committed
+            datasetManager.afterCommit(() -> publish(ontologyName, newCounts));
+            return newCounts;
+        }
+        return publish(ontologyName, newCounts);
+    }
+
+    private synchronized Counts publish(String ontologyName, Counts counts) {
+        // A change committed during the build is not contained in the statistics, so they must not be cached
+        if (!datasetManager.isUpToDate(ontologyName)) return counts;
+        var existing = statistics.putIfAbsent(ontologyName, counts);
+        return existing != null ? existing : counts;
+    }
+
+    private Counts build(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        var version = datasetManager.getTransactionVersion();
+        var model = dataset.getNamedModel(ontologyName);
+        OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM, model);
+        var counts = new Counts();
+        ontModel.listNamedClasses().forEachRemaining(ontClass -> counts.classes.add(ontClass.getURI()));
+        ontModel.listAllOntProperties().forEachRemaining(property -> {
+            if (property.isURIResource()) {
+                counts.addProperty(property.getURI(), property.getLocalName(), getKind(property));
+            }
+        });
+        ontModel.listIndividuals().forEachRemaining(individual -> {
+            if (individual.isURIResource()) counts.individuals.add(individual.getURI());
+        });
+        counts.tripleCount = model.size();
+        counts.tripleVersion = version;
+        logger.info("Built statistics of ontology {} in {} ms", ontologyName, System.currentTimeMillis() - start);
+        return counts;
+    }
+
+    private static PropertyKind getKind(OntProperty property) {
+        if (property.isObjectProperty()) {
+            return PropertyKind.OBJECT;
+        } else if (property.isDatatypeProperty()) {
+            return PropertyKind.DATATYPE;
+        } else if (property.isAnnotationProperty()) {
+            return PropertyKind.ANNOTATION;
+        } else {
+            return PropertyKind.OTHER;
+        }
+    }
+
+    /**
+     * Mutable statistics of one ontology, guarded by their own monitor.
+     * Classes, properties and individuals are kept by URI, so that counting the same entity twice does not matter.
+     */
+    private static class Counts {
+        private final Set<String> classes = new HashSet<>();
+        private final Set<String> properties = new HashSet<>();
+        private final Map<PropertyKind, Integer> propertyKinds = new EnumMap<>(PropertyKind.class);
+        private final Map<NamingSchema, Integer> namingSchemas = new EnumMap<>(NamingSchema.class);
+        private final Set<String> individuals = new HashSet<>();
+        private long tripleCount;
+        // Version of the ontology graph the triples were counted at
+        private long tripleVersion;
+
+        void addProperty(String uri, String localName, PropertyKind kind) {
+            if (!properties.add(uri)) return;
+            propertyKinds.merge(kind, 1, Integer::sum);
+            namingSchemas.merge(NamingSchema.of(localName), 1, Integer::sum);
+        }
+
+        Snapshot snapshot(String ontologyName, long tripleCount) {
+            return new Snapshot(ontologyName, classes.size(), properties.size(), new EnumMap<>(propertyKinds),
+                    individuals.size(), tripleCount, new EnumMap<>(namingSchemas));
+        }
+    }
+
+    /**
+     * Immutable snapshot of the statistics of one ontology.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private String ontologyName;
+        private int classCount;
+        private int propertyCount;
+        private Map<PropertyKind, Integer> propertyCountsByKind;
+        private int individualCount;
+        private long tripleCount;
+        private Map<NamingSchema, Integer> namingSchemaCounts;
+    }
+}
@@ -0,0 +1,139 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact table of the property kinds (object / annotation property) of each ontology.
+ * Property URIs are interned to integer ids, the kinds of an ontology are stored as bitmaps over these ids.
+ * A table is built with one pass over the ontology model on first use and dropped by the schema write paths
+ * with {@link #invalidate} - the next read builds it again.
+ */
+@Service
+public class PropertyKindTable {
+
+    /**
+     * The pre-defined OWL annotation properties, which are annotation properties in every ontology.
+     */
+    private static final Set<String> BUILT_IN_ANNOTATION_PROPERTIES = Set.of(
+            "http://www.w3.org/2000/01/rdf-schema#label",
+            "http://www.w3.org/2000/01/rdf-schema#comment",
+            "http://www.w3.org/2000/01/rdf-schema#isDefinedBy",
+            "http://www.w3.org/2000/01/rdf-schema#seeAlso",
+            "http://www.w3.org/2002/07/owl#versionInfo",
+            "http://www.w3.org/2002/07/owl#priorVersion",
+            "http://www.w3.org/2002/07/owl#backwardCompatibleWith",
+            "http://www.w3.org/2002/07/owl#incompatibleWith",
+            "http://www.w3.org/2002/07/owl#deprecated"
+    );
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final Map<String, Integer> propertyIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPropertyId = new AtomicInteger();
+
+    private final Map<String, PropertyKinds> tables = new ConcurrentHashMap<>();
+
+    public PropertyKindTable(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(PropertyKindTable.class);
+    }
+
+    /**
+     * Get the property kinds of an ontology.
+     * @param dataset The dataset to use - only needed, if the table of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @return The property kinds of the ontology.
+     */
+    public PropertyKinds getPropertyKinds(Dataset dataset, String ontologyName) {
+        var table = tables.get(ontologyName);
+        if (table != null) return table;
+        var newTable = build(dataset, ontologyName);
+        if (dataset.transactionMode() == ReadWrite.WRITE) {
+            // Only cache the table if the changes it was built from are committed
+            datasetManager.afterCommit(() -> publish(ontologyName, newTable));
+            return newTable;
+        }
+        return publish(ontologyName, newTable);
+    }
+
+    /**
+     * Drop the table of an ontology after the current write transaction was committed.
+     * Has to be called by every write path which adds, removes or changes properties.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                tables.remove(ontologyName);
+            }
+        });
+    }
+
+    private synchronized PropertyKinds publish(String ontologyName, PropertyKinds table) {
+        // A change committed during the build is not contained in the table, so it must not be cached
+        if (!datasetManager.isUpToDate(ontologyName)) return table;
+        var existing = tables.putIfAbsent(ontologyName, table);
+        return existing != null ? existing : table;
+    }
+
+    private int intern(String propertyUri) {
+        return propertyIds.computeIfAbsent(propertyUri, uri -> nextPropertyId.getAndIncrement());
+    }
+
+    private PropertyKinds build(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
+                dataset.getNamedModel(ontologyName));
+        var objectProperties = new BitSet();
+        var annotationProperties = new BitSet();
+        ontModel.listObjectProperties().forEachRemaining(property -> {
+            if (property.getURI() != null) objectProperties.set(intern(property.getURI()));
+        });
+        ontModel.listAnnotationProperties().forEachRemaining(property -> {
+            if (property.getURI() != null) annotationProperties.set(intern(property.getURI()));
+        });
+        logger.info("Built property kind table of ontology {} in {} ms", ontologyName,
+                System.currentTimeMillis() - start);
+        return new PropertyKinds(objectProperties, annotationProperties);
+    }
+
+    /**
+     * Immutable snapshot of the property kinds of one ontology.
+     */
+    public class PropertyKinds {
+        private final BitSet objectProperties;
+        private final BitSet annotationProperties;
+
+        private PropertyKinds(BitSet objectProperties, BitSet annotationProperties) {
+            this.objectProperties = objectProperties;
+            this.annotationProperties = annotationProperties;
+        }
+
+        public boolean isObjectProperty(String propertyUri) {
+            var id = propertyIds.get(propertyUri);
+            return id != null && objectProperties.get(id);
+        }
+
+        public boolean isAnnotationProperty(String propertyUri) {
+            if (BUILT_IN_ANNOTATION_PROPERTIES.contains(propertyUri)) return true;
+            var id = propertyIds.get(propertyUri);
+            return id != null && annotationProperties.get(id);
+        }
+    }
+}
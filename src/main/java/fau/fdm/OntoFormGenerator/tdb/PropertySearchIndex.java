@@ -0,0 +1,303 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import fau.fdm.OntoFormGenerator.data.OntologyClass;
+import fau.fdm.OntoFormGenerator.data.OntologyProperty;
+import org.apache.jena.ontology.OntProperty;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory full-text index over the properties of each ontology, used by the property search.
+ * The local name, label and comment of every property are split into lowercase tokens (at whitespace, punctuation,
+ * underscores, camelCase humps and digits), and every token points to the properties containing it. A query matches
+ * a property if its tokens appear in this order in one of the fields, the last query token as a prefix - so "hasOrd"
+ * and "ordered" match "hasOrderedDrink", "hasD" does not. Matches are ranked by the field they were found in (local
+ * name before label before comment) and complete before prefix matches of the last token.
+ * An index is built with one pass over the ontology model on first use, extended by {@link #add} when a property is
+ * created and dropped with {@link #invalidate} by the other schema write paths - the next read builds it again.
+ */
+@Service
+public class PropertySearchIndex {
+
+    // Weights of the fields a match was found in
+    private static final int NAME_WEIGHT = 3;
+    private static final int LABEL_WEIGHT = 2;
+    private static final int COMMENT_WEIGHT = 1;
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    private final GeneralTDBService generalTDBService;
+
+    private final Map<String, SearchIndex> indexes = new ConcurrentHashMap<>();
+
+    public PropertySearchIndex(TDBDatasetManager datasetManager, GeneralTDBService generalTDBService) {
+        this.datasetManager = datasetManager;
+        this.generalTDBService = generalTDBService;
+        this.logger = LoggerFactory.getLogger(PropertySearchIndex.class);
+    }
+
+    /**
+     * Search for properties in an ontology by their local name, label and comment.
+     * @param dataset The dataset to use - only needed, if the index of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @param domainIri The IRI of the domain class - properties without domain match every domain.
+     * @param query The search query.
+     * @return The matching properties, best matches first - shared by all searches, they must not be modified.
+     */
+    public List<OntologyProperty> search(Dataset dataset, String ontologyName, String domainIri, String query) {
+        var queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) return List.of();
+        return getIndex(dataset, ontologyName).search(domainIri, queryTokens);
+    }
+
+    /**
+     * Search for properties in an ontology containing any of the given terms as complete words in their local name,
+     * label or comment - with one pass over the matching properties for all terms.
+     * @param dataset The dataset to use - only needed, if the index of the ontology has to be built first.
+     * @param ontologyName The name of the ontology.
+     * @param domainIri The IRI of the domain class - properties without domain match every domain.
+     * @param terms The terms to search for, single words or phrases.
+     * @return The matching properties, best matches first - shared by all searches, they must not be modified.
+     */
+    public List<OntologyProperty> searchAny(Dataset dataset, String ontologyName, String domainIri,
+                                            Collection<String> terms) {
+        List<List<String>> phrases = new ArrayList<>();
+        for (var term : terms) {
+            var tokens = tokenize(term);
+            if (!tokens.isEmpty()) phrases.add(tokens);
+        }
+        if (phrases.isEmpty()) return List.of();
+        return getIndex(dataset, ontologyName).searchAny(domainIri, phrases);
+    }
+
+    /**
+     * Add a property to the index of an ontology, after the current write transaction was committed.
+     * @param ontologyName The name of the ontology.
+     * @param property The new property.
+     */
+    public void add(String ontologyName, OntologyProperty property) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                var index = indexes.get(ontologyName);
+                if (index != null) {
+                    index.add(property);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the index of an ontology after the current write transaction was committed.
+     * Has to be called by every write path which removes properties or changes their names, labels, comments or
+     * domains.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            synchronized (this) {
+                indexes.remove(ontologyName);
+            }
+        });
+    }
+
+    private SearchIndex getIndex(Dataset dataset, String ontologyName) {
+        var index = indexes.get(ontologyName);
+        if (index != null) return index;
+        var newIndex = build(dataset, ontologyName);
+        if (dataset.transactionMode() == ReadWrite.WRITE) {
+            // Only cache the index if the changes it was built from are committed
+            datasetManager.afterCommit(() -> publish(ontologyName, newIndex));
+            return newIndex;
+        }
+        return publish(ontologyName, newIndex);
+    }
+
+    private synchronized SearchIndex publish(String ontologyName, SearchIndex index) {
+        // A change committed during the build is not contained in the index, so it must not be cached
+        if (!datasetManager.isUpToDate(ontologyName)) return index;
+        var existing = indexes.putIfAbsent(ontologyName, index);
+        return existing != null ? existing : index;
+    }
+
+    private SearchIndex build(Dataset dataset, String ontologyName) {
+        long start = System.currentTimeMillis();
+        var ontModel = generalTDBService.getOntModel(dataset.getNamedModel(ontologyName));
+        var index = new SearchIndex();
+        ontModel.listAllOntProperties().forEachRemaining(property -> {
+            if (property.isURIResource()) index.add(toOntologyProperty(property));
+        });
+        logger.info("Built property search index of ontology {} in {} ms", ontologyName,
+                System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private OntologyProperty toOntologyProperty(OntProperty property) {
+        var ontologyProperty = new OntologyProperty();
+        ontologyProperty.setName(property.getLocalName());
+        ontologyProperty.setUri(property.getURI());
+        var domain = property.getDomain();
+        if (domain != null) {
+            ontologyProperty.setDomain(new OntologyClass(domain.getLocalName(), domain.getURI()));
+        }
+        ontologyProperty.setObjectProperty(property.isObjectProperty());
+        var range = property.getRange();
+        if (range != null) {
+            if (property.isObjectProperty()) {
+                ontologyProperty.setObjectRange(new OntologyClass(range.getLocalName(), range.getURI()));
+            } else {
+                ontologyProperty.setDatatypeRange(range.getLocalName());
+            }
+        }
+        ontologyProperty.setRdfsLabel(property.getLabel(null));
+        ontologyProperty.setRdfsComment(property.getComment(null));
+        return ontologyProperty;
+    }
+
+    /**
+     * Split a text into lowercase tokens at whitespace, punctuation, underscores, camelCase humps and digits -
+     * "hasFirstName", "has_first_name" and "has first name" all result in [has, first, name].
+     * @param text The text to split, may be null.
+     * @return The tokens of the text.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        for (var word : text.split("[^\\p{L}\\p{N}]+")) {
+            for (var token : word.split("(?<=\\p{Ll})(?=\\p{Lu})|(?<=\\p{Lu})(?=\\p{Lu}\\p{Ll})|(?<=\\p{L})(?=\\p{N})|(?<=\\p{N})(?=\\p{L})")) {
+                if (!token.isEmpty()) tokens.add(token.toLowerCase(Locale.ROOT));
+            }
+        }
+        return tokens;
+    }
+
+    private static class SearchIndex {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        // Token -> URIs of the properties containing the token in one of their fields
+        private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+
+        void add(OntologyProperty property) {
+            if (property.getUri() == null) return;
+            var entry = new Entry(property);
+            if (entries.putIfAbsent(property.getUri(), entry) != null) return;
+            for (var fieldTokens : entry.fieldTokens) {
+                for (var token : fieldTokens) {
+                    postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(property.getUri());
+                }
+            }
+        }
+
+        List<OntologyProperty> search(String domainIri, List<String> queryTokens) {
+            // Candidates contain all query tokens, the last one only as prefix
+            var lastToken = queryTokens.get(queryTokens.size() - 1);
+            Set<String> candidates = new HashSet<>();
+            postings.subMap(lastToken, true, lastToken + Character.MAX_VALUE, false).values()
+                    .forEach(candidates::addAll);
+            candidates.retainAll(getCandidates(queryTokens.subList(0, queryTokens.size() - 1)));
+            return rank(domainIri, candidates, entry -> entry.score(queryTokens, false));
+        }
+
+        List<OntologyProperty> searchAny(String domainIri, List<List<String>> phrases) {
+            Set<String> candidates = new HashSet<>();
+            for (var phrase : phrases) {
+                candidates.addAll(getCandidates(phrase));
+            }
+            return rank(domainIri, candidates, entry -> {
+                int best = 0;
+                for (var phrase : phrases) {
+                    best = Math.max(best, entry.score(phrase, true));
+                }
+                return best;
+            });
+        }
+
+        /**
+         * @return The URIs of the properties containing all given tokens, or all properties for no tokens.
+         */
+        private Set<String> getCandidates(List<String> tokens) {
+            if (tokens.isEmpty()) return entries.keySet();
+            Set<String> candidates = new HashSet<>(postings.getOrDefault(tokens.get(0), Set.of()));
+            for (var token : tokens.subList(1, tokens.size())) {
+                if (candidates.isEmpty()) break;
+                candidates.retainAll(postings.getOrDefault(token, Set.of()));
+            }
+            return candidates;
+        }
+
+        private List<OntologyProperty> rank(String domainIri, Set<String> candidates,
+                                            java.util.function.ToIntFunction<Entry> scoring) {
+            // Entries do not override equals, so every entry is its own key
+            Map<Entry, Integer> scores = new HashMap<>();
+            for (var uri : candidates) {
+                var entry = entries.get(uri);
+                if (entry == null) continue;
+                var domain = entry.property.getDomain();
+                if (domain != null && !Objects.equals(domain.getUri(), domainIri)) continue;
+                int score = scoring.applyAsInt(entry);
+                if (score > 0) scores.put(entry, score);
+            }
+            return scores.keySet().stream()
+                    .sorted(Comparator.<Entry>comparingInt(entry -> -scores.get(entry))
+                            .thenComparing(entry -> entry.property.getName(),
+                                    Comparator.nullsLast(Comparator.<String>naturalOrder())))
+                    .map(entry -> entry.property)
+                    .toList();
+        }
+    }
+
+    private static class Entry {
+        private static final int[] FIELD_WEIGHTS = {NAME_WEIGHT, LABEL_WEIGHT, COMMENT_WEIGHT};
+
+        private final OntologyProperty property;
+        // Tokens of the local name, label and comment
+        private final List<List<String>> fieldTokens;
+
+        Entry(OntologyProperty property) {
+            this.property = property;
+            this.fieldTokens = List.of(tokenize(property.getName()), tokenize(property.getRdfsLabel()),
+                    tokenize(property.getRdfsComment()));
+        }
+
+        /**
+         * @param queryTokens The query tokens.
+         * @param complete True if the last query token has to match completely, false if it may match as prefix.
+         * @return The score of the best field containing the query tokens in order, or 0 if no field contains them.
+         */
+        int score(List<String> queryTokens, boolean complete) {
+            int best = 0;
+            for (int field = 0; field < fieldTokens.size(); field++) {
+                var tokens = fieldTokens.get(field);
+                for (int start = 0; start + queryTokens.size() <= tokens.size(); start++) {
+                    int factor = matchAt(tokens, start, queryTokens);
+                    if (complete && factor < 2) continue;
+                    best = Math.max(best, FIELD_WEIGHTS[field] * factor);
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return 2 if the query tokens match completely at the given position, 1 if the last one only matches as
+         * prefix, 0 if they do not match.
+         */
+        private static int matchAt(List<String> tokens, int start, List<String> queryTokens) {
+            int last = queryTokens.size() - 1;
+            for (int i = 0; i < last; i++) {
+                if (!tokens.get(start + i).equals(queryTokens.get(i))) return 0;
+            }
+            var token = tokens.get(start + last);
+            if (token.equals(queryTokens.get(last))) return 2;
+            return token.startsWith(queryTokens.get(last)) ? 1 : 0;
+        }
+    }
+}
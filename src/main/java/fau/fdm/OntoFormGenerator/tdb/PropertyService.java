@@ -7,13 +7,16 @@ import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntProperty;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDFS;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for handling properties in the ontology.
@@ -23,11 +26,21 @@ public class PropertyService {
 
     private final GeneralTDBService generalTDBService;
 
+    private final OntologyNameIndex nameIndex;
+
+    private final PropertyKindTable propertyKindTable;
+
+    private final OntologyStatistics ontologyStatistics;
+
     @Value("${ontoformgenerator.ontologies.baseIRI}")
     private String baseIRI;
 
-    public PropertyService(GeneralTDBService generalTDBService) {
+    public PropertyService(GeneralTDBService generalTDBService, OntologyNameIndex nameIndex,
+                           PropertyKindTable propertyKindTable, OntologyStatistics ontologyStatistics) {
         this.generalTDBService = generalTDBService;
+        this.ontologyStatistics = ontologyStatistics;
+        this.nameIndex = nameIndex;
+        this.propertyKindTable = propertyKindTable;
     }
 
 
@@ -88,6 +101,25 @@ public class PropertyService {
         return individual.getLabel(null);
     }
 
+    /**
+     * Get the labels of all resources in the ontology (including imports) with one pass over the rdfs:label statements.
+     * Should be used instead of {@link #getLabelOfIndividual} when listing many individuals.
+     * @param dataset The dataset to use.
+     * @param ontologyName The name of the ontology.
+     * @return A map from the URI of each labelled resource to its (first) label.
+     */
+    public Map<String, String> getLabelsOfOntology(Dataset dataset,
+                                                   String ontologyName) {
+        OntModel ontModel = generalTDBService.getOntModel(dataset.getNamedModel(ontologyName));
+        Map<String, String> labels = new HashMap<>();
+        ontModel.listStatements(null, RDFS.label, (RDFNode) null).forEachRemaining(stmt -> {
+            if (stmt.getSubject().isURIResource() && stmt.getObject().isLiteral()) {
+                labels.putIfAbsent(stmt.getSubject().getURI(), stmt.getObject().asLiteral().getLexicalForm());
+            }
+        });
+        return labels;
+    }
+
     /**
      * Get all object property values of a set property of an individual.
      * @param dataset The dataset to use.
@@ -200,6 +232,10 @@ public class PropertyService {
         var property = ontModel.createAnnotationProperty(baseIRI + "/" + ontologyName + "#" + propertyName);
         property.addLabel(label, null);
         property.addComment(comment, null);
+        nameIndex.add(ontologyName, OntologyNameIndex.EntityKind.PROPERTY, propertyName, property.getURI());
+        propertyKindTable.invalidate(ontologyName);
+        ontologyStatistics.addProperty(ontologyName, property.getURI(), propertyName,
+                OntologyStatistics.PropertyKind.ANNOTATION);
     }
 
 
@@ -257,35 +293,4 @@ public class PropertyService {
                 }
         );
     }
-
-
-
-
-
-    // ----------------------------------------------------------------------------------------------------------------
-    // ----------------------------------------------------------------------------------------------------------------
-
-    // Other methods
-
-    /**
-     * Search for properties in an ontology by a search query.
-     * @param dataset The dataset to use.
-     * @param ontologyName The name of the ontology.
-     * @param domainIri The IRI of the domain class.
-     * @param query The search query.
-     * @return A list of properties that match the search query.
-     */
-    public List<OntProperty> searchProperties(Dataset dataset, String ontologyName, String domainIri, String query) {
-        OntModel ontModel = generalTDBService.getOntModel(dataset.getNamedModel(ontologyName));
-        return ontModel.listAllOntProperties().filterKeep(property -> {
-            var ontDomain = property.getDomain();
-            String q = query.toLowerCase();
-            var label = property.getLabel(null);
-            var comment = property.getComment(null);
-            return  (ontDomain == null || ontDomain.getURI().equals(domainIri)) && (
-                    label != null && label.toLowerCase().contains(q) ||
-                    comment != null && comment.toLowerCase().contains(q) ||
-                    property.getLocalName().toLowerCase().contains(q));
-        }).toList();
-    }
 }
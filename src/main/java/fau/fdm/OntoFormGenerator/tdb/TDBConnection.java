@@ -6,35 +6,56 @@ import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.rdf.model.ModelFactory;
-import org.apache.jena.tdb2.TDB2Factory;
 
 /**
- * Represents a connection to a TDB dataset implementing the AutoCloseable interface.
- * The connection is opened in the constructor and closed when the object is destroyed.
- * If the connection is not explicitly committed, it is aborted automatically.
+ * Represents a transaction on the shared TDB dataset implementing the AutoCloseable interface.
+ * The transaction is started in the constructor and ended when the object is closed.
+ * If the transaction is not explicitly committed, it is aborted automatically.
+ * A committed write transaction marks the graph of the ontology it was opened for as changed, so a write connection
+ * has to be opened for the graph it writes - "forms" for writes to the forms graph only, null if the write paths mark
+ * the changed graphs themselves.
  */
 public class TDBConnection implements AutoCloseable {
 
     @Getter
     Dataset dataset;
-    @Getter
     OntModel model;
 
+    private final TDBDatasetManager datasetManager;
+    private final ReadWrite accessMode;
+    private final String ontologyName;
+
     private boolean commit = false;
 
     public TDBConnection(ReadWrite accessMode,
-                         String ontologyDirectory,
+                         TDBDatasetManager datasetManager,
                          String ontologyName) {
-        dataset = TDB2Factory.connectDataset(ontologyDirectory);
-        dataset.begin(accessMode);
-        if (ontologyName != null) {
+        this.datasetManager = datasetManager;
+        this.accessMode = accessMode;
+        this.ontologyName = ontologyName;
+        dataset = datasetManager.begin(accessMode);
+    }
+
+    /**
+     * Get the ontology model of the ontology this connection was opened for.
+     * The model is only created on first access.
+     * @return The ontology model, or null if the connection was opened without an ontology name.
+     */
+    public OntModel getModel() {
+        if (model == null && ontologyName != null) {
             model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM,
                     dataset.getNamedModel(ontologyName));
         }
+        return model;
     }
 
     public void commit() {
-        dataset.commit();
+        if (accessMode == ReadWrite.WRITE) {
+            datasetManager.markChanged(ontologyName);
+            datasetManager.commit();
+        } else {
+            dataset.commit();
+        }
         commit = true;
     }
 
@@ -43,6 +64,6 @@ public class TDBConnection implements AutoCloseable {
         if (!commit) {
             dataset.abort();
         }
-        dataset.end();
+        datasetManager.end(accessMode);
     }
 }
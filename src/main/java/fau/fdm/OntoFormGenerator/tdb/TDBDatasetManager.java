@@ -0,0 +1,255 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Manages the TDB2 dataset of OntoFormGenerator.
+ * The dataset location is opened once at startup and the handle is shared by all request threads -
+ * TDB2 isolates the threads by binding every transaction to the thread which started it.
+ * Transactions are started and ended through this manager (see {@link TDBConnection}), so that the number of
+ * open transactions and the time spent waiting for them can be monitored.
+ * The manager also keeps a version of each named graph, which is increased after every committed write on the graph.
+ * Caches of derived data (e.g. the {@link InferenceCache}) use it to detect that they are outdated.
+ */
+@Service
+public class TDBDatasetManager {
+
+    private final Logger logger;
+
+    @Value("${ontoformgenerator.ontologyDirectory}")
+    private String ontologyDirectory;
+
+    @Getter
+    private Dataset dataset;
+
+    private final AtomicInteger openReadTransactions = new AtomicInteger();
+    private final AtomicInteger openWriteTransactions = new AtomicInteger();
+    private final AtomicLong totalReadTransactions = new AtomicLong();
+    private final AtomicLong totalWriteTransactions = new AtomicLong();
+    private final AtomicLong readWaitNanos = new AtomicLong();
+    private final AtomicLong writeWaitNanos = new AtomicLong();
+    private final AtomicLong maxWriteWaitNanos = new AtomicLong();
+
+    private final ThreadLocal<List<Runnable>> commitActions = new ThreadLocal<>();
+    private final ThreadLocal<Set<String>> changedGraphs = new ThreadLocal<>();
+
+    private final AtomicLong commitSequence = new AtomicLong();
+    private final Map<String, Long> graphVersions = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> transactionVersion = new ThreadLocal<>();
+
+    public TDBDatasetManager() {
+        this.logger = LoggerFactory.getLogger(TDBDatasetManager.class);
+    }
+
+    /**
+     * Opens the TDB2 location configured in the application properties.
+     */
+    @PostConstruct
+    public void open() {
+        dataset = TDB2Factory.connectDataset(ontologyDirectory);
+        logger.info("Opened TDB dataset at {}", ontologyDirectory);
+    }
+
+    /**
+     * Start a new transaction on the shared dataset for the current thread.
+     * Write transactions block until no other write transaction is active.
+     * @param accessMode The access mode of the transaction.
+     * @return The shared dataset, in which the transaction was started.
+     */
+    public Dataset begin(ReadWrite accessMode) {
+        if (accessMode != ReadWrite.WRITE) {
+            // Read before the transaction starts, so every change up to this version is visible in the transaction
+            transactionVersion.set(commitSequence.get());
+        }
+        long start = System.nanoTime();
+        dataset.begin(accessMode);
+        long waited = System.nanoTime() - start;
+        if (accessMode == ReadWrite.WRITE) {
+            // Writers are serialized, so a write transaction sees exactly the changes of all earlier commits - read
+            // after waiting for the other writers, and under the commit lock, so a commit is counted once it is visible
+            synchronized (commitSequence) {
+                transactionVersion.set(commitSequence.get());
+            }
+            openWriteTransactions.incrementAndGet();
+            totalWriteTransactions.incrementAndGet();
+            writeWaitNanos.addAndGet(waited);
+            maxWriteWaitNanos.accumulateAndGet(waited, Math::max);
+            commitActions.set(new ArrayList<>());
+            changedGraphs.set(new HashSet<>());
+        } else {
+            openReadTransactions.incrementAndGet();
+            totalReadTransactions.incrementAndGet();
+            readWaitNanos.addAndGet(waited);
+        }
+        return dataset;
+    }
+
+    /**
+     * End the transaction of the current thread. The transaction must be committed or aborted before.
+     * @param accessMode The access mode the transaction was started with.
+     */
+    public void end(ReadWrite accessMode) {
+        try {
+            dataset.end();
+        } finally {
+            commitActions.remove();
+            changedGraphs.remove();
+            transactionVersion.remove();
+            if (accessMode == ReadWrite.WRITE) {
+                openWriteTransactions.decrementAndGet();
+            } else {
+                openReadTransactions.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Register an action which is executed after the write transaction of the current thread was committed.
+     * Used to keep in-memory structures in sync with the dataset - if the transaction is aborted, the action is
+     * dropped. If the current thread has no open write transaction, the action is executed immediately.
+     * @param action The action to execute.
+     */
+    public void afterCommit(Runnable action) {
+        var actions = commitActions.get();
+        if (actions == null) {
+            action.run();
+        } else {
+            actions.add(action);
+        }
+    }
+
+    /**
+     * Commit the write transaction of the current thread, increase the versions of the graphs it changed and
+     * execute the actions registered for it.
+     * Versions are assigned in commit order and before any action runs, so an action (or a concurrent reader) can
+     * rely on {@link #isUpToDate} to detect that data was derived from a snapshot before the commit.
+     */
+    public void commit() {
+        synchronized (commitSequence) {
+            dataset.commit();
+            var version = commitSequence.incrementAndGet();
+            var graphs = changedGraphs.get();
+            if (graphs != null) {
+                graphs.forEach(graph -> graphVersions.put(graph, version));
+                graphs.clear();
+            }
+            // The actions see the state of this commit
+            transactionVersion.set(version);
+        }
+        runCommitActions();
+    }
+
+    /**
+     * Execute all actions registered for the write transaction of the current thread.
+     * Has to be called after the transaction was committed successfully.
+     */
+    private void runCommitActions() {
+        var actions = commitActions.get();
+        if (actions == null) return;
+        commitActions.set(new ArrayList<>());
+        for (var action : actions) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                logger.error("Error executing action after commit", e);
+            }
+        }
+    }
+
+    /**
+     * Mark a named graph as changed by the write transaction of the current thread.
+     * The version of the graph is increased when the transaction is committed, before the registered actions run.
+     * Every write path which keeps an in-memory structure of a graph up to date has to mark the graph as changed.
+     * @param graphName The name of the changed graph.
+     */
+    public void markChanged(String graphName) {
+        if (graphName == null) return;
+        var graphs = changedGraphs.get();
+        if (graphs != null) {
+            graphs.add(graphName);
+            return;
+        }
+        synchronized (commitSequence) {
+            graphVersions.put(graphName, commitSequence.incrementAndGet());
+        }
+    }
+
+    /**
+     * Get the current version of a named graph.
+     * @param graphName The name of the graph.
+     * @return The version of the last committed change of the graph, 0 if it was not changed since startup.
+     */
+    public long getGraphVersion(String graphName) {
+        return graphVersions.getOrDefault(graphName, 0L);
+    }
+
+    /**
+     * Get the version up to which all changes are visible in the transaction of the current thread.
+     * Data derived inside the transaction is up to date for every graph with a version less or equal to it.
+     * @return The version of the transaction, or the latest version if the current thread has no open transaction.
+     */
+    public long getTransactionVersion() {
+        var version = transactionVersion.get();
+        return version != null ? version : commitSequence.get();
+    }
+
+    /**
+     * Check if data derived in the transaction of the current thread is up to date for a named graph, i.e. no change
+     * of the graph was committed after the transaction started. In an action executed after commit, the state of
+     * the committed transaction is checked.
+     * In-memory structures built from a transaction must only be published if this holds, checked atomically with
+     * the application of the changes of the write paths - otherwise a change committed during the build is lost.
+     * @param graphName The name of the graph.
+     * @return True if the graph was not changed after the transaction started.
+     */
+    public boolean isUpToDate(String graphName) {
+        return getGraphVersion(graphName) <= getTransactionVersion();
+    }
+
+    /**
+     * Get the current transaction statistics of the dataset.
+     * @return A snapshot of the open transaction counts and the accumulated wait times.
+     */
+    public TransactionStatistics getStatistics() {
+        return new TransactionStatistics(
+                openReadTransactions.get(),
+                openWriteTransactions.get(),
+                totalReadTransactions.get(),
+                totalWriteTransactions.get(),
+                TimeUnit.NANOSECONDS.toMillis(readWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(writeWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxWriteWaitNanos.get())
+        );
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class TransactionStatistics {
+        int openReadTransactions;
+        int openWriteTransactions;
+        long totalReadTransactions;
+        long totalWriteTransactions;
+        long readWaitMillis;
+        long writeWaitMillis;
+        long maxWriteWaitMillis;
+    }
+}
@@ -0,0 +1,98 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+/**
+ * Reasoner factory for the explanation of inconsistencies, which only creates reasoners within a budget of
+ * wall-clock time and reasoner calls.
+ * Black box explanation creates a new reasoner for every candidate check, so every created reasoner counts as one
+ * reasoner call. Each reasoner gets the remaining time as timeout, and the factory can be cancelled from another
+ * thread, which interrupts the running reasoner and lets all further reasoner creations fail.
+ */
+class BudgetedReasonerFactory implements OWLReasonerFactory {
+
+    private final Validator validator;
+    private final OWLReasonerFactory delegate;
+    private final long deadline;
+    private final int maxReasonerCalls;
+
+    private int reasonerCalls = 0;
+    private volatile boolean cancelled = false;
+    private volatile OWLReasoner currentReasoner;
+
+    BudgetedReasonerFactory(Validator validator, long timeoutMillis, int maxReasonerCalls) {
+        this.validator = validator;
+        this.delegate = validator.createReasonerFactory();
+        this.deadline = System.currentTimeMillis() + timeoutMillis;
+        this.maxReasonerCalls = maxReasonerCalls;
+    }
+
+    /**
+     * Stop the explanation - interrupts the running reasoner and lets all further reasoner creations fail.
+     */
+    void cancel() {
+        cancelled = true;
+        var reasoner = currentReasoner;
+        if (reasoner != null) {
+            reasoner.interrupt();
+        }
+    }
+
+    /**
+     * @return True if the explanation was cancelled or ran out of time or reasoner calls.
+     */
+    boolean isExhausted() {
+        return cancelled || reasonerCalls >= maxReasonerCalls || System.currentTimeMillis() >= deadline;
+    }
+
+    int getReasonerCalls() {
+        return reasonerCalls;
+    }
+
+    @Override
+    public String getReasonerName() {
+        return delegate.getReasonerName();
+    }
+
+    @Override
+    public OWLReasoner createNonBufferingReasoner(OWLOntology ontology) {
+        return createReasoner(ontology);
+    }
+
+    @Override
+    public OWLReasoner createReasoner(OWLOntology ontology) {
+        if (isExhausted()) {
+            throw new ExplanationBudgetExceededException(reasonerCalls);
+        }
+        reasonerCalls++;
+        var reasoner = delegate.createNonBufferingReasoner(ontology,
+                validator.createReasonerConfiguration(deadline - System.currentTimeMillis()));
+        currentReasoner = reasoner;
+        if (cancelled) {
+            reasoner.interrupt();
+        }
+        return reasoner;
+    }
+
+    @Override
+    public OWLReasoner createNonBufferingReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+        return createReasoner(ontology);
+    }
+
+    @Override
+    public OWLReasoner createReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+        return createReasoner(ontology);
+    }
+
+    /**
+     * Thrown when a reasoner is requested after the budget of the explanation was used up.
+     */
+    static class ExplanationBudgetExceededException extends RuntimeException {
+        ExplanationBudgetExceededException(int reasonerCalls) {
+            super("Explanation budget exceeded after " + reasonerCalls + " reasoner calls");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cooperative cancellation of a validation.
+ * The validating thread is never interrupted - it may be reading the TDB, and an interrupt during file channel I/O
+ * closes the channel of the shared dataset. Instead, the validation checks for the cancellation between its stages,
+ * and a running reasoner is stopped with {@link org.semanticweb.owlapi.reasoner.OWLReasoner#interrupt()}.
+ */
+public class Cancellation {
+
+    private boolean cancelled;
+
+    private final List<Runnable> actions = new ArrayList<>();
+
+    /**
+     * Cancel the validation and run the registered actions. Does nothing if it was cancelled before.
+     */
+    public synchronized void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        actions.forEach(Runnable::run);
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stop the validation if it was cancelled.
+     * @throws ReasonerInterruptedException If the validation was cancelled.
+     */
+    public void check() {
+        if (isCancelled()) {
+            throw new ReasonerInterruptedException("The validation was cancelled");
+        }
+    }
+
+    /**
+     * Register an action which is run when the validation is cancelled - immediately, if it was cancelled before.
+     * @param action The action, e.g. interrupting the running reasoner.
+     * @return The registration, which has to be closed when the action must not run anymore.
+     */
+    public synchronized Registration onCancel(Runnable action) {
+        if (cancelled) {
+            action.run();
+        } else {
+            actions.add(action);
+        }
+        return () -> {
+            synchronized (this) {
+                actions.remove(action);
+            }
+        };
+    }
+
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,137 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import com.clarkparsia.owlapi.explanation.BlackBoxExplanation;
+import com.clarkparsia.owlapi.explanation.HSTExplanationGenerator;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Explains the inconsistency of an ontology within a budget of wall-clock time and reasoner calls.
+ * The search for a justification runs on a locality-based module around the given focus axioms (usually the last
+ * changes of the ontology) - only if the module turns out to be consistent, the whole ontology is searched.
+ * It runs as a separate stage on its own thread, which is cancelled once the budget is used up.
+ * Found justifications are cached by the hash of the searched axiom set, so repeated validations of the same
+ * inconsistency return at once.
+ */
+public class ExplanationGenerator {
+
+    private static final int MAX_CACHED_JUSTIFICATIONS = 128;
+
+    // The explanation works on its own copy of the axioms, so it can outlive a cancelled validation
+    private static final ExecutorService EXPLANATION_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "ontology-explanation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<Integer, Set<OWLAxiom>> JUSTIFICATIONS = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Set<OWLAxiom>> eldest) {
+                    return size() > MAX_CACHED_JUSTIFICATIONS;
+                }
+            });
+
+    private final Logger logger;
+
+    private final Validator validator;
+    private final long timeoutMillis;
+    private final int maxReasonerCalls;
+
+    public ExplanationGenerator(Validator validator, long timeoutMillis, int maxReasonerCalls) {
+        this.validator = validator;
+        this.timeoutMillis = timeoutMillis;
+        this.maxReasonerCalls = maxReasonerCalls;
+        this.logger = LoggerFactory.getLogger(ExplanationGenerator.class);
+    }
+
+    /**
+     * Find a justification for the inconsistency of an ontology - a minimal set of axioms which is inconsistent.
+     * @param ontology The inconsistent ontology.
+     * @param focusAxioms The axioms the inconsistency is expected around, may be empty.
+     * @return The justification, or null if none was found within the budget.
+     */
+    public Set<OWLAxiom> explain(OWLOntology ontology, Set<OWLAxiom> focusAxioms) {
+        long start = System.currentTimeMillis();
+        Set<OWLAxiom> allAxioms = ontology.axioms().collect(Collectors.toCollection(HashSet::new));
+        Set<OWLAxiom> module = extractModule(ontology, focusAxioms);
+        var cacheKey = module != null ? module.hashCode() : allAxioms.hashCode();
+        var cached = JUSTIFICATIONS.get(cacheKey);
+        if (cached != null && allAxioms.containsAll(cached)) {
+            logger.info("Found cached justification with {} axioms", cached.size());
+            return cached;
+        }
+
+        var reasonerFactory = new BudgetedReasonerFactory(validator, timeoutMillis, maxReasonerCalls);
+        Future<Set<OWLAxiom>> justification = EXPLANATION_EXECUTOR.submit(
+                () -> findJustification(reasonerFactory, module, allAxioms));
+        try {
+            var result = justification.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            JUSTIFICATIONS.put(cacheKey, result);
+            logger.info("Found justification with {} axioms in {} ms and {} reasoner calls", result.size(),
+                    System.currentTimeMillis() - start, reasonerFactory.getReasonerCalls());
+            return result;
+        } catch (TimeoutException e) {
+            reasonerFactory.cancel();
+            logger.warn("Explanation cancelled after {} ms", System.currentTimeMillis() - start);
+            return null;
+        } catch (InterruptedException e) {
+            reasonerFactory.cancel();
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (reasonerFactory.isExhausted()) {
+                logger.warn("Explanation budget used up: {}", e.getCause().getMessage());
+                return null;
+            }
+            throw new RuntimeException("Error while explaining the inconsistency", e.getCause());
+        }
+    }
+
+    /**
+     * Extract the locality-based module of the signature of the focus axioms, which contains a justification.
+     * @return The module, or null if there are no focus axioms.
+     */
+    private Set<OWLAxiom> extractModule(OWLOntology ontology, Set<OWLAxiom> focusAxioms) {
+        if (focusAxioms.isEmpty()) return null;
+        var module = validator.extractModule(ontology, focusAxioms.stream().flatMap(OWLAxiom::signature));
+        logger.info("Extracted module with {} of {} axioms for explanation", module.size(),
+                ontology.getAxiomCount());
+        return module;
+    }
+
+    private Set<OWLAxiom> findJustification(BudgetedReasonerFactory reasonerFactory, Set<OWLAxiom> module,
+                                            Set<OWLAxiom> allAxioms) throws OWLOntologyCreationException {
+        var manager = validator.createOntologyManager();
+        if (module != null) {
+            var moduleOntology = manager.createOntology(module);
+            var moduleReasoner = reasonerFactory.createReasoner(moduleOntology);
+            if (!moduleReasoner.isConsistent()) {
+                return findJustification(reasonerFactory, moduleOntology, moduleReasoner);
+            }
+            // Cannot happen for complete locality modules, but does not hurt to check
+            logger.warn("Module for explanation is consistent, searching the whole ontology");
+            moduleReasoner.dispose();
+            manager.removeOntology(moduleOntology);
+        }
+        var ontology = manager.createOntology(allAxioms);
+        return findJustification(reasonerFactory, ontology, reasonerFactory.createReasoner(ontology));
+    }
+
+    private Set<OWLAxiom> findJustification(BudgetedReasonerFactory reasonerFactory, OWLOntology ontology,
+                                            OWLReasoner reasoner) {
+        var dataFactory = ontology.getOWLOntologyManager().getOWLDataFactory();
+        var explanation = new HSTExplanationGenerator(new BlackBoxExplanation(ontology, reasonerFactory, reasoner));
+        return explanation.getExplanation(dataFactory.getOWLThing());
+    }
+}
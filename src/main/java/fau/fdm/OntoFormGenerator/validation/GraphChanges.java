@@ -0,0 +1,108 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The triples added to and removed from the graph of an ontology by one change, e.g. a staged individual or an
+ * edit of an individual. Passed to the {@link IncrementalValidator}, so that it only has to apply the changed triples
+ * instead of comparing the whole graph with its last state.
+ */
+public class GraphChanges {
+
+    private final Set<Triple> added;
+    private final Set<Triple> removed;
+
+    private GraphChanges(Set<Triple> added, Set<Triple> removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * @return Changes which neither add nor remove a triple.
+     */
+    public static GraphChanges none() {
+        return new GraphChanges(Set.of(), Set.of());
+    }
+
+    /**
+     * Changes which add the statements of a delta model to a graph.
+     * @param delta The statements to add.
+     * @param graph The graph the statements are added to. Statements already contained in it are no change.
+     * @return The changes.
+     */
+    public static GraphChanges added(Model delta, Graph graph) {
+        Set<Triple> added = new LinkedHashSet<>();
+        delta.getGraph().find().forEachRemaining(triple -> {
+            if (!graph.contains(triple)) added.add(triple);
+        });
+        return new GraphChanges(added, Set.of());
+    }
+
+    /**
+     * Changes between two states of the same triples, e.g. the triples of an individual before and after an edit.
+     * @param before The triples before the change.
+     * @param after The triples after the change.
+     * @return The changes.
+     */
+    public static GraphChanges diff(Collection<Triple> before, Collection<Triple> after) {
+        Set<Triple> added = new LinkedHashSet<>(after);
+        before.forEach(added::remove);
+        Set<Triple> removed = new LinkedHashSet<>(before);
+        after.forEach(removed::remove);
+        return new GraphChanges(added, removed);
+    }
+
+    /**
+     * Get the triples of a graph with the given subject, to compute the changes of an edit with {@link #diff}.
+     * @param graph The graph.
+     * @param subjectUri The URI of the subject.
+     * @return The triples of the subject.
+     */
+    public static List<Triple> triplesOf(Graph graph, String subjectUri) {
+        Node subject = NodeFactory.createURI(subjectUri);
+        return graph.find(subject, Node.ANY, Node.ANY).toList();
+    }
+
+    /**
+     * Combine these changes with the changes applied after them.
+     * A triple added by one and removed by the other change is no change at all.
+     * @param next The changes applied after these.
+     * @return The combined changes.
+     */
+    public GraphChanges then(GraphChanges next) {
+        Set<Triple> combinedAdded = new LinkedHashSet<>(added);
+        Set<Triple> combinedRemoved = new LinkedHashSet<>(removed);
+        for (var triple : next.removed) {
+            if (!combinedAdded.remove(triple)) combinedRemoved.add(triple);
+        }
+        for (var triple : next.added) {
+            if (!combinedRemoved.remove(triple)) combinedAdded.add(triple);
+        }
+        return new GraphChanges(combinedAdded, combinedRemoved);
+    }
+
+    public List<Triple> getAdded() {
+        return List.copyOf(added);
+    }
+
+    public List<Triple> getRemoved() {
+        return List.copyOf(removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + removed.size();
+    }
+}
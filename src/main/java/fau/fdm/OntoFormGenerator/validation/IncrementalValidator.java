@@ -0,0 +1,354 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import fau.fdm.OntoFormGenerator.data.ValidationResult;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Long-lived OWL API ontology and reasoner for one ontology of the TDB, which is kept in sync with the Jena model.
+ * The loaded OWL API ontology corresponds to a committed version of the ontology graph. A validation receives the
+ * changes to validate on top of it (e.g. a staged individual) and the changes committed since the loaded version -
+ * only the axioms of these triples are parsed and applied to the OWL API ontology, and the reasoner checks the
+ * consistency with these buffered changes, instead of serializing and parsing the whole model and creating a new
+ * reasoner for every validation. The validated changes are reverted afterwards, as they are not committed yet.
+ * If the changes contain blank nodes (e.g. restrictions), which cannot be mapped to axioms on their own, are larger
+ * than the ontology itself, or the committed changes are not known, the OWL API ontology is loaded again from the
+ * whole model.
+ * In module mode, only the locality-based module around the added axioms is checked with a fresh reasoner, and the
+ * whole ontology only on every n-th validation.
+ * Not thread safe - the caller has to synchronize the validations of one ontology.
+ */
+public class IncrementalValidator {
+
+    private final Logger logger;
+
+    private final Validator validator;
+
+    // Check the whole ontology on every n-th validation only, 0 to always check the whole ontology
+    private final int fullCheckInterval;
+    private int validationsSinceFullCheck = 0;
+
+    private OWLOntologyManager manager;
+    private OWLOntology owlApiOntology;
+    private OWLReasoner reasoner;
+
+    // The reasoner currently checking the consistency, interrupted if the validation is cancelled
+    private volatile OWLReasoner checkingReasoner;
+
+    // The version of the ontology graph the OWL API ontology corresponds to, -1 if it is not known
+    private long version = -1;
+
+    // The axioms added by the last validation, an inconsistency is explained around them
+    private Set<OWLAxiom> lastAddedAxioms = Set.of();
+
+    public IncrementalValidator(Validator validator) {
+        this(validator, 0);
+    }
+
+    /**
+     * @param validator The validator to use.
+     * @param fullCheckInterval If greater than 0, only the module around the changes is checked, and the whole
+     *                          ontology on every n-th validation.
+     */
+    public IncrementalValidator(Validator validator, int fullCheckInterval) {
+        this.validator = validator;
+        this.fullCheckInterval = fullCheckInterval;
+        this.logger = LoggerFactory.getLogger(IncrementalValidator.class);
+    }
+
+    /**
+     * Validates the given model, and checks if the knowledge base is consistent or not.
+     * @param model The OWL model to validate, i.e. the committed ontology graph with the changes applied. Has to be
+     *              the model of the same ontology on every call. Only read if the ontology has to be loaded again.
+     * @param contextModel The model used to look up the declarations of the entities in changed triples,
+     *                     usually the ontology model of the ontology including imports.
+     * @param version The version of the committed ontology graph the changes are applied to, -1 if it is not known.
+     * @param committed The changes committed since the version of this validator ({@link #getVersion}), null if they
+     *                  are not known.
+     * @param changes The changes to validate on top of the committed graph, null if they are not known.
+     * @return The validation result containing a boolean flag for consistency and explanation axioms if inconsistent.
+     */
+    public ValidationResult validate(Model model, Model contextModel, long version,
+                                     GraphChanges committed, GraphChanges changes) {
+        return validate(model, contextModel, version, committed, changes, new Cancellation());
+    }
+
+    /**
+     * Validates the given model like {@link #validate(Model, Model, long, GraphChanges, GraphChanges)}, and stops
+     * if the validation is cancelled - before loading, before checking and by interrupting the running reasoner.
+     * @param cancellation The cancellation of the validation.
+     * @return The validation result containing a boolean flag for consistency and explanation axioms if inconsistent.
+     * @throws org.semanticweb.owlapi.reasoner.ReasonerInterruptedException If the validation was cancelled - the
+     *         reasoner may be interrupted, so the validator must not be used anymore.
+     */
+    public ValidationResult validate(Model model, Model contextModel, long version,
+                                     GraphChanges committed, GraphChanges changes, Cancellation cancellation) {
+        try (var registration = cancellation.onCancel(this::interruptCheck)) {
+            cancellation.check();
+            return check(model, contextModel, version, committed, changes, cancellation);
+        } finally {
+            checkingReasoner = null;
+        }
+    }
+
+    private ValidationResult check(Model model, Model contextModel, long version,
+                                   GraphChanges committed, GraphChanges changes, Cancellation cancellation) {
+        long start = System.currentTimeMillis();
+        var context = contextModel.getGraph();
+        Set<OWLAxiom> addedAxioms = Set.of();
+        if (owlApiOntology != null && (version < 0 || changes == null)) {
+            unload();
+        } else if (owlApiOntology != null && this.version != version) {
+            var applied = this.version >= 0 && committed != null ? apply(committed, context) : null;
+            if (applied == null) {
+                unload();
+            } else {
+                this.version = version;
+                addedAxioms = applied.added;
+            }
+        }
+        Axioms staged;
+        if (owlApiOntology == null) {
+            load(model, cancellation);
+            // The loaded model contains the changes, which are reverted after the validation
+            staged = changes != null ? parseLoaded(changes, context) : null;
+            this.version = staged != null ? version : -1;
+        } else {
+            staged = apply(changes, context);
+            if (staged == null) {
+                unload();
+                load(model, cancellation);
+                this.version = -1;
+                addedAxioms = Set.of();
+            }
+        }
+        if (staged != null && !changes.isEmpty()) {
+            addedAxioms = staged.added;
+        }
+        lastAddedAxioms = addedAxioms;
+        ValidationResult result;
+        try {
+            if (fullCheckInterval > 0 && !lastAddedAxioms.isEmpty()
+                    && ++validationsSinceFullCheck < fullCheckInterval) {
+                result = checkModule(cancellation);
+            } else {
+                validationsSinceFullCheck = 0;
+                checkingReasoner = reasoner;
+                // Checked after publishing the reasoner, so a cancellation either sees the reasoner or is seen here
+                cancellation.check();
+                reasoner.flush();
+                result = validator.checkConsistency(owlApiOntology, reasoner, lastAddedAxioms);
+            }
+        } finally {
+            if (staged != null && this.version >= 0) {
+                owlApiOntology.removeAxioms(staged.added);
+                owlApiOntology.addAxioms(staged.removed);
+            }
+        }
+        logger.info("Validated ontology in {} ms", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Check the consistency of the module around the last added axioms with a fresh reasoner.
+     * The ontology is consistent if the module is.
+     */
+    private ValidationResult checkModule(Cancellation cancellation) {
+        var module = validator.extractModule(owlApiOntology, lastAddedAxioms.stream().flatMap(OWLAxiom::signature));
+        var moduleManager = validator.createOntologyManager();
+        OWLOntology moduleOntology;
+        try {
+            moduleOntology = moduleManager.createOntology(module);
+        } catch (OWLOntologyCreationException e) {
+            throw new RuntimeException("Error while creating the module for validation", e);
+        }
+        var moduleReasoner = validator.createReasoner(moduleOntology);
+        try {
+            checkingReasoner = moduleReasoner;
+            cancellation.check();
+            var result = validator.checkConsistency(moduleOntology, moduleReasoner, lastAddedAxioms);
+            result.setModuleAxiomCount(module.size());
+            result.setOntologyAxiomCount(owlApiOntology.getAxiomCount());
+            logger.info("Checked module with {} of {} axioms", module.size(), owlApiOntology.getAxiomCount());
+            return result;
+        } finally {
+            moduleReasoner.dispose();
+        }
+    }
+
+    private void interruptCheck() {
+        var reasoner = checkingReasoner;
+        if (reasoner != null) {
+            reasoner.interrupt();
+        }
+    }
+
+    private void load(Model model, Cancellation cancellation) {
+        manager = validator.createOntologyManager();
+        owlApiOntology = validator.loadOntology(manager, model);
+        reasoner = validator.createReasoner(owlApiOntology);
+        checkingReasoner = reasoner;
+        cancellation.check();
+        // Classify right away, so later validations of this instance start from a warm reasoner
+        if (reasoner.isConsistent()) {
+            reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        }
+        lastAddedAxioms = Set.of();
+        logger.info("Loaded ontology with {} axioms for validation", owlApiOntology.getAxiomCount());
+    }
+
+    private void unload() {
+        reasoner.dispose();
+        manager.removeOntology(owlApiOntology);
+        reasoner = null;
+        owlApiOntology = null;
+    }
+
+    /**
+     * @return The version of the ontology graph the loaded ontology corresponds to, -1 if it is not known.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The number of axioms of the loaded ontology, 0 if nothing was validated yet.
+     */
+    public int getAxiomCount() {
+        return owlApiOntology == null ? 0 : owlApiOntology.getAxiomCount();
+    }
+
+    /**
+     * Release the reasoner and the loaded ontology.
+     */
+    public void dispose() {
+        if (reasoner != null) {
+            reasoner.dispose();
+            manager.removeOntology(owlApiOntology);
+        }
+        validator.dispose();
+        reasoner = null;
+        owlApiOntology = null;
+        version = -1;
+    }
+
+    /**
+     * Apply changes to the OWL API ontology.
+     * @return The axioms which were added and removed by the changes, or null if the changes could not be applied
+     *         and the ontology has to be loaded again.
+     */
+    private Axioms apply(GraphChanges changes, Graph context) {
+        var axioms = parse(changes, context);
+        if (axioms == null) return null;
+        axioms.added.removeIf(owlApiOntology::containsAxiom);
+        axioms.removed.removeIf(axiom -> !owlApiOntology.containsAxiom(axiom));
+        owlApiOntology.removeAxioms(axioms.removed);
+        owlApiOntology.addAxioms(axioms.added);
+        if (!changes.isEmpty()) {
+            logger.info("Applied {} added and {} removed triples to the ontology",
+                    changes.getAdded().size(), changes.getRemoved().size());
+        }
+        return axioms;
+    }
+
+    /**
+     * Get the axioms of changes which are already contained in the loaded ontology, to revert them later.
+     * @return The axioms which were added and removed by the changes, or null if they cannot be parsed.
+     */
+    private Axioms parseLoaded(GraphChanges changes, Graph context) {
+        var axioms = parse(changes, context);
+        if (axioms == null) return null;
+        axioms.added.removeIf(axiom -> !owlApiOntology.containsAxiom(axiom));
+        axioms.removed.removeIf(owlApiOntology::containsAxiom);
+        return axioms;
+    }
+
+    private Axioms parse(GraphChanges changes, Graph context) {
+        if (changes.isEmpty()) return new Axioms(new HashSet<>(), new HashSet<>());
+        var added = changes.getAdded();
+        var removed = changes.getRemoved();
+        if (changes.size() > owlApiOntology.getAxiomCount() || containsBlankNode(added) || containsBlankNode(removed)) {
+            return null;
+        }
+        try {
+            // Removed triples are not in the context anymore, but the declarations of their entities usually are
+            return new Axioms(parseAxioms(added, context), parseAxioms(removed, context));
+        } catch (RuntimeException e) {
+            logger.warn("Could not apply changes to the ontology incrementally", e);
+            return null;
+        }
+    }
+
+    /**
+     * Parse the axioms which are expressed by the given triples.
+     * The declarations of the entities in the triples are looked up in the context graph, so that the triples are
+     * mapped to the right axiom types (e.g. object property assertion instead of annotation assertion).
+     * Declarations only contained in the context are not part of the result.
+     */
+    private Set<OWLAxiom> parseAxioms(List<Triple> triples, Graph context) {
+        Set<Triple> changedTriples = new HashSet<>(triples);
+        Graph declarations = GraphFactory.createDefaultGraph();
+        for (var triple : triples) {
+            addDeclarations(declarations, context, changedTriples, triple.getSubject());
+            addDeclarations(declarations, context, changedTriples, triple.getPredicate());
+            addDeclarations(declarations, context, changedTriples, triple.getObject());
+        }
+        Graph changes = copy(declarations);
+        triples.forEach(changes::add);
+
+        var contextAxioms = parse(declarations);
+        var axioms = parse(changes);
+        axioms.removeAll(contextAxioms);
+        return axioms;
+    }
+
+    private void addDeclarations(Graph declarations, Graph context, Set<Triple> changedTriples, Node node) {
+        if (!node.isURI()) return;
+        context.find(node, RDF.type.asNode(), Node.ANY).forEachRemaining(triple -> {
+            if (!changedTriples.contains(triple)) declarations.add(triple);
+        });
+    }
+
+    private Set<OWLAxiom> parse(Graph graph) {
+        var scratchManager = validator.createOntologyManager();
+        var ontology = validator.loadOntology(scratchManager, ModelFactory.createModelForGraph(graph));
+        var axioms = ontology.axioms().collect(Collectors.toCollection(HashSet::new));
+        scratchManager.removeOntology(ontology);
+        return axioms;
+    }
+
+    private boolean containsBlankNode(List<Triple> triples) {
+        return triples.stream().anyMatch(triple -> triple.getSubject().isBlank() || triple.getObject().isBlank());
+    }
+
+    private static class Axioms {
+        private final Set<OWLAxiom> added;
+        private final Set<OWLAxiom> removed;
+
+        private Axioms(Set<OWLAxiom> added, Set<OWLAxiom> removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+
+    private Graph copy(Graph graph) {
+        Graph copy = GraphFactory.createDefaultGraph();
+        graph.find().forEachRemaining(copy::add);
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Win statistics of the reasoners racing in {@link ValidatorMode#RACE}, per ontology.
+ * Once one reasoner won most races of an ontology, it is used directly for this ontology, and the reasoners only
+ * race again now and then to notice if the other one became faster.
+ */
+public class RaceStatistics {
+
+    /**
+     * The racing reasoners.
+     */
+    public enum Contender {
+        HERMIT,
+        JFACT
+    }
+
+    private static final int MIN_RACES = 5;
+    private static final double MIN_WIN_RATE = 0.8;
+    private static final int RACE_INTERVAL = 20;
+
+    private final Map<String, OntologyStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Get the reasoner to use directly for the next validation of an ontology.
+     * @param ontologyName The name of the ontology.
+     * @return The reasoner, or null if the reasoners should race.
+     */
+    public Contender getPreferred(String ontologyName) {
+        return get(ontologyName).getPreferred();
+    }
+
+    public void recordRace(String ontologyName, Contender winner, long millis) {
+        get(ontologyName).recordRace(winner, millis);
+    }
+
+    public void recordDirectRun(String ontologyName) {
+        get(ontologyName).recordDirectRun();
+    }
+
+    /**
+     * @return The statistics of all ontologies by ontology name.
+     */
+    public Map<String, OntologyStatistics> getStatistics() {
+        return Map.copyOf(statistics);
+    }
+
+    private OntologyStatistics get(String ontologyName) {
+        return statistics.computeIfAbsent(ontologyName, name -> new OntologyStatistics());
+    }
+
+    /**
+     * Win statistics of one ontology.
+     */
+    @Getter
+    public static class OntologyStatistics {
+        private int hermitWins = 0;
+        private int jfactWins = 0;
+        private long hermitWinMillis = 0;
+        private long jfactWinMillis = 0;
+        private int directRuns = 0;
+        private int directRunsSinceRace = 0;
+
+        private synchronized Contender getPreferred() {
+            int races = hermitWins + jfactWins;
+            if (races < MIN_RACES || directRunsSinceRace >= RACE_INTERVAL) return null;
+            if (hermitWins >= races * MIN_WIN_RATE) return Contender.HERMIT;
+            if (jfactWins >= races * MIN_WIN_RATE) return Contender.JFACT;
+            return null;
+        }
+
+        private synchronized void recordRace(Contender winner, long millis) {
+            directRunsSinceRace = 0;
+            if (winner == Contender.HERMIT) {
+                hermitWins++;
+                hermitWinMillis += millis;
+            } else {
+                jfactWins++;
+                jfactWinMillis += millis;
+            }
+        }
+
+        private synchronized void recordDirectRun() {
+            directRuns++;
+            directRunsSinceRace++;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import fau.fdm.OntoFormGenerator.data.ValidationResult;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Validator which races HermiT and JFact on the same ontology and takes the answer of the reasoner finishing first.
+ * The reasoners perform very differently depending on the expressivity of the ontology - the loser is interrupted.
+ * The wins are recorded per ontology, and once one reasoner won most races of an ontology, it is used directly.
+ * The reasoner created by {@link #createReasoner} is the HermiT one (also used for explanations), the JFact reasoner
+ * is held by the validator itself.
+ */
+public class RaceValidator extends HermitValidator {
+
+    private static final ExecutorService RACE_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "reasoner-race");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger logger;
+
+    private final String ontologyName;
+    private final RaceStatistics statistics;
+
+    private final FactValidator factValidator = new FactValidator();
+    private OWLOntology factOntology;
+    private OWLReasoner factReasoner;
+
+    public RaceValidator(String ontologyName, RaceStatistics statistics) {
+        this.ontologyName = ontologyName;
+        this.statistics = statistics;
+        this.logger = LoggerFactory.getLogger(RaceValidator.class);
+    }
+
+    @Override
+    public ValidationResult checkConsistency(OWLOntology owlApiOntology, OWLReasoner reasoner,
+                                             Set<OWLAxiom> focusAxioms) {
+        var preferred = statistics.getPreferred(ontologyName);
+        boolean consistent;
+        if (preferred == RaceStatistics.Contender.HERMIT) {
+            statistics.recordDirectRun(ontologyName);
+            consistent = reasoner.isConsistent();
+        } else if (preferred == RaceStatistics.Contender.JFACT) {
+            statistics.recordDirectRun(ontologyName);
+            consistent = getFactReasoner(owlApiOntology).isConsistent();
+        } else {
+            consistent = race(reasoner, getFactReasoner(owlApiOntology));
+        }
+        if (consistent) {
+            return new ValidationResult(true, "");
+        }
+        return explainInconsistency(owlApiOntology, focusAxioms);
+    }
+
+    private boolean race(OWLReasoner hermitReasoner, OWLReasoner factReasoner) {
+        long start = System.currentTimeMillis();
+        CompletionService<Outcome> race = new ExecutorCompletionService<>(RACE_EXECUTOR);
+        var hermit = race.submit(() -> new Outcome(RaceStatistics.Contender.HERMIT, hermitReasoner.isConsistent()));
+        var fact = race.submit(() -> new Outcome(RaceStatistics.Contender.JFACT, factReasoner.isConsistent()));
+        Outcome winner = null;
+        RuntimeException failure = null;
+        try {
+            for (int i = 0; i < 2 && winner == null; i++) {
+                try {
+                    winner = race.take().get();
+                } catch (ExecutionException e) {
+                    failure = new RuntimeException("Reasoner failed during race", e.getCause());
+                    logger.warn("Reasoner failed during race", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new RuntimeException("Interrupted during reasoner race", e);
+        } finally {
+            if (winner == null || winner.contender != RaceStatistics.Contender.HERMIT) {
+                stop(hermitReasoner, hermit);
+            }
+            if ((winner == null || winner.contender != RaceStatistics.Contender.JFACT)
+                    && stop(factReasoner, fact)) {
+                // The interrupted reasoner is built again for the next validation
+                disposeFactReasoner();
+            }
+        }
+        if (winner == null) {
+            throw failure;
+        }
+        long millis = System.currentTimeMillis() - start;
+        statistics.recordRace(ontologyName, winner.contender, millis);
+        logger.info("{} won the reasoner race for ontology {} in {} ms", winner.contender, ontologyName, millis);
+        return winner.consistent;
+    }
+
+    /**
+     * Interrupt the losing reasoner and wait until it stopped - the ontology must not be changed while a reasoner
+     * still reads it.
+     * @return True if the reasoner had to be interrupted.
+     */
+    private boolean stop(OWLReasoner reasoner, Future<Outcome> outcome) {
+        if (outcome.isDone()) return false;
+        reasoner.interrupt();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                outcome.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                break;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return true;
+    }
+
+    private OWLReasoner getFactReasoner(OWLOntology owlApiOntology) {
+        if (factOntology != owlApiOntology) {
+            disposeFactReasoner();
+        }
+        if (factReasoner == null) {
+            factReasoner = factValidator.createReasoner(owlApiOntology);
+            factOntology = owlApiOntology;
+        }
+        factReasoner.flush();
+        return factReasoner;
+    }
+
+    private void disposeFactReasoner() {
+        if (factReasoner != null) {
+            factReasoner.dispose();
+        }
+        factReasoner = null;
+        factOntology = null;
+    }
+
+    @Override
+    public void dispose() {
+        disposeFactReasoner();
+    }
+
+    private static class Outcome {
+        private final RaceStatistics.Contender contender;
+        private final boolean consistent;
+
+        private Outcome(RaceStatistics.Contender contender, boolean consistent) {
+            this.contender = contender;
+            this.consistent = consistent;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pool of warm (loaded and classified) incremental validators per ontology and validator mode.
+ * A validator is leased exclusively for one validation and returned to the pool afterwards, so concurrent
+ * validations of the same ontology are served by different warm validators - up to a limit per ontology,
+ * further validations wait for a free one.
+ * Idle validators are evicted after a timeout by a periodic sweep, and the least recently used ones when all
+ * validators - idle and leased - exceed the axiom budget. After a schema change of an ontology ({@link #invalidate}),
+ * its validators are dropped and a new one is built and warmed up in the background.
+ * The pool also keeps a short log of the changes committed to each ontology ({@link #recordChanges}), so that a
+ * validator of an older version of the ontology can apply them instead of loading the ontology again.
+ */
+@Service
+public class ReasonerPool {
+
+    private final Logger logger;
+
+    private final TDBDatasetManager datasetManager;
+
+    @Value("${ontoformgenerator.reasonerPool.maxPerOntology:2}")
+    private int maxPerOntology;
+
+    @Value("${ontoformgenerator.reasonerPool.maxAxioms:2000000}")
+    private long maxAxioms;
+
+    @Value("${ontoformgenerator.reasonerPool.idleMinutes:30}")
+    private long idleMinutes;
+
+    @Value("${ontoformgenerator.reasonerPool.changeLogSize:64}")
+    private int changeLogSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private final Map<String, Pool> pools = new HashMap<>();
+    // The committed changes of each ontology by the version of the graph they were applied to, guarded by this
+    private final Map<String, NavigableMap<Long, CommittedChanges>> changeLogs = new HashMap<>();
+    private long idleAxioms = 0;
+    private long leasedAxioms = 0;
+
+    public ReasonerPool(TDBDatasetManager datasetManager) {
+        this.datasetManager = datasetManager;
+        this.logger = LoggerFactory.getLogger(ReasonerPool.class);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "reasoner-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Lease a validator for an ontology. Waits if all validators of the ontology are in use.
+     * The lease has to be closed after the validation, which returns the validator to the pool.
+     * @param ontologyName The name of the ontology.
+     * @param mode The validator mode.
+     * @param factory Creates a new validator, if there is no idle one.
+     * @param warmUp Validates the ontology once, to build and warm up a new validator in the background after the
+     *               validators of the ontology were invalidated.
+     * @return The lease of the validator.
+     */
+    public Lease acquire(String ontologyName, ValidatorMode mode, Supplier<IncrementalValidator> factory,
+                         Runnable warmUp) {
+        Pool pool;
+        synchronized (this) {
+            pool = pools.computeIfAbsent(ontologyName + "|" + mode, key -> new Pool(ontologyName));
+            pool.warmUp = warmUp;
+        }
+        try {
+            pool.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a validator", e);
+        }
+        Entry entry;
+        long generation;
+        synchronized (this) {
+            evictIdle();
+            entry = pool.idle.pollFirst();
+            if (entry != null) {
+                idleAxioms -= entry.axiomCount;
+                leasedAxioms += entry.axiomCount;
+            }
+            generation = pool.generation;
+        }
+        if (entry == null) {
+            logger.info("Creating validator for ontology {} in mode {}", ontologyName, mode);
+            try {
+                entry = new Entry(factory.get(), generation);
+            } catch (RuntimeException | Error e) {
+                pool.permits.release();
+                throw e;
+            }
+        }
+        return new Lease(pool, entry);
+    }
+
+    /**
+     * Drop the validators of an ontology after the current write transaction was committed, and warm up a new one
+     * for each validator mode of the ontology in the background.
+     * Has to be called by every write path which changes the schema (classes, properties) of an ontology.
+     * Validators which are in use are dropped when they are returned.
+     * @param ontologyName The name of the ontology.
+     */
+    public void invalidate(String ontologyName) {
+        datasetManager.afterCommit(() -> {
+            List<Runnable> warmUps = new ArrayList<>();
+            synchronized (this) {
+                for (var pool : pools.values()) {
+                    if (!pool.ontologyName.equals(ontologyName)) continue;
+                    pool.generation++;
+                    for (var entry : pool.idle) {
+                        idleAxioms -= entry.axiomCount;
+                        dispose(entry);
+                    }
+                    pool.idle.clear();
+                    if (pool.warmUp != null) warmUps.add(pool.warmUp);
+                }
+            }
+            for (var warmUp : warmUps) {
+                scheduler.execute(() -> {
+                    try {
+                        warmUp.run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Could not warm up a validator of ontology {}", ontologyName, e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Record the changes the current write transaction makes to an ontology, once it is committed.
+     * Has to be called at most once per transaction with all changes of the ontology graph - write paths which do
+     * not record their changes make the validators load the ontology again.
+     * @param ontologyName The name of the ontology.
+     * @param changes The changes of the ontology graph.
+     */
+    public void recordChanges(String ontologyName, GraphChanges changes) {
+        if (!datasetManager.isUpToDate(ontologyName)) {
+            // The ontology was marked as changed outside of a write transaction since this transaction started
+            logger.warn("Changes of ontology {} not recorded, its validators load it again", ontologyName);
+            return;
+        }
+        var from = datasetManager.getGraphVersion(ontologyName);
+        datasetManager.markChanged(ontologyName);
+        datasetManager.afterCommit(() -> {
+            // The version of the committed transaction
+            var to = datasetManager.getTransactionVersion();
+            synchronized (this) {
+                var log = changeLogs.computeIfAbsent(ontologyName, key -> new TreeMap<>());
+                log.put(from, new CommittedChanges(to, changes));
+                while (log.size() > changeLogSize) {
+                    log.pollFirstEntry();
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the changes committed to an ontology between two versions of its graph.
+     * @param ontologyName The name of the ontology.
+     * @param from The version of the graph to start from.
+     * @param to The version of the graph to end at.
+     * @return The combined changes, or null if not all changes between the versions were recorded.
+     */
+    public synchronized GraphChanges getCommittedChanges(String ontologyName, long from, long to) {
+        if (from == to) return GraphChanges.none();
+        var log = changeLogs.get(ontologyName);
+        if (log == null || from < 0) return null;
+        var changes = GraphChanges.none();
+        var version = from;
+        while (version < to) {
+            var entry = log.get(version);
+            if (entry == null) return null;
+            changes = changes.then(entry.changes);
+            version = entry.version;
+        }
+        return version == to ? changes : null;
+    }
+
+    private synchronized void release(Pool pool, Entry entry, boolean discard) {
+        try {
+            leasedAxioms -= entry.axiomCount;
+            if (discard || entry.generation != pool.generation) {
+                dispose(entry);
+                return;
+            }
+            entry.axiomCount = entry.validator.getAxiomCount();
+            entry.lastUsed = System.nanoTime();
+            pool.idle.addFirst(entry);
+            idleAxioms += entry.axiomCount;
+            evictIdle();
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    /**
+     * Evict the idle validators, which exceeded the idle timeout or the axiom budget, without waiting for the next
+     * acquire or release. Executed periodically.
+     */
+    synchronized void sweep() {
+        evictIdle();
+    }
+
+    /**
+     * Evict the idle validators which exceeded the idle timeout, and the least recently used ones while all
+     * validators exceed the axiom budget. Leased validators count with their size when they were leased.
+     */
+    private void evictIdle() {
+        long idleSince = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleMinutes);
+        for (var pool : pools.values()) {
+            while (!pool.idle.isEmpty() && pool.idle.peekLast().lastUsed < idleSince) {
+                var entry = pool.idle.pollLast();
+                idleAxioms -= entry.axiomCount;
+                dispose(entry);
+            }
+        }
+        while (idleAxioms + leasedAxioms > maxAxioms) {
+            Pool leastRecentlyUsed = null;
+            for (var pool : pools.values()) {
+                if (pool.idle.isEmpty()) continue;
+                if (leastRecentlyUsed == null
+                        || pool.idle.peekLast().lastUsed < leastRecentlyUsed.idle.peekLast().lastUsed) {
+                    leastRecentlyUsed = pool;
+                }
+            }
+            if (leastRecentlyUsed == null) break;
+            var entry = leastRecentlyUsed.idle.pollLast();
+            idleAxioms -= entry.axiomCount;
+            dispose(entry);
+        }
+    }
+
+    private void dispose(Entry entry) {
+        entry.validator.dispose();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        scheduler.shutdownNow();
+        for (var pool : pools.values()) {
+            new ArrayList<>(pool.idle).forEach(this::dispose);
+            pool.idle.clear();
+        }
+        idleAxioms = 0;
+    }
+
+    /**
+     * Exclusive lease of a pooled validator, which returns the validator to the pool on close.
+     */
+    public class Lease implements AutoCloseable {
+        private final Pool pool;
+        private final Entry entry;
+        private boolean closed = false;
+        private boolean discard = false;
+
+        private Lease(Pool pool, Entry entry) {
+            this.pool = pool;
+            this.entry = entry;
+        }
+
+        public IncrementalValidator getValidator() {
+            return entry.validator;
+        }
+
+        /**
+         * Drop the validator instead of returning it to the pool, e.g. if the validation failed and left it in an
+         * unknown state.
+         */
+        public void discard() {
+            discard = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            release(pool, entry, discard);
+        }
+    }
+
+    private class Pool {
+        private final String ontologyName;
+        private final Semaphore permits = new Semaphore(maxPerOntology, true);
+        // Most recently used first
+        private final Deque<Entry> idle = new ArrayDeque<>();
+        private long generation = 0;
+        private Runnable warmUp;
+
+        private Pool(String ontologyName) {
+            this.ontologyName = ontologyName;
+        }
+    }
+
+    private static class CommittedChanges {
+        // The version of the graph after the changes
+        private final long version;
+        private final GraphChanges changes;
+
+        private CommittedChanges(long version, GraphChanges changes) {
+            this.version = version;
+            this.changes = changes;
+        }
+    }
+
+    private static class Entry {
+        private final IncrementalValidator validator;
+        private final long generation;
+        private long axiomCount = 0;
+        private long lastUsed;
+
+        private Entry(IncrementalValidator validator, long generation) {
+            this.validator = validator;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Local index of related terms, used to detect properties similar to a new property.
+ * The index is loaded once from a word list, configurable with ontoformgenerator.synonyms.file. By default, this is the
+ * bundled general-purpose synonyms.txt, in which every line is a group of related terms separated by commas. The
+ * prolog file wn_s.pl of the WordNet database is read as well, then the terms of every synset are a group.
+ * Word lists contain base forms, so the words of a property name are looked up by their base form, and the related
+ * terms are extended by their regular inflections - "hasPurchasedBeverage" is related to "ordered" and "drinks".
+ * The related terms of the most recently used property names are cached.
+ */
+@Service
+public class SynonymIndex {
+
+    /**
+     * Words of property names without meaning of their own, which are not looked up.
+     */
+    private static final Set<String> STOP_WORDS = Set.of("has", "is", "of", "the", "a", "an", "in", "on", "for",
+            "to", "by", "with", "at");
+
+    // A line of wn_s.pl: s(synset_id,w_num,'word',ss_type,sense_number,tag_count).
+    private static final Pattern WORDNET_LINE = Pattern.compile("^s\\((\\d+),\\d+,'((?:[^']|'')*)',.*");
+
+    private final Logger logger;
+
+    private final Map<String, Set<String>> relatedTerms = new HashMap<>();
+
+    private final Map<String, List<String>> cache;
+
+    public SynonymIndex(@Value("${ontoformgenerator.synonyms.file:classpath:synonyms.txt}") Resource wordList,
+                        @Value("${ontoformgenerator.synonyms.cacheSize:1000}") int cacheSize) {
+        this.logger = LoggerFactory.getLogger(SynonymIndex.class);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        load(wordList);
+    }
+
+    /**
+     * Get the related terms of the words of a property name - the words themselves are not included.
+     * @param propertyName The name of the property, e.g. "hasOrderedDrink" or "has_ordered_drink".
+     * @return The related terms, e.g. "purchased" and "beverage".
+     */
+    public List<String> getRelatedTerms(String propertyName) {
+        return cache.computeIfAbsent(propertyName, name -> {
+            var words = splitWords(name);
+            Set<String> terms = new LinkedHashSet<>();
+            for (int i = 0; i < words.size(); i++) {
+                // Terms of two words, e.g. "first name"
+                if (i + 1 < words.size()) {
+                    terms.addAll(relatedTerms.getOrDefault(words.get(i) + " " + words.get(i + 1), Set.of()));
+                }
+                if (!STOP_WORDS.contains(words.get(i))) {
+                    for (var term : lookup(words.get(i))) {
+                        terms.add(term);
+                        if (!term.contains(" ")) terms.addAll(inflections(term));
+                    }
+                }
+            }
+            words.forEach(terms::remove);
+            return List.copyOf(terms);
+        });
+    }
+
+    /**
+     * @return The related terms of all base forms of a word contained in the index.
+     */
+    private Set<String> lookup(String word) {
+        Set<String> related = new LinkedHashSet<>();
+        for (var baseForm : baseForms(word)) {
+            related.addAll(relatedTerms.getOrDefault(baseForm, Set.of()));
+        }
+        return related;
+    }
+
+    /**
+     * @return The word itself and its possible base forms if it is a regular plural, past or gerund form.
+     */
+    private static List<String> baseForms(String word) {
+        List<String> baseForms = new ArrayList<>();
+        baseForms.add(word);
+        if (word.endsWith("ies") || word.endsWith("ied")) {
+            baseForms.add(word.substring(0, word.length() - 3) + "y");
+        }
+        if (word.endsWith("es")) baseForms.add(word.substring(0, word.length() - 2));
+        if (word.endsWith("s")) baseForms.add(word.substring(0, word.length() - 1));
+        if (word.endsWith("ed")) {
+            baseForms.add(word.substring(0, word.length() - 1));
+            addStem(baseForms, word.substring(0, word.length() - 2));
+        }
+        if (word.endsWith("ing")) {
+            addStem(baseForms, word.substring(0, word.length() - 3));
+            baseForms.add(word.substring(0, word.length() - 3) + "e");
+        }
+        return baseForms;
+    }
+
+    private static void addStem(List<String> baseForms, String stem) {
+        if (stem.isEmpty()) return;
+        baseForms.add(stem);
+        // "shipped" -> "ship"
+        int length = stem.length();
+        if (length > 2 && stem.charAt(length - 1) == stem.charAt(length - 2)) {
+            baseForms.add(stem.substring(0, length - 1));
+        }
+    }
+
+    /**
+     * @return The regular plural, past and gerund forms of a base form.
+     */
+    private static List<String> inflections(String baseForm) {
+        int length = baseForm.length();
+        boolean consonantY = length > 1 && baseForm.endsWith("y") && "aeiou".indexOf(baseForm.charAt(length - 2)) < 0;
+        var stem = consonantY ? baseForm.substring(0, length - 1) : baseForm;
+        String plural;
+        if (consonantY) {
+            plural = stem + "ies";
+        } else if (baseForm.matches(".*(s|x|z|ch|sh)")) {
+            plural = baseForm + "es";
+        } else {
+            plural = baseForm + "s";
+        }
+        var past = consonantY ? stem + "ied" : baseForm.endsWith("e") ? baseForm + "d" : baseForm + "ed";
+        var gerund = baseForm.endsWith("e") && !baseForm.endsWith("ee") ? baseForm.substring(0, length - 1) + "ing"
+                : baseForm + "ing";
+        return List.of(plural, past, gerund);
+    }
+
+    private void load(Resource wordList) {
+        try (var reader = new BufferedReader(new InputStreamReader(wordList.getInputStream(), StandardCharsets.UTF_8))) {
+            // Terms of the WordNet synsets by synset id
+            Map<String, List<String>> synsets = new LinkedHashMap<>();
+            String line;
+            int groups = 0;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                var wordnetLine = WORDNET_LINE.matcher(line);
+                if (wordnetLine.matches()) {
+                    synsets.computeIfAbsent(wordnetLine.group(1), id -> new ArrayList<>())
+                            .add(wordnetLine.group(2).replace("''", "'").replace('_', ' '));
+                    continue;
+                }
+                // Malformed line of a WordNet file
+                if (line.startsWith("s(")) continue;
+                addGroup(Arrays.asList(line.split(",")));
+                groups++;
+            }
+            for (var synset : synsets.values()) {
+                addGroup(synset);
+            }
+            groups += synsets.size();
+            logger.info("Loaded {} groups of related terms from {}", groups, wordList.getDescription());
+        } catch (IOException e) {
+            // Similar properties are then not detected, property creation still works
+            logger.error("Could not load related terms from {}", wordList.getDescription(), e);
+        }
+    }
+
+    private void addGroup(List<String> terms) {
+        List<String> group = new ArrayList<>();
+        for (var term : terms) {
+            term = term.trim().toLowerCase(Locale.ROOT);
+            if (!term.isEmpty()) group.add(term);
+        }
+        for (var term : group) {
+            var related = relatedTerms.computeIfAbsent(term, t -> new LinkedHashSet<>());
+            group.stream().filter(other -> !other.equals(term)).forEach(related::add);
+        }
+    }
+
+    private static List<String> splitWords(String name) {
+        List<String> words = new ArrayList<>();
+        for (var word : name.split("[^\\p{L}\\p{N}]+|(?<=\\p{Ll})(?=\\p{Lu})")) {
+            if (!word.isEmpty()) words.add(word.toLowerCase(Locale.ROOT));
+        }
+        return words;
+    }
+}
@@ -2,25 +2,194 @@ package fau.fdm.OntoFormGenerator.validation;
 
 import fau.fdm.OntoFormGenerator.data.ValidationResult;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.NTriplesDocumentFormat;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.manchestersyntax.renderer.ManchesterOWLSyntaxOWLObjectRendererImpl;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 /**
  * Represents an OWL reasoning validator.
  */
 public abstract class Validator {
 
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    // Parses the piped ontology documents - the model itself has to be written in the calling thread,
+    // because TDB transactions are bound to the thread which started them
+    private static final ExecutorService PARSER_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "ontology-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long explanationTimeoutMillis = 10_000;
+    private int explanationMaxReasonerCalls = 500;
+
     /**
      * Validates the given model, and checks if the knowledge base is consistent or not.
      * @param model The OWL model to validate.
      * @return The validation result containing a boolean flag for consistency and explanation axioms if inconsistent.
      */
-    public abstract ValidationResult validate(Model model);
+    public ValidationResult validate(Model model) {
+        OWLOntologyManager manager = createOntologyManager();
+        OWLOntology owlApiOntology = loadOntology(manager, model);
+        var reasoner = createReasoner(owlApiOntology);
+        return checkConsistency(owlApiOntology, reasoner, Set.of());
+    }
+
+    /**
+     * Create a new reasoner for the given ontology.
+     * Changes of the ontology are buffered and only applied to the reasoner on {@link OWLReasoner#flush()}.
+     * @param owlApiOntology The ontology to reason about.
+     * @return The reasoner.
+     */
+    public abstract OWLReasoner createReasoner(OWLOntology owlApiOntology);
+
+    /**
+     * Create the factory of the reasoners used to explain inconsistencies.
+     * @return The reasoner factory.
+     */
+    public abstract OWLReasonerFactory createReasonerFactory();
+
+    /**
+     * Create the configuration of a reasoner used to explain inconsistencies.
+     * @param timeoutMillis The timeout of the reasoner in milliseconds.
+     * @return The reasoner configuration.
+     */
+    public abstract OWLReasonerConfiguration createReasonerConfiguration(long timeoutMillis);
+
+    /**
+     * Set the budget for explaining an inconsistency.
+     * @param timeoutMillis The maximum wall-clock time of an explanation in milliseconds.
+     * @param maxReasonerCalls The maximum number of reasoner calls of an explanation.
+     */
+    public void setExplanationBudget(long timeoutMillis, int maxReasonerCalls) {
+        this.explanationTimeoutMillis = timeoutMillis;
+        this.explanationMaxReasonerCalls = maxReasonerCalls;
+    }
+
+    /**
+     * Check if the ontology of the given reasoner is consistent and explain the inconsistency if not.
+     * @param owlApiOntology The ontology to check.
+     * @param reasoner The reasoner of the ontology, with all changes flushed.
+     * @param focusAxioms The axioms an inconsistency is expected around (e.g. the last changes), may be empty.
+     * @return The validation result containing a boolean flag for consistency and explanation axioms if inconsistent.
+     */
+    public ValidationResult checkConsistency(OWLOntology owlApiOntology, OWLReasoner reasoner,
+                                             Set<OWLAxiom> focusAxioms) {
+        if (reasoner.isConsistent()) {
+            return new ValidationResult(true, "");
+        }
+        return explainInconsistency(owlApiOntology, focusAxioms);
+    }
+
+    /**
+     * Explain the inconsistency of an ontology within the explanation budget.
+     * @param owlApiOntology The inconsistent ontology.
+     * @param focusAxioms The axioms an inconsistency is expected around (e.g. the last changes), may be empty.
+     * @return The validation result with the axioms causing the inconsistency, if found in time.
+     */
+    protected ValidationResult explainInconsistency(OWLOntology owlApiOntology, Set<OWLAxiom> focusAxioms) {
+        var explanationGenerator = new ExplanationGenerator(this, explanationTimeoutMillis,
+                explanationMaxReasonerCalls);
+        var justification = explanationGenerator.explain(owlApiOntology, focusAxioms);
+        StringBuilder explaination = new StringBuilder("Knowledge base is inconsistent.\n");
+        if (justification == null) {
+            explaination.append("The axioms causing the inconsistency could not be determined in time.");
+            return new ValidationResult(false, explaination.toString());
+        }
+        var renderer = new ManchesterOWLSyntaxOWLObjectRendererImpl();
+        explaination.append("Axioms causing the inconsistency:\n\n\n");
+        for (OWLAxiom causingAxiom : justification) {
+            explaination.append(renderer.render(causingAxiom)).append("\n\n");
+        }
+        return new ValidationResult(false, explaination.toString());
+    }
+
+    /**
+     * Release the resources held by the validator besides the reasoners created by {@link #createReasoner}.
+     */
+    public void dispose() {
+    }
+
+    /**
+     * Extract the star module (the fixpoint of top and bottom locality modules) of an ontology for a signature.
+     * Every model of the module can be extended to a model of the ontology, so the ontology is consistent if the
+     * module is, and the module of an inconsistent ontology is inconsistent as well.
+     * @param owlApiOntology The ontology.
+     * @param signature The signature to extract the module for.
+     * @return The axioms of the module.
+     */
+    public Set<OWLAxiom> extractModule(OWLOntology owlApiOntology, Stream<OWLEntity> signature) {
+        var extractor = new SyntacticLocalityModuleExtractor(owlApiOntology.getOWLOntologyManager(),
+                owlApiOntology.axioms(), ModuleType.STAR);
+        return extractor.extract(signature);
+    }
+
+    /**
+     * Create an ontology manager, which ignores imports that cannot be loaded.
+     * @return The ontology manager.
+     */
+    public OWLOntologyManager createOntologyManager() {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        manager.getOntologyConfigurator().setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+        return manager;
+    }
 
-    protected ByteArrayInputStream transformModelToInputStream(Model tdbModel) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        tdbModel.write(outputStream, "RDF/XML");
-        return new ByteArrayInputStream(outputStream.toByteArray());
+    /**
+     * Load a Jena model into the given ontology manager.
+     * The model is streamed as N-Triples through a pipe into the OWL API parser, so that no serialized copy of the
+     * whole model is held in memory.
+     * @param manager The ontology manager.
+     * @param model The Jena model to load.
+     * @return The loaded OWL API ontology.
+     */
+    public OWLOntology loadOntology(OWLOntologyManager manager, Model model) {
+        PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+        Future<OWLOntology> parsedOntology;
+        try (PipedOutputStream outputStream = new PipedOutputStream(inputStream)) {
+            parsedOntology = PARSER_EXECUTOR.submit(() -> {
+                // Closing the pipe on the reading side lets the writer fail instead of blocking, if parsing fails
+                try (inputStream) {
+                    return manager.loadOntologyFromOntologyDocument(new StreamDocumentSource(inputStream,
+                            IRI.getNextDocumentIRI("inputstream:ontology"), new NTriplesDocumentFormat(),
+                            "application/n-triples"));
+                }
+            });
+            try {
+                RDFDataMgr.write(outputStream, model, Lang.NTRIPLES);
+            } catch (RuntimeException e) {
+                // Writing failed because the parser closed the pipe - the parser error is reported below
+                if (!(e.getCause() instanceof IOException)) throw e;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while loading ontology", e);
+        }
+        try {
+            return parsedOntology.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading ontology", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while loading ontology", e.getCause());
+        }
     }
 }
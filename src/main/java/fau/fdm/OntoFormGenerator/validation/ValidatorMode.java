@@ -2,9 +2,13 @@ package fau.fdm.OntoFormGenerator.validation;
 
 /**
  * Enum for the different validators.
- * Currently, the following validators are supported: HermiT, JFact (no explanation for inconsistent ontologies).
+ * Currently, the following validators are supported: HermiT, JFact (no explanation for inconsistent ontologies),
+ * and HermiT on the locality-based module around the changes of each validation (with a periodic check of the whole
+ * ontology), and a race of HermiT and JFact which takes the first answer.
  */
 public enum ValidatorMode {
     HERMIT,
-    JFACT
+    JFACT,
+    HERMIT_MODULE,
+    RACE
 }
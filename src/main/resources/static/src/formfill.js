@@ -58,6 +58,7 @@ function initFormFiller() {
         if (setElements) {
             loadDraft();
         }
+        $('#fillform').on('input change', scheduleAutosave);
         JsLoadingOverlay.hide();
     });
 }
@@ -70,11 +71,10 @@ function initFormFiller() {
 // Draft functionality
 
 /**
- * Creates a draft of the form and returns a promise that resolves when the draft is created
- * @returns {Promise<Response>} a promise that resolves when the draft is created containing the response of the server
- *  to the draft creation request
+ * Builds the query parameter and the JSON body of a draft request from the current state of the form
+ * @returns {{draftParam: string, formJSON: string}} the query parameter and the body of the request
  */
-async function createDraft() {
+function buildDraftRequest() {
     const form = document.querySelector('#fillform');
     const formData = new FormData(form);
     if (formData.get('instanceName') === '') {
@@ -112,15 +112,49 @@ async function createDraft() {
         throw 0;
     }
     let formJSON = JSON.stringify(formString);
-    return fetch(`/api/forms/${formName}/draft${draftParam}`, {
+    return {draftParam: draftParam, formJSON: formJSON};
+}
+
+/**
+ * Creates a draft of the form and returns a promise that resolves when the draft is created
+ * @returns {Promise<Response>} a promise that resolves when the draft is created containing the response of the server
+ *  to the draft creation request
+ */
+async function createDraft() {
+    clearTimeout(autosaveTimeout);
+    const request = buildDraftRequest();
+    return fetch(`/api/forms/${formName}/draft${request.draftParam}`, {
         method: 'POST',
         headers: {
             'Content-Type': 'application/json',
         },
-        body: formJSON,
+        body: request.formJSON,
     });
 }
 
+let autosaveTimeout = null;
+
+/**
+ * Autosaves an existing draft one second after the last change of the form.
+ * The server buffers the autosaves and writes them in batches, so frequent autosaves are cheap
+ */
+function scheduleAutosave() {
+    if (!draftName) {
+        return;
+    }
+    clearTimeout(autosaveTimeout);
+    autosaveTimeout = setTimeout(() => {
+        const request = buildDraftRequest();
+        fetch(`/api/forms/${formName}/draft/autosave${request.draftParam}`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+            },
+            body: request.formJSON,
+        });
+    }, 1000);
+}
+
 /**
  * Loads a draft of the form and refills the fields for that if one exists
  */
@@ -594,6 +628,7 @@ function checkInputValidity() {
  * @param validate whether the knowledge base with the new individual should be validated before saving
  */
 async function saveForm(validate) {
+    clearTimeout(autosaveTimeout);
     JsLoadingOverlay.show({'spinnerIcon': 'ball-clip-rotate'});
     if (validate) {
         await createDraft();
@@ -614,6 +649,12 @@ async function saveForm(validate) {
         },
         body: formJson
     }).then(async function (response) {
+        if (response.status === 202) {
+            // The validation runs as a job, poll it until it is finished
+            let jobId = await response.text();
+            pollValidationJob(jobId);
+            return;
+        }
         JsLoadingOverlay.hide();
         if (response.ok) {
             location.href = '/';
@@ -623,3 +664,28 @@ async function saveForm(validate) {
         }
     });
 }
+
+function pollValidationJob(jobId) {
+    fetch(`/api/validation/jobs/${jobId}`).then(async function (response) {
+        if (!response.ok) {
+            JsLoadingOverlay.hide();
+            alert('The validation job could not be found.');
+            return;
+        }
+        let job = await response.json();
+        switch (job.status) {
+            case 'SUCCEEDED':
+                JsLoadingOverlay.hide();
+                location.href = '/';
+                break;
+            case 'FAILED':
+            case 'TIMED_OUT':
+            case 'ERROR':
+                JsLoadingOverlay.hide();
+                alert(job.result ? job.result.reason : 'An error occurred while validating the ontology.');
+                break;
+            default:
+                setTimeout(() => pollValidationJob(jobId), 1000);
+        }
+    });
+}
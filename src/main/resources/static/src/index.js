@@ -18,16 +18,23 @@ function deleteOntology(ontologyName, ontologyIri) {
 
 // Form section
 
+const DRAFT_PAGE_SIZE = 50;
+
 /**
- * Populates the draft list of the form with the given name.
+ * Populates the draft list of the form with the given name, one page at a time.
  * @param buttonId the id of the button that was clicked to show the drafts (at the corresponding form)
+ * @param page the page of drafts to load - page 0 clears the list, later pages are appended
  */
-async function showDrafts(buttonId) {
+async function showDrafts(buttonId, page = 0) {
     let formName = buttonId.replace('show-drafts-button-', '');
-    let i = forms.findIndex(form => form.formName === formName);
-    let drafts = formDrafts[i];
+    let drafts = await fetch('/api/forms/' + formName + '/drafts?page=' + page + '&size=' + DRAFT_PAGE_SIZE)
+        .then(response => response.json());
     let showDraftsList = document.querySelector('#showDraftsList');
-    showDraftsList.innerHTML = '';
+    if (page === 0) {
+        showDraftsList.innerHTML = '';
+    } else {
+        showDraftsList.querySelector('.show-more-drafts')?.remove();
+    }
     for (let i = 0; i < drafts.length; i++) {
         let draft = drafts[i];
         let listItem = document.createElement('li');
@@ -43,6 +50,16 @@ async function showDrafts(buttonId) {
                                         <i class="material-icons">delete</i></button>`
         showDraftsList.appendChild(listItem);
     }
+    if (drafts.length === DRAFT_PAGE_SIZE) {
+        let moreItem = document.createElement('li');
+        moreItem.classList.add('mdl-list__item', 'show-more-drafts');
+        let moreButton = document.createElement('button');
+        moreButton.classList.add('mdl-button', 'mdl-js-button');
+        moreButton.textContent = 'Show more';
+        moreButton.addEventListener('click', () => showDrafts(buttonId, page + 1));
+        moreItem.appendChild(moreButton);
+        showDraftsList.appendChild(moreItem);
+    }
 }
 
 /**
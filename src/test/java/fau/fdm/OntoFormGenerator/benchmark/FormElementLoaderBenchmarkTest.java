@@ -0,0 +1,151 @@
+package fau.fdm.OntoFormGenerator.benchmark;
+
+import fau.fdm.OntoFormGenerator.OntoFormGeneratorApplication;
+import fau.fdm.OntoFormGenerator.service.FormEditorService;
+import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
+import fau.fdm.OntoFormGenerator.tdb.IndividualService;
+import fau.fdm.OntoFormGenerator.tdb.PropertyService;
+import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+/**
+ * Compares the cost of loading the form elements of a form (done on every editor, fill and draft page load) against
+ * the number of elements: the former lookups with about ten service calls per element against the single query of
+ * {@link FormEditorService#getAllFormElementsOfForm}.
+ * The forms are copies of the elements of the OrderForm and only created inside a write transaction which is aborted
+ * afterwards.
+ * Only runs on demand, with {@code mvn test -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = OntoFormGeneratorApplication.class)
+@TestPropertySource(
+        locations = "classpath:application-test.properties")
+public class FormElementLoaderBenchmarkTest {
+
+    private static final String FORMS = "http://www.semanticweb.org/fau/ontologies/2024/ontoformgenerator/forms#";
+    private static final int[] ELEMENT_COUNTS = {10, 100, 500};
+    private static final int ROUNDS = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(FormElementLoaderBenchmarkTest.class);
+
+    @Autowired
+    private TDBDatasetManager datasetManager;
+
+    @Autowired
+    private GeneralTDBService generalTDBService;
+
+    @Autowired
+    private IndividualService individualService;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private FormEditorService formEditorService;
+
+    @Test
+    public void formElementLoaderBenchmark() {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            var dataset = connection.getDataset();
+            for (int elementCount : ELEMENT_COUNTS) {
+                var formName = createForm(dataset, elementCount);
+
+                long perCallNanos = Long.MAX_VALUE;
+                long queryNanos = Long.MAX_VALUE;
+                int perCallElements = 0;
+                int queryElements = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    perCallElements = loadWithServiceCalls(dataset, formName);
+                    perCallNanos = Math.min(perCallNanos, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    queryElements = formEditorService.getAllFormElementsOfForm(dataset, formName).size();
+                    queryNanos = Math.min(queryNanos, System.nanoTime() - start);
+                }
+                logger.info("Form elements of a form with {} elements: service calls {} ms, single query {} ms",
+                        elementCount, perCallNanos / 1_000_000.0, queryNanos / 1_000_000.0);
+                Assertions.assertEquals(elementCount, perCallElements);
+                Assertions.assertEquals(elementCount, queryElements);
+            }
+        }
+    }
+
+    private String createForm(Dataset dataset, int elementCount) {
+        var forms = dataset.getNamedModel("forms");
+        var orderForm = forms.getResource(generalTDBService.getIndividualURIInOntology(dataset, "forms",
+                "OrderForm"));
+        var hasFormElement = forms.getProperty(FORMS + "hasFormElement");
+        var hasPositionInForm = forms.getProperty(FORMS + "hasPositionInForm");
+        List<Statement> templates = orderForm.listProperties(hasFormElement).toList();
+
+        var formName = "BenchmarkForm" + elementCount;
+        var form = forms.createResource(FORMS + formName);
+        orderForm.listProperties().forEachRemaining(statement -> {
+            if (!statement.getPredicate().equals(hasFormElement)) {
+                form.addProperty(statement.getPredicate(), statement.getObject());
+            }
+        });
+        for (int i = 0; i < elementCount; i++) {
+            var template = templates.get(i % templates.size()).getResource();
+            var element = forms.createResource(FORMS + formName + "Element" + i);
+            template.listProperties().forEachRemaining(statement -> {
+                if (!statement.getPredicate().equals(RDFS.label)
+                        && !statement.getPredicate().equals(hasPositionInForm)) {
+                    element.addProperty(statement.getPredicate(), statement.getObject());
+                }
+            });
+            element.addProperty(RDFS.label, "field" + i);
+            element.addLiteral(hasPositionInForm, forms.createTypedLiteral(i));
+            form.addProperty(hasFormElement, element);
+        }
+        return formName;
+    }
+
+    /**
+     * The lookups of the form elements before the single query - one service call per attribute of each element.
+     */
+    private int loadWithServiceCalls(Dataset dataset, String formName) {
+        var form = individualService.getIndividualByLocalName(dataset, "forms", formName);
+        var formElements = propertyService.getMultipleObjectPropertyValuesFromIndividual(dataset,
+                "forms", form, "hasFormElement");
+        var ontologyName = propertyService.getObjectPropertyValueFromIndividual(dataset,
+                "forms", form, "targetsOntology").getLocalName();
+        int loaded = 0;
+        for (var formElement : formElements) {
+            propertyService.getLabelOfIndividual(dataset, "forms", formElement.getURI());
+            var formElementIndividual = individualService.getIndividualByIri(dataset, "forms", formElement.getURI());
+            formElementIndividual.getOntClass().getLocalName();
+            for (var attribute : List.of("isObjectProperty", "hasPositionInForm", "hasMaximumValues",
+                    "hasMinimumValues", "required")) {
+                propertyService.getDatatypePropertyValueFromIndividual(dataset, "forms", formElementIndividual,
+                        attribute);
+            }
+            var targetField = propertyService.getObjectPropertyValueFromIndividual(dataset,
+                    "forms", formElementIndividual, "targetsField");
+            var property = propertyService.getPropertyFromOntologyByIRI(dataset, ontologyName, targetField.getURI());
+            property.getRange();
+            loaded++;
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,103 @@
+package fau.fdm.OntoFormGenerator.benchmark;
+
+import fau.fdm.OntoFormGenerator.OntoFormGeneratorApplication;
+import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
+import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.XSD;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Compares the property kind lookups of the edit page of an individual with 200 property values:
+ * one model scan per value (as done before the property kind table) against one table lookup per value.
+ * The ontology is only created inside a write transaction which is aborted afterwards.
+ * Only runs on demand, with {@code mvn test -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = OntoFormGeneratorApplication.class)
+@TestPropertySource(
+        locations = "classpath:application-test.properties")
+public class PropertyKindBenchmarkTest {
+
+    private static final String ONTOLOGY_NAME = "propertyKindBenchmark";
+    private static final String NS = "http://ontologies.ontoformgenerator.de/PropertyKindBenchmark#";
+    private static final int PROPERTY_COUNT = 200;
+    private static final int ROUNDS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(PropertyKindBenchmarkTest.class);
+
+    @Autowired
+    private TDBDatasetManager datasetManager;
+
+    @Autowired
+    private GeneralTDBService generalTDBService;
+
+    @Test
+    public void propertyKindLookupBenchmark() {
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            var dataset = connection.getDataset();
+            OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+            var thing = model.createClass(NS + "Thing");
+            var individual = model.createIndividual(NS + "individual", thing);
+            for (int i = 0; i < PROPERTY_COUNT; i++) {
+                if (i % 2 == 0) {
+                    var property = model.createObjectProperty(NS + "objectProperty" + i);
+                    individual.addProperty(property, model.createIndividual(NS + "value" + i, thing));
+                } else {
+                    var property = model.createDatatypeProperty(NS + "datatypeProperty" + i);
+                    property.addRange(XSD.xstring);
+                    individual.addLiteral(property, "value" + i);
+                }
+            }
+            dataset.addNamedModel(ONTOLOGY_NAME, model);
+
+            var propertyURIs = dataset.getNamedModel(ONTOLOGY_NAME).getResource(individual.getURI())
+                    .listProperties().mapWith(stmt -> stmt.getPredicate().getURI()).toList();
+
+            long scanNanos = Long.MAX_VALUE;
+            long tableNanos = Long.MAX_VALUE;
+            int scanObjectProperties = 0;
+            int tableObjectProperties = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                scanObjectProperties = 0;
+                for (var propertyURI : propertyURIs) {
+                    var ontModel = generalTDBService.getOntModel(dataset.getNamedModel(ONTOLOGY_NAME));
+                    if (ontModel.listObjectProperties().filterKeep(p -> p.getURI().equals(propertyURI)).hasNext())
+                        scanObjectProperties++;
+                }
+                scanNanos = Math.min(scanNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                tableObjectProperties = 0;
+                var propertyKinds = generalTDBService.getPropertyKinds(dataset, ONTOLOGY_NAME);
+                for (var propertyURI : propertyURIs) {
+                    if (propertyKinds.isObjectProperty(propertyURI))
+                        tableObjectProperties++;
+                }
+                tableNanos = Math.min(tableNanos, System.nanoTime() - start);
+            }
+
+            logger.info("Property kinds of {} values: model scan {} ms, property kind table {} ms",
+                    propertyURIs.size(), scanNanos / 1_000_000.0, tableNanos / 1_000_000.0);
+            Assertions.assertEquals(PROPERTY_COUNT / 2, scanObjectProperties);
+            Assertions.assertEquals(scanObjectProperties, tableObjectProperties);
+        }
+    }
+}
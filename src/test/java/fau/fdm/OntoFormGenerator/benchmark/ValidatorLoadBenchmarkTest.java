@@ -0,0 +1,95 @@
+package fau.fdm.OntoFormGenerator.benchmark;
+
+import fau.fdm.OntoFormGenerator.validation.HermitValidator;
+import fau.fdm.OntoFormGenerator.validation.Validator;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Compares loading a Jena model into OWL API via the former RDF/XML byte array round trip with the piped
+ * N-Triples stream of {@link Validator#loadOntology}, for the restaurant ontology and a synthetic ontology with
+ * about 100k triples.
+ * Only runs on demand, with {@code mvn test -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ValidatorLoadBenchmarkTest {
+
+    private static final String NS = "http://ontologies.ontoformgenerator.de/ValidatorBenchmark#";
+    private static final int ROUNDS = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(ValidatorLoadBenchmarkTest.class);
+
+    private final Validator validator = new HermitValidator();
+
+    @Test
+    public void restaurantOntologyLoadBenchmark() throws IOException {
+        Model model = ModelFactory.createDefaultModel();
+        try (var inputStream = new FileInputStream("owl/myRestaurant.rdf")) {
+            model.read(inputStream, null);
+        }
+        // Only measure the local triples, not the download of the imported ontologies
+        model.removeAll(null, OWL.imports, null);
+        compare("myRestaurant.rdf", model);
+    }
+
+    @Test
+    public void syntheticOntologyLoadBenchmark() {
+        var ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        var thing = ontModel.createClass(NS + "Thing");
+        var name = ontModel.createDatatypeProperty(NS + "hasName");
+        var next = ontModel.createObjectProperty(NS + "hasNext");
+        // Every individual adds four triples (two types, one name, one link)
+        for (int i = 0; i < 25_000; i++) {
+            var individual = ontModel.createIndividual(NS + "individual" + i, thing);
+            individual.addProperty(RDF.type, OWL.NamedIndividual);
+            individual.addLiteral(name, "Individual " + i);
+            individual.addProperty(next, ontModel.createResource(NS + "individual" + (i + 1)));
+        }
+        compare("synthetic", ontModel.getBaseModel());
+    }
+
+    private void compare(String name, Model model) {
+        long rdfXmlNanos = Long.MAX_VALUE;
+        long pipedNanos = Long.MAX_VALUE;
+        int rdfXmlAxioms = 0;
+        int pipedAxioms = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            rdfXmlAxioms = loadWithRdfXml(model).getAxiomCount();
+            rdfXmlNanos = Math.min(rdfXmlNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            pipedAxioms = validator.loadOntology(validator.createOntologyManager(), model).getAxiomCount();
+            pipedNanos = Math.min(pipedNanos, System.nanoTime() - start);
+        }
+        logger.info("Loading {} ({} triples, {} axioms): RDF/XML round trip {} ms, piped N-Triples {} ms",
+                name, model.size(), pipedAxioms, rdfXmlNanos / 1_000_000.0, pipedNanos / 1_000_000.0);
+        Assertions.assertEquals(rdfXmlAxioms, pipedAxioms);
+    }
+
+    private OWLOntology loadWithRdfXml(Model model) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        model.write(outputStream, "RDF/XML");
+        var inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        try {
+            return validator.createOntologyManager().loadOntologyFromOntologyDocument(inputStream);
+        } catch (OWLOntologyCreationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
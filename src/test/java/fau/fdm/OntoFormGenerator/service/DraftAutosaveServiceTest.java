@@ -0,0 +1,97 @@
+package fau.fdm.OntoFormGenerator.service;
+
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class DraftAutosaveServiceTest {
+
+    private FormFillService formFillService;
+
+    private DraftAutosaveService draftAutosaveService;
+
+    @BeforeEach
+    public void setUp() {
+        formFillService = mock(FormFillService.class);
+        var datasetManager = mock(TDBDatasetManager.class);
+        when(datasetManager.begin(ReadWrite.WRITE)).thenReturn(mock(Dataset.class));
+        // Flushed explicitly by the tests only
+        draftAutosaveService = new DraftAutosaveService(formFillService, datasetManager, 3_600_000, 200, false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        draftAutosaveService.shutdown();
+    }
+
+    private void autosave(String firstDraftName, String value) {
+        draftAutosaveService.autosave("OrderForm", firstDraftName, firstDraftName,
+                Map.of("instanceName", List.of(firstDraftName), "drinks", List.of(value)), Map.of());
+    }
+
+    @Test
+    public void flushOnlyUpdatesExistingDraftsTest() {
+        autosave("draftOrder", "water");
+        draftAutosaveService.flush("draftOrder");
+
+        verify(formFillService).updateDraft(any(), eq("OrderForm"), eq("draftOrder"), eq("draftOrder"),
+                eq(Map.of("instanceName", List.of("draftOrder"), "drinks", List.of("water"))), eq(Map.of()));
+        verify(formFillService, never()).writeDraft(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void discardBeforeFlushDropsAutosaveTest() {
+        autosave("draftOrder", "water");
+        draftAutosaveService.discard("draftOrder");
+        draftAutosaveService.flush();
+
+        verify(formFillService, never()).updateDraft(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void latestAutosaveReplacesBufferedOneTest() {
+        autosave("draftOrder", "water");
+        autosave("draftOrder", "juice");
+        draftAutosaveService.flush();
+
+        verify(formFillService, times(1)).updateDraft(any(), any(), any(), eq("draftOrder"),
+                eq(Map.of("instanceName", List.of("draftOrder"), "drinks", List.of("juice"))), any());
+    }
+
+    @Test
+    public void discardWaitsForRunningFlushTest() throws Exception {
+        var writing = new CountDownLatch(1);
+        var finishWriting = new CountDownLatch(1);
+        when(formFillService.updateDraft(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            finishWriting.await(10, TimeUnit.SECONDS);
+            return 1;
+        });
+        autosave("draftOrder", "water");
+        var flush = CompletableFuture.runAsync(() -> draftAutosaveService.flush());
+        Assertions.assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        var discard = CompletableFuture.runAsync(() -> draftAutosaveService.discard("draftOrder"));
+        Thread.sleep(200);
+        // The draft is still being written, so the discard must not return yet
+        Assertions.assertFalse(discard.isDone());
+
+        finishWriting.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+        discard.get(10, TimeUnit.SECONDS);
+        verify(formFillService, times(1)).updateDraft(any(), any(), any(), any(), any(), any());
+    }
+}
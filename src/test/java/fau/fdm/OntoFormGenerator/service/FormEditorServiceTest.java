@@ -1,6 +1,15 @@
 package fau.fdm.OntoFormGenerator.service;
 
 import fau.fdm.OntoFormGenerator.OntoFormGeneratorApplication;
+import fau.fdm.OntoFormGenerator.data.FormField;
+import fau.fdm.OntoFormGenerator.tdb.GeneralTDBService;
+import fau.fdm.OntoFormGenerator.tdb.TDBConnection;
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +18,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(
@@ -22,6 +38,18 @@ public class FormEditorServiceTest {
     @Autowired
     private FormEditorService formEditorService;
 
+    @Autowired
+    private FormOverviewService formOverviewService;
+
+    @Autowired
+    private GeneralTDBService generalTDBService;
+
+    @Autowired
+    private TDBDatasetManager datasetManager;
+
+    private static final String FORMS_NAMESPACE =
+            "http://www.semanticweb.org/fau/ontologies/2024/ontoformgenerator/forms#";
+
     @Test
     public void getTargetClassOfFormTest() {
         var form = formEditorService.getTargetClassOfForm("OrderForm");
@@ -35,4 +63,142 @@ public class FormEditorServiceTest {
         Assertions.assertEquals("drinks", list.get(0).getName());
         Assertions.assertEquals("special_wishes", list.get(1).getName());
     }
+
+    @Test
+    public void getFormDefinitionTest() {
+        var definition = formEditorService.getFormDefinition("OrderForm");
+        Assertions.assertEquals("Order", definition.getTargetClass().getName());
+        Assertions.assertEquals(2, definition.getFormFields().size());
+        Assertions.assertEquals("drinks", definition.getFormFields().get(0).getName());
+        Assertions.assertFalse(definition.getOntologyClasses().isEmpty());
+        // The second call is served from the cache
+        Assertions.assertSame(definition, formEditorService.getFormDefinition("OrderForm"));
+    }
+
+    @Test
+    public void formElementsWithMissingAttributesAndSeveralTypesTest() {
+        // The transaction is not committed, so the test database is left unchanged
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            var dataset = connection.getDataset();
+            var model = dataset.getNamedModel("forms");
+            var form = model.getResource(generalTDBService.getIndividualURIInOntology(dataset, "forms", "OrderForm"));
+            var elements = model.listObjectsOfProperty(form,
+                    model.createProperty(FORMS_NAMESPACE + "hasFormElement")).toList();
+            Assertions.assertEquals(2, elements.size());
+            for (var element : elements) {
+                var resource = element.asResource();
+                resource.addProperty(RDF.type, model.createResource(FORMS_NAMESPACE + "Select"));
+                resource.addProperty(RDF.type, model.createResource(FORMS_NAMESPACE + "FormElement"));
+                model.removeAll(resource, model.createProperty(FORMS_NAMESPACE + "hasMaximumValues"), null);
+                model.removeAll(resource, model.createProperty(FORMS_NAMESPACE + "required"), null);
+            }
+
+            var list = formEditorService.getAllFormElementsOfForm(dataset, "OrderForm");
+            Assertions.assertEquals(2, list.size());
+            Assertions.assertEquals("drinks", list.get(0).getName());
+            Assertions.assertEquals("special_wishes", list.get(1).getName());
+            Assertions.assertEquals(1, list.get(0).getMaximumValues());
+            Assertions.assertFalse(list.get(0).isRequired());
+            Assertions.assertNotEquals("FormElement", list.get(0).getFieldType());
+        }
+    }
+
+    private MultiValueMap<String, String> formInput(List<List<String>> fields, List<Integer> requiredFields) {
+        MultiValueMap<String, String> formInput = new LinkedMultiValueMap<>();
+        formInput.add("ontologyName", "restaurantOnt");
+        formInput.add("ontologyClass", "Order");
+        formInput.put("fieldName", fields.stream().map(field -> field.get(0)).toList());
+        formInput.put("propertyName", fields.stream().map(field -> field.get(1)).toList());
+        formInput.put("isObjectProperty", fields.stream().map(field -> field.get(2)).toList());
+        formInput.put("propertyRange", fields.stream().map(field -> field.get(3)).toList());
+        formInput.put("maximumValues", fields.stream().map(field -> "1").toList());
+        formInput.put("minimumValues", fields.stream().map(field -> "1").toList());
+        formInput.put("required-checkbox", requiredFields.stream().map(i -> "required-checkbox-" + i).toList());
+        return formInput;
+    }
+
+    /**
+     * Get the statements of all form elements of a form by their label.
+     */
+    private Map<String, Set<Statement>> getFormElements(String formName) {
+        Map<String, Set<Statement>> elements = new HashMap<>();
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
+            var dataset = connection.getDataset();
+            var model = dataset.getNamedModel("forms");
+            var form = model.getResource(generalTDBService.getIndividualURIInOntology(dataset, "forms", formName));
+            for (var element : model.listObjectsOfProperty(form,
+                    model.createProperty(FORMS_NAMESPACE + "hasFormElement")).toList()) {
+                var resource = element.asResource();
+                elements.put(model.getProperty(resource, RDFS.label).getString(),
+                        model.listStatements(resource, null, (RDFNode) null).toSet());
+            }
+        }
+        return elements;
+    }
+
+    private String getSubject(Set<Statement> statements) {
+        return statements.iterator().next().getSubject().getURI();
+    }
+
+    private String getValue(Set<Statement> statements, String property) {
+        return statements.stream().filter(statement -> statement.getPredicate().getURI()
+                .equals(FORMS_NAMESPACE + property)).findFirst().orElseThrow().getString();
+    }
+
+    @Test
+    public void updateFormTest() {
+        String ontologyURI;
+        try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
+            ontologyURI = generalTDBService.getOntologyURIByOntologyName(connection.getDataset(), "restaurantOnt");
+        }
+        formOverviewService.addNewForm("UpdateFormTestForm", "restaurantOnt", ontologyURI, "Order");
+        try {
+            formEditorService.updateForm("UpdateFormTestForm", formInput(List.of(
+                    List.of("drink", "hasOrderedDrink", "true", "Drink"),
+                    List.of("wish", "hasSpecialWish", "false", "string"),
+                    List.of("food", "hasOrderedFood", "true", "Food"),
+                    List.of("id", "hasID", "false", "int")), List.of()));
+            var before = getFormElements("UpdateFormTestForm");
+            Assertions.assertEquals(Set.of("drink", "wish", "food", "id"), before.keySet());
+
+            // drink is untouched, wish becomes required, id moves up, food is removed and timestamp is added
+            formEditorService.updateForm("UpdateFormTestForm", formInput(List.of(
+                    List.of("drink", "hasOrderedDrink", "true", "Drink"),
+                    List.of("wish", "hasSpecialWish", "false", "string"),
+                    List.of("id", "hasID", "false", "int"),
+                    List.of("timestamp", "hasTimestamp", "false", "dateTime")), List.of(1)));
+            var after = getFormElements("UpdateFormTestForm");
+            Assertions.assertEquals(Set.of("drink", "wish", "id", "timestamp"), after.keySet());
+
+            Assertions.assertEquals(before.get("drink"), after.get("drink"));
+
+            Assertions.assertEquals(getSubject(before.get("wish")), getSubject(after.get("wish")));
+            Assertions.assertEquals("false", getValue(before.get("wish"), "required"));
+            Assertions.assertEquals("true", getValue(after.get("wish"), "required"));
+            Assertions.assertEquals("1", getValue(after.get("wish"), "hasPositionInForm"));
+
+            Assertions.assertEquals(getSubject(before.get("id")), getSubject(after.get("id")));
+            Assertions.assertEquals("3", getValue(before.get("id"), "hasPositionInForm"));
+            Assertions.assertEquals("2", getValue(after.get("id"), "hasPositionInForm"));
+            Assertions.assertEquals(before.get("id").size(), after.get("id").size());
+
+            Assertions.assertTrue(getSubject(after.get("timestamp")).startsWith(FORMS_NAMESPACE + "timestamp"));
+            Assertions.assertTrue(after.get("timestamp").stream().anyMatch(statement ->
+                    statement.getPredicate().equals(RDF.type)
+                            && statement.getObject().asResource().getURI().equals(FORMS_NAMESPACE + "Datetime")));
+
+            var removedElement = getSubject(before.get("food"));
+            try (TDBConnection connection = new TDBConnection(ReadWrite.READ, datasetManager, null)) {
+                var model = connection.getDataset().getNamedModel("forms");
+                Assertions.assertFalse(model.containsResource(model.createResource(removedElement)));
+            }
+
+            var formElements = formEditorService.getAllFormElementsOfForm("UpdateFormTestForm");
+            Assertions.assertEquals(List.of("drink", "wish", "id", "timestamp"),
+                    formElements.stream().map(FormField::getName).toList());
+            Assertions.assertTrue(formElements.get(1).isRequired());
+        } finally {
+            formOverviewService.deleteForm("UpdateFormTestForm");
+        }
+    }
 }
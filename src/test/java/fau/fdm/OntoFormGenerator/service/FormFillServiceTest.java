@@ -0,0 +1,65 @@
+package fau.fdm.OntoFormGenerator.service;
+
+import fau.fdm.OntoFormGenerator.OntoFormGeneratorApplication;
+import fau.fdm.OntoFormGenerator.data.Draft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = OntoFormGeneratorApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(
+        locations = "classpath:application-test.properties")
+public class FormFillServiceTest {
+
+    @Autowired
+    private FormFillService formFillService;
+
+    @Autowired
+    private FormOverviewService formOverviewService;
+
+    @Autowired
+    private DraftAutosaveService draftAutosaveService;
+
+    private Draft findDraft(String firstDraftName) {
+        return formOverviewService.getAllDraftsOfForm("OrderForm").stream()
+                .filter(draft -> firstDraftName.equals(draft.getFirstDraftName()))
+                .findFirst().orElse(null);
+    }
+
+    @Test
+    public void autosaveAfterDeletionDoesNotRecreateDraftTest() {
+        var firstDraftName = "autosaveDeletedDraft";
+        Map<String, List<String>> normalFields = Map.of("instanceName", List.of(firstDraftName),
+                "drinks", List.of("water"));
+        formFillService.createDraftFromFilledForm("OrderForm", "restaurantOnt", firstDraftName, firstDraftName,
+                normalFields, Map.of());
+        var draft = findDraft(firstDraftName);
+        try {
+            Assertions.assertNotNull(draft);
+
+            // An autosave which arrives after the draft was discarded and deleted is buffered again
+            draftAutosaveService.autosave("OrderForm", firstDraftName, firstDraftName,
+                    Map.of("instanceName", List.of(firstDraftName), "drinks", List.of("juice")), Map.of());
+            formFillService.deleteDraft("OrderForm", draft.getIri());
+            draftAutosaveService.flush();
+
+            Assertions.assertNull(findDraft(firstDraftName));
+        } finally {
+            if (findDraft(firstDraftName) != null) {
+                formFillService.deleteDraft("OrderForm", findDraft(firstDraftName).getIri());
+            }
+        }
+    }
+}
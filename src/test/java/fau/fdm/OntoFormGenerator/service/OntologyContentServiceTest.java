@@ -107,6 +107,16 @@ public class OntologyContentServiceTest {
                 list.get(0).getName());
     }
 
+    @Test
+    public void queryPropertiesTest_foundSomethingByWordsOfName() {
+        var list = ontologyContentService.queryProperties(
+                "restaurantOnt",
+                "http://ontologies.ontoformgenerator.de/MyRestaurant#Order",
+                "special_wi");
+        Assertions.assertEquals("hasSpecialWish",
+                list.get(0).getName());
+    }
+
     @Test
     public void queryPropertiesTest_empty() {
         var list = ontologyContentService.queryProperties(
@@ -52,6 +52,18 @@ public class OntologyOverviewServiceTest {
         Assertions.assertEquals("restaurantOnt", ontology.getName());
     }
 
+    @Test
+    public void getOntologyStatisticsTest() {
+        var statistics = ontologyOverviewService.getOntologyStatistics("restaurantOnt");
+        Assertions.assertEquals("restaurantOnt", statistics.getOntologyName());
+        Assertions.assertTrue(statistics.getClassCount() > 0);
+        Assertions.assertTrue(statistics.getTripleCount() > 0);
+        Assertions.assertEquals(statistics.getPropertyCount(),
+                statistics.getPropertyCountsByKind().values().stream().mapToInt(Integer::intValue).sum());
+        Assertions.assertEquals(statistics.getPropertyCount(),
+                statistics.getNamingSchemaCounts().values().stream().mapToInt(Integer::intValue).sum());
+    }
+
     @Test
     public void downloadOntologyTest() {
         var file = ontologyOverviewService.downloadOntology("restaurantOnt");
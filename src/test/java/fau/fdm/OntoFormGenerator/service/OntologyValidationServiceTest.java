@@ -40,6 +40,24 @@ public class OntologyValidationServiceTest {
         Assertions.assertEquals("propertyOneAndTwo", result.getNewPropertyName());
     }
 
+    @Test
+    public void findPotentialSimilarPropertiesTest() {
+        var result = ontologyValidationService.findPotentialSimilarProperties("restaurantOnt",
+                "http://ontologies.ontoformgenerator.de/MyRestaurant#Order", "hasPurchasedBeverage");
+        Assertions.assertTrue(result.stream().anyMatch(property -> property.getName().equals("hasOrderedDrink")));
+    }
+
+    @Test
+    public void findPotentialSimilarPropertiesTest_generalSynonyms() {
+        var result = ontologyValidationService.findPotentialSimilarProperties("restaurantOnt",
+                "http://ontologies.ontoformgenerator.de/MyRestaurant#Order", "hasPreference");
+        Assertions.assertTrue(result.stream().anyMatch(property -> property.getName().equals("hasSpecialWish")));
+
+        result = ontologyValidationService.findPotentialSimilarProperties("restaurantOnt",
+                "http://ontologies.ontoformgenerator.de/MyRestaurant#Order", "hasAcquiredMeal");
+        Assertions.assertTrue(result.stream().anyMatch(property -> property.getName().equals("hasOrderedFood")));
+    }
+
     @Test
     public void checkIfURIIsUsedTest_used() {
         var result = ontologyValidationService.checkIfURIisUsed("restaurantOnt",
@@ -0,0 +1,127 @@
+package fau.fdm.OntoFormGenerator.service;
+
+import fau.fdm.OntoFormGenerator.data.ValidationJob;
+import fau.fdm.OntoFormGenerator.data.ValidationResult;
+import fau.fdm.OntoFormGenerator.validation.Cancellation;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ValidationJobServiceTest {
+
+    private FormFillService formFillService;
+
+    private OntologyValidationService ontologyValidationService;
+
+    private DraftAutosaveService draftAutosaveService;
+
+    private ValidationJobService validationJobService;
+
+    @BeforeEach
+    public void setUp() {
+        formFillService = mock(FormFillService.class);
+        ontologyValidationService = mock(OntologyValidationService.class);
+        draftAutosaveService = mock(DraftAutosaveService.class);
+        when(formFillService.stageIndividualFromFilledForm(any(), any(), any(), any(), any()))
+                .thenReturn(new FormFillService.StagedIndividual("http://example.org#staged",
+                        ModelFactory.createDefaultModel()));
+        validationJobService = new ValidationJobService(formFillService, ontologyValidationService,
+                draftAutosaveService, 1, 1, 1, 30);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        validationJobService.shutdown();
+    }
+
+    @Test
+    public void timeoutCancelsValidationAndKeepsResultTest() throws InterruptedException {
+        var cancelled = new CountDownLatch(1);
+        var finished = new CountDownLatch(1);
+        var interruptedThread = new AtomicBoolean();
+        when(ontologyValidationService.validateWithDelta(any(), any(), any())).thenAnswer(invocation -> {
+            Cancellation cancellation = invocation.getArgument(2);
+            // Stands in for the reasoner, which is interrupted by the cancellation
+            try (var registration = cancellation.onCancel(cancelled::countDown)) {
+                cancelled.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interruptedThread.set(true);
+            }
+            finished.countDown();
+            // A late result must not overwrite the result of the timeout
+            return new ValidationResult(true, null);
+        });
+
+        var job = validationJobService.submitFormFill("OrderForm", "restaurantOnt", "Order",
+                "timeoutOrder", null, Map.of());
+
+        Assertions.assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        // The worker may be reading the TDB, so it is never interrupted
+        Assertions.assertFalse(interruptedThread.get());
+        Assertions.assertEquals(ValidationJob.Status.TIMED_OUT, job.getStatus());
+        Assertions.assertFalse(job.getResult().isConsistent());
+        Assertions.assertEquals("The validation did not finish in time.", job.getResult().getReason());
+        verify(formFillService, never()).promoteStagedIndividual(any(), any(), any(), any());
+    }
+
+    @Test
+    public void resultIsSetWithFinalStatusTest() throws InterruptedException {
+        when(ontologyValidationService.validateWithDelta(any(), any(), any()))
+                .thenReturn(new ValidationResult(false, "Inconsistent"));
+
+        var job = validationJobService.submitFormFill("OrderForm", "restaurantOnt", "Order",
+                "inconsistentOrder", null, Map.of());
+
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(ValidationJob.Status.FAILED, job.getStatus());
+        Assertions.assertEquals("Inconsistent", job.getResult().getReason());
+        verify(formFillService, never()).promoteStagedIndividual(any(), any(), any(), any());
+    }
+
+    @Test
+    public void promotionDiscardsAutosaveOfDraftTest() throws InterruptedException {
+        when(ontologyValidationService.validateWithDelta(any(), any(), any()))
+                .thenReturn(new ValidationResult(true, ""));
+
+        var job = validationJobService.submitFormFill("OrderForm", "restaurantOnt", "Order",
+                "draftOrder", "draftOrder", Map.of());
+
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(ValidationJob.Status.SUCCEEDED, job.getStatus());
+        var order = inOrder(formFillService, draftAutosaveService);
+        order.verify(formFillService).promoteStagedIndividual(any(), eq("OrderForm"), eq("restaurantOnt"),
+                eq("draftOrder"));
+        order.verify(draftAutosaveService).discard("draftOrder");
+    }
+
+    @Test
+    public void failedValidationKeepsAutosaveOfDraftTest() throws InterruptedException {
+        when(ontologyValidationService.validateWithDelta(any(), any(), any()))
+                .thenReturn(new ValidationResult(false, "Inconsistent"));
+
+        var job = validationJobService.submitFormFill("OrderForm", "restaurantOnt", "Order",
+                "draftOrder", "draftOrder", Map.of());
+
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(ValidationJob.Status.FAILED, job.getStatus());
+        verify(draftAutosaveService, never()).discard(any());
+    }
+}
@@ -0,0 +1,96 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.reasoner.ReasonerRegistry;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClassMembershipIndexTest {
+
+    private static final String NAMESPACE = "http://ontologies.ontoformgenerator.de/MyRestaurant#";
+
+    private TDBDatasetManager datasetManager;
+
+    private ClassMembershipIndex classMembershipIndex;
+
+    @BeforeEach
+    public void setUp() {
+        datasetManager = new TDBDatasetManager();
+        ReflectionTestUtils.setField(datasetManager, "dataset", TDB2Factory.createDataset());
+
+        // Infer the types from the current state of the ontology on every read
+        var inferenceCache = mock(InferenceCache.class);
+        when(inferenceCache.getVersionedModel(any(), eq("restaurantOnt"))).thenAnswer(invocation -> {
+            Dataset dataset = invocation.getArgument(0);
+            var infModel = ModelFactory.createInfModel(ReasonerRegistry.getOWLMicroReasoner(),
+                    dataset.getNamedModel("restaurantOnt"));
+            return new InferenceCache.VersionedModel(ModelFactory.createDefaultModel().add(infModel),
+                    datasetManager.getTransactionVersion());
+        });
+        classMembershipIndex = new ClassMembershipIndex(datasetManager, inferenceCache);
+
+        var dataset = datasetManager.begin(ReadWrite.WRITE);
+        try {
+            Model model = dataset.getNamedModel("restaurantOnt");
+            model.add(model.createResource(NAMESPACE + "Order"), RDF.type, OWL.Class);
+            model.add(model.createResource(NAMESPACE + "Drink"), RDF.type, OWL.Class);
+            var hasOrderedDrink = model.createProperty(NAMESPACE + "hasOrderedDrink");
+            model.add(hasOrderedDrink, RDF.type, OWL.ObjectProperty);
+            model.add(hasOrderedDrink, RDFS.domain, model.createResource(NAMESPACE + "Order"));
+            model.add(hasOrderedDrink, RDFS.range, model.createResource(NAMESPACE + "Drink"));
+            // The drink is only a Drink because of the range of hasOrderedDrink
+            model.add(model.createResource(NAMESPACE + "Water"), RDF.type, OWL.Thing);
+            model.add(model.createResource(NAMESPACE + "Order1"), RDF.type, model.createResource(NAMESPACE + "Order"));
+            model.add(model.createResource(NAMESPACE + "Order1"), hasOrderedDrink,
+                    model.createResource(NAMESPACE + "Water"));
+            datasetManager.markChanged("restaurantOnt");
+            datasetManager.commit();
+        } finally {
+            datasetManager.end(ReadWrite.WRITE);
+        }
+    }
+
+    @Test
+    public void removeIndividualDropsTypesInferredFromItsValuesTest() {
+        Assertions.assertTrue(getDrinks().contains(NAMESPACE + "Water"));
+
+        var dataset = datasetManager.begin(ReadWrite.WRITE);
+        try {
+            var order = dataset.getNamedModel("restaurantOnt").getResource(NAMESPACE + "Order1");
+            classMembershipIndex.removeIndividual("restaurantOnt", order);
+            order.getModel().removeAll(order, null, null);
+            datasetManager.markChanged("restaurantOnt");
+            datasetManager.commit();
+        } finally {
+            datasetManager.end(ReadWrite.WRITE);
+        }
+
+        Assertions.assertFalse(getDrinks().contains(NAMESPACE + "Water"));
+    }
+
+    private Set<String> getDrinks() {
+        var dataset = datasetManager.begin(ReadWrite.READ);
+        try {
+            return Set.copyOf(classMembershipIndex.getIndividualsOfClass(dataset, "restaurantOnt",
+                    NAMESPACE + "Drink"));
+        } finally {
+            datasetManager.end(ReadWrite.READ);
+        }
+    }
+}
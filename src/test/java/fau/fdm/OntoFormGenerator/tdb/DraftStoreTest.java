@@ -0,0 +1,75 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import fau.fdm.OntoFormGenerator.OntoFormGeneratorApplication;
+import org.apache.jena.query.ReadWrite;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = OntoFormGeneratorApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(
+        locations = "classpath:application-test.properties")
+public class DraftStoreTest {
+
+    @Autowired
+    private DraftStore draftStore;
+
+    @Autowired
+    private TDBDatasetManager datasetManager;
+
+    @Value("${ontoformgenerator.ontologies.baseIRI}")
+    private String baseIRI;
+
+    @Test
+    public void legacyDraftRoundTripTest() {
+        // The transaction is not committed, so the test database is left unchanged
+        try (TDBConnection connection = new TDBConnection(ReadWrite.WRITE, datasetManager, null)) {
+            var dataset = connection.getDataset();
+            var model = dataset.getNamedModel("forms");
+            var draftIri = baseIRI + "/forms#legacyDraftTest";
+            var draft = model.createResource(draftIri);
+            var hasDraft = model.createProperty(baseIRI + "/forms#hasDraft");
+            draft.addProperty(hasDraft, "{\"normalFields\":{\"instanceName\":[\"legacyOrder\"],"
+                    + "\"drinks\":[\"water\",\"juice\"]},\"additionalFields\":{\"note\":[\"no ice\"]}}");
+
+            var fields = draftStore.getFields(dataset, draftIri);
+            Assertions.assertEquals(3, fields.size());
+            Assertions.assertEquals("instanceName", fields.get(0).getName());
+            Assertions.assertEquals("drinks", fields.get(1).getName());
+            Assertions.assertEquals(List.of("water", "juice"), fields.get(1).getValues());
+            Assertions.assertFalse(fields.get(1).isAdditional());
+            Assertions.assertEquals("note", fields.get(2).getName());
+            Assertions.assertEquals(List.of("no ice"), fields.get(2).getValues());
+            Assertions.assertTrue(fields.get(2).isAdditional());
+
+            // Writing converts the draft to the structured format, only the changed field counts as change
+            var changes = draftStore.writeFields(dataset, draftIri,
+                    Map.of("instanceName", List.of("legacyOrder"), "drinks", List.of("water")),
+                    Map.of("note", List.of("no ice")));
+            Assertions.assertEquals(1, changes);
+            Assertions.assertFalse(model.contains(draft, hasDraft));
+
+            fields = draftStore.getFields(dataset, draftIri);
+            Assertions.assertEquals(3, fields.size());
+            Assertions.assertEquals("instanceName", fields.get(0).getName());
+            Assertions.assertEquals(List.of("legacyOrder"), fields.get(0).getValues());
+            Assertions.assertEquals("drinks", fields.get(1).getName());
+            Assertions.assertEquals(List.of("water"), fields.get(1).getValues());
+            Assertions.assertEquals("note", fields.get(2).getName());
+            Assertions.assertTrue(fields.get(2).isAdditional());
+        }
+    }
+}
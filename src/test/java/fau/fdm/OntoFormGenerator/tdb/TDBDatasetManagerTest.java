@@ -0,0 +1,54 @@
+package fau.fdm.OntoFormGenerator.tdb;
+
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TDBDatasetManagerTest {
+
+    @Test
+    public void writerWaitingForCommitIsUpToDateTest() throws Exception {
+        var datasetManager = new TDBDatasetManager();
+        ReflectionTestUtils.setField(datasetManager, "dataset", TDB2Factory.createDataset());
+
+        var firstStarted = new CountDownLatch(1);
+        var commitFirst = new CountDownLatch(1);
+        var first = CompletableFuture.runAsync(() -> {
+            datasetManager.begin(ReadWrite.WRITE);
+            try {
+                firstStarted.countDown();
+                commitFirst.await(10, TimeUnit.SECONDS);
+                datasetManager.markChanged("ontology");
+                datasetManager.commit();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                datasetManager.end(ReadWrite.WRITE);
+            }
+        });
+        Assertions.assertTrue(firstStarted.await(10, TimeUnit.SECONDS));
+
+        // Waits for the first writer, which commits a change of the ontology meanwhile
+        var second = CompletableFuture.supplyAsync(() -> {
+            datasetManager.begin(ReadWrite.WRITE);
+            try {
+                return datasetManager.isUpToDate("ontology");
+            } finally {
+                datasetManager.getDataset().abort();
+                datasetManager.end(ReadWrite.WRITE);
+            }
+        });
+        Thread.sleep(200);
+        commitFirst.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(second.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, datasetManager.getGraphVersion("ontology"));
+    }
+}
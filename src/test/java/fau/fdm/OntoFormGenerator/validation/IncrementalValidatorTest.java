@@ -0,0 +1,102 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import fau.fdm.OntoFormGenerator.data.ValidationResult;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class IncrementalValidatorTest {
+
+    private Validator validator;
+
+    private OWLReasoner reasoner;
+
+    private CountDownLatch reasoning;
+
+    private AtomicBoolean interruptedThread;
+
+    @BeforeEach
+    public void setUp() throws OWLOntologyCreationException {
+        var manager = OWLManager.createOWLOntologyManager();
+        var ontology = manager.createOntology();
+        validator = mock(Validator.class);
+        when(validator.createOntologyManager()).thenReturn(manager);
+        when(validator.loadOntology(any(), any())).thenReturn(ontology);
+
+        // A reasoner which only finishes when it is interrupted
+        reasoning = new CountDownLatch(1);
+        interruptedThread = new AtomicBoolean();
+        var interrupted = new CountDownLatch(1);
+        reasoner = mock(OWLReasoner.class);
+        doAnswer(invocation -> {
+            interrupted.countDown();
+            return null;
+        }).when(reasoner).interrupt();
+        when(reasoner.isConsistent()).thenAnswer(invocation -> {
+            reasoning.countDown();
+            try {
+                interrupted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interruptedThread.set(true);
+            }
+            throw new ReasonerInterruptedException("Interrupted");
+        });
+        when(validator.createReasoner(any())).thenReturn(reasoner);
+    }
+
+    @Test
+    public void cancellationInterruptsReasonerTest() throws Exception {
+        var incrementalValidator = new IncrementalValidator(validator);
+        var cancellation = new Cancellation();
+        var validation = CompletableFuture.supplyAsync(() -> incrementalValidator.validate(
+                ModelFactory.createDefaultModel(), ModelFactory.createDefaultModel(), -1, null, null, cancellation));
+        Assertions.assertTrue(reasoning.await(10, TimeUnit.SECONDS));
+
+        cancellation.cancel();
+
+        var exception = Assertions.assertThrows(ExecutionException.class, () -> validation.get(10, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(ReasonerInterruptedException.class, exception.getCause());
+        verify(reasoner).interrupt();
+        Assertions.assertFalse(interruptedThread.get());
+    }
+
+    @Test
+    public void cancelledValidationDoesNotStartTest() {
+        var incrementalValidator = new IncrementalValidator(validator);
+        var cancellation = new Cancellation();
+        cancellation.cancel();
+
+        Assertions.assertThrows(ReasonerInterruptedException.class, () -> incrementalValidator.validate(
+                ModelFactory.createDefaultModel(), ModelFactory.createDefaultModel(), -1, null, null, cancellation));
+        verify(validator, never()).loadOntology(any(), any());
+    }
+
+    @Test
+    public void cancellationAfterValidationIsIgnoredTest() {
+        doReturn(true).when(reasoner).isConsistent();
+        when(validator.checkConsistency(any(), any(), any()))
+                .thenReturn(new ValidationResult(true, ""));
+        var incrementalValidator = new IncrementalValidator(validator);
+        var cancellation = new Cancellation();
+        incrementalValidator.validate(ModelFactory.createDefaultModel(), ModelFactory.createDefaultModel(), -1,
+                null, null, cancellation);
+
+        // The reasoner may already validate for another job
+        cancellation.cancel();
+        verify(reasoner, never()).interrupt();
+    }
+}
@@ -0,0 +1,110 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RaceValidatorTest {
+
+    private RaceStatistics statistics;
+
+    private RaceValidator raceValidator;
+
+    private OWLReasoner factReasoner;
+
+    private OWLOntology ontology;
+
+    @BeforeEach
+    public void setUp() throws OWLOntologyCreationException {
+        statistics = new RaceStatistics();
+        raceValidator = new RaceValidator("raceOnt", statistics);
+        ontology = OWLManager.createOWLOntologyManager().createOntology();
+        factReasoner = mock(OWLReasoner.class);
+        var factValidator = mock(FactValidator.class);
+        when(factValidator.createReasoner(any())).thenAnswer(invocation -> factReasoner);
+        ReflectionTestUtils.setField(raceValidator, "factValidator", factValidator);
+    }
+
+    private OWLReasoner fastReasoner() {
+        var reasoner = mock(OWLReasoner.class);
+        when(reasoner.isConsistent()).thenReturn(true);
+        return reasoner;
+    }
+
+    /**
+     * A reasoner which only finishes when it is interrupted.
+     */
+    private OWLReasoner slowReasoner() {
+        var interrupted = new CountDownLatch(1);
+        var reasoner = mock(OWLReasoner.class);
+        doAnswer(invocation -> {
+            interrupted.countDown();
+            return null;
+        }).when(reasoner).interrupt();
+        when(reasoner.isConsistent()).thenAnswer(invocation -> {
+            interrupted.await(10, TimeUnit.SECONDS);
+            throw new ReasonerInterruptedException("Interrupted");
+        });
+        return reasoner;
+    }
+
+    @Test
+    public void fasterJFactWinsTest() {
+        factReasoner = fastReasoner();
+        var hermitReasoner = slowReasoner();
+
+        var result = raceValidator.checkConsistency(ontology, hermitReasoner, Set.of());
+
+        Assertions.assertTrue(result.isConsistent());
+        verify(hermitReasoner).interrupt();
+        var ontologyStatistics = statistics.getStatistics().get("raceOnt");
+        Assertions.assertEquals(1, ontologyStatistics.getJfactWins());
+        Assertions.assertEquals(0, ontologyStatistics.getHermitWins());
+    }
+
+    @Test
+    public void fasterHermitWinsAndInterruptedJFactIsDisposedTest() {
+        factReasoner = slowReasoner();
+        var slowFactReasoner = factReasoner;
+        var hermitReasoner = fastReasoner();
+
+        var result = raceValidator.checkConsistency(ontology, hermitReasoner, Set.of());
+
+        Assertions.assertTrue(result.isConsistent());
+        verify(slowFactReasoner).interrupt();
+        verify(slowFactReasoner).dispose();
+        verify(hermitReasoner, never()).interrupt();
+        var ontologyStatistics = statistics.getStatistics().get("raceOnt");
+        Assertions.assertEquals(1, ontologyStatistics.getHermitWins());
+        Assertions.assertEquals(0, ontologyStatistics.getJfactWins());
+    }
+
+    @Test
+    public void frequentWinnerIsUsedDirectlyTest() {
+        factReasoner = fastReasoner();
+        for (int i = 0; i < 5; i++) {
+            raceValidator.checkConsistency(ontology, slowReasoner(), Set.of());
+        }
+        Assertions.assertEquals(RaceStatistics.Contender.JFACT, statistics.getPreferred("raceOnt"));
+
+        var hermitReasoner = fastReasoner();
+        var result = raceValidator.checkConsistency(ontology, hermitReasoner, Set.of());
+
+        Assertions.assertTrue(result.isConsistent());
+        verify(hermitReasoner, never()).isConsistent();
+        Assertions.assertEquals(1, statistics.getStatistics().get("raceOnt").getDirectRuns());
+    }
+}
@@ -0,0 +1,120 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import fau.fdm.OntoFormGenerator.tdb.TDBDatasetManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+public class ReasonerPoolTest {
+
+    private ReasonerPool reasonerPool;
+
+    @BeforeEach
+    public void setUp() {
+        // Without an open write transaction, the actions after commit are executed immediately
+        reasonerPool = new ReasonerPool(new TDBDatasetManager());
+        ReflectionTestUtils.setField(reasonerPool, "maxPerOntology", 1);
+        ReflectionTestUtils.setField(reasonerPool, "maxAxioms", 100L);
+        ReflectionTestUtils.setField(reasonerPool, "idleMinutes", 30L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reasonerPool.shutdown();
+    }
+
+    private IncrementalValidator validator(int axiomCount) {
+        var validator = mock(IncrementalValidator.class);
+        when(validator.getAxiomCount()).thenReturn(axiomCount);
+        return validator;
+    }
+
+    private IncrementalValidator use(String ontologyName, IncrementalValidator validator) {
+        try (var lease = reasonerPool.acquire(ontologyName, ValidatorMode.HERMIT, () -> validator, () -> {})) {
+            return lease.getValidator();
+        }
+    }
+
+    @Test
+    public void reusesIdleValidatorTest() {
+        var validator = validator(10);
+        Assertions.assertSame(validator, use("first", validator));
+        Assertions.assertSame(validator, use("first", validator(10)));
+        verify(validator, never()).dispose();
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedOverAxiomBudgetTest() {
+        var first = validator(60);
+        var second = validator(60);
+        use("first", first);
+        use("second", second);
+        verify(first).dispose();
+        verify(second, never()).dispose();
+    }
+
+    @Test
+    public void axiomBudgetCountsLeasedValidatorsTest() {
+        var leased = validator(80);
+        use("first", leased);
+        try (var lease = reasonerPool.acquire("first", ValidatorMode.HERMIT, () -> validator(0), () -> {})) {
+            Assertions.assertSame(leased, lease.getValidator());
+            var idle = validator(50);
+            use("second", idle);
+            verify(idle).dispose();
+        }
+        verify(leased, never()).dispose();
+    }
+
+    @Test
+    public void sweepEvictsIdleValidatorsTest() {
+        var validator = validator(10);
+        use("first", validator);
+        reasonerPool.sweep();
+        verify(validator, never()).dispose();
+        ReflectionTestUtils.setField(reasonerPool, "idleMinutes", 0L);
+        reasonerPool.sweep();
+        verify(validator).dispose();
+    }
+
+    @Test
+    public void invalidateDropsValidatorsAndWarmsUpTest() throws InterruptedException {
+        var idle = validator(10);
+        var leased = validator(10);
+        var warmedUp = new CountDownLatch(1);
+        try (var lease = reasonerPool.acquire("first", ValidatorMode.HERMIT, () -> idle, warmedUp::countDown)) {
+            Assertions.assertSame(idle, lease.getValidator());
+        }
+        try (var lease = reasonerPool.acquire("first", ValidatorMode.HERMIT, () -> leased, warmedUp::countDown)) {
+            Assertions.assertSame(idle, lease.getValidator());
+        }
+        try (var lease = reasonerPool.acquire("second", ValidatorMode.HERMIT, () -> leased, () -> {})) {
+            reasonerPool.invalidate("second");
+            verify(idle, never()).dispose();
+            verify(leased, never()).dispose();
+        }
+        // A validator leased during the invalidation is dropped when it is returned
+        verify(leased).dispose();
+
+        reasonerPool.invalidate("first");
+        verify(idle).dispose();
+        Assertions.assertTrue(warmedUp.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void releasesPermitIfFactoryFailsTest() {
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                reasonerPool.acquire("first", ValidatorMode.HERMIT, () -> {
+                    throw new IllegalStateException("Could not create validator");
+                }, () -> {}));
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> use("first", validator(10)));
+    }
+}
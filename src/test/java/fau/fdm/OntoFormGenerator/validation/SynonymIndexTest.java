@@ -0,0 +1,70 @@
+package fau.fdm.OntoFormGenerator.validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class SynonymIndexTest {
+
+    @Test
+    public void bundledWordListTest() {
+        var synonymIndex = new SynonymIndex(new ClassPathResource("synonyms.txt"), 100);
+
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("hasAutomobile").contains("car"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("treatingPhysician").contains("doctor"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("has_surname").contains("last name"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("hasEmailAddress").contains("e-mail"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("unknownWordXyz").isEmpty());
+    }
+
+    @Test
+    public void inflectedWordsTest() {
+        var synonymIndex = new SynonymIndex(new ClassPathResource("synonyms.txt"), 100);
+
+        // Base forms of the words are looked up, the related terms are inflected
+        var related = synonymIndex.getRelatedTerms("shippedParcels");
+        Assertions.assertTrue(related.contains("dispatched"));
+        Assertions.assertTrue(related.contains("packages"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("hasCities").contains("towns"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("isModified").contains("changed"));
+        Assertions.assertFalse(related.contains("shipped"));
+    }
+
+    @Test
+    public void wordnetFileTest() {
+        var wordnet = """
+                s(102958343,1,'car',n,1,71).
+                s(102958343,2,'auto',n,1,0).
+                s(102958343,3,'automobile',n,1,3).
+                s(102958343,4,'motorcar',n,1,0).
+                s(109772029,1,'driver''s_license',n,1,0).
+                s(109772029,2,'driving_licence',n,1,0).
+                """;
+        var synonymIndex = new SynonymIndex(new ByteArrayResource(wordnet.getBytes(StandardCharsets.UTF_8)), 100);
+
+        var related = synonymIndex.getRelatedTerms("hasMotorcar");
+        Assertions.assertTrue(related.contains("automobile"));
+        Assertions.assertTrue(related.contains("cars"));
+        Assertions.assertTrue(synonymIndex.getRelatedTerms("hasDrivingLicence").contains("driver's license"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cacheIsBoundedTest() {
+        var synonymIndex = new SynonymIndex(new ClassPathResource("synonyms.txt"), 2);
+        synonymIndex.getRelatedTerms("hasAutomobile");
+        synonymIndex.getRelatedTerms("hasPhysician");
+        synonymIndex.getRelatedTerms("hasAutomobile");
+        synonymIndex.getRelatedTerms("hasSurname");
+
+        var cache = (Map<String, ?>) ReflectionTestUtils.getField(synonymIndex, "cache");
+        Assertions.assertEquals(2, cache.size());
+        // The least recently used name was dropped
+        Assertions.assertFalse(cache.containsKey("hasPhysician"));
+    }
+}